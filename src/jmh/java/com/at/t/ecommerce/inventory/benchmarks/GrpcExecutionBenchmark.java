@@ -0,0 +1,124 @@
+package com.at.t.ecommerce.inventory.benchmarks;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.at.t.ecommerce.inventory.grpc.generated.GetStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.StockResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.StockServiceGrpc;
+import com.at.t.ecommerce.inventory.interfaces.grpc.config.GrpcExecutionProperties;
+import com.at.t.ecommerce.inventory.interfaces.grpc.config.GrpcExecutors;
+import com.at.t.ecommerce.inventory.interfaces.grpc.interceptors.AdmissionControlInterceptor;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Burst load on a unary RPC whose handler blocks on a small "connection pool", per executor mode,
+ * with and without admission control. Far more callers than connections, each with a short deadline:
+ * without admission every call queues (holding a thread) and most of them time out anyway.
+ * Run: mvn -Pjmh compile exec:exec -Djmh.args="GrpcExecutionBenchmark"
+ * Compare 'ok' (answered in time) across modes; 'busy' = RESOURCE_EXHAUSTED, 'late' = DEADLINE_EXCEEDED.
+ * VIRTUAL only differs from PLATFORM on Java 21+ (it falls back to the platform pool otherwise).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(200)
+@State(Scope.Benchmark)
+public class GrpcExecutionBenchmark {
+
+    private static final int POOL_SIZE = 10;                 // Hikari default
+    private static final long QUERY_MILLIS = 2;              // Time a handler holds its connection
+    private static final long DEADLINE_MILLIS = 25;          // Client deadline per call
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public GrpcExecutionProperties.Executor executor;
+
+    @Param({"false", "true"})
+    public boolean admission;
+
+    private ExecutorService handlerExecutor;
+    private Server server;
+    private ManagedChannel channel;
+    private StockServiceGrpc.StockServiceBlockingStub stub;
+
+    @Setup
+    public void startServer() throws Exception {
+        String name = "bench-" + UUID.randomUUID();
+        handlerExecutor = GrpcExecutors.create(executor, 64);
+        Semaphore connections = new Semaphore(POOL_SIZE, true);
+        StockServiceGrpc.StockServiceImplBase service = new StockServiceGrpc.StockServiceImplBase() {
+            @Override
+            public void getStockAvailability(GetStockRequest request, StreamObserver<StockResponse> responseObserver) {
+                try {
+                    connections.acquire(); // Like Hikari's getConnection(): blocks until one is free
+                    try {
+                        Thread.sleep(QUERY_MILLIS);
+                    } finally {
+                        connections.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                responseObserver.onNext(StockResponse.newBuilder().setSuccess(true).build());
+                responseObserver.onCompleted();
+            }
+        };
+        server = InProcessServerBuilder.forName(name)
+                .executor(handlerExecutor)
+                .addService(admission
+                        ? ServerInterceptors.intercept(service, new AdmissionControlInterceptor(POOL_SIZE, Duration.ofMillis(500),
+                                Set.of("GetStockAvailability"), new SimpleMeterRegistry()))
+                        : service.bindService())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = StockServiceGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown
+    public void stopServer() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        handlerExecutor.shutdownNow();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long ok;
+        public long busy;
+        public long late;
+    }
+
+    @Benchmark
+    public void unaryCall(Outcomes outcomes) {
+        try {
+            stub.withDeadlineAfter(DEADLINE_MILLIS, TimeUnit.MILLISECONDS)
+                    .getStockAvailability(GetStockRequest.newBuilder().setProductId("p").setWarehouseId("w").build());
+            outcomes.ok++;
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.RESOURCE_EXHAUSTED) {
+                outcomes.busy++;
+            } else {
+                outcomes.late++;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.at.t.ecommerce.inventory.benchmarks;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.*;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * Hot path of the Stock Aggregate.
+ * Run: mvn -Pjmh compile exec:exec -Djmh.args="StockBenchmark -prof gc"
+ * Look at "thrpt" (ops/us) and "gc.alloc.rate.norm" (bytes allocated per operation).
+ *
+ * The buckets start huge so that millions of operations per iteration never run out of stock,
+ * and the mutating benchmarks drain the Domain Events the way the repository does on save
+ * (otherwise the event list would grow for the whole iteration).
+ *
+ * Expect ~104 B/op for each mutation: that is its Domain Event (StockReserved, StockAllocated,
+ * StockShipped, with their Instant) and the drained event list. The quantity arithmetic, ATP and
+ * the invariant check allocate nothing; getAvailableToPromise only builds the Quantity it returns.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StockBenchmark {
+
+    private static final UnitOfMeasure UNIT = UnitOfMeasure.EACH;
+    private static final long PLENTY = 1_000_000_000_000L;
+
+    private final Quantity one = Quantity.of(1, UNIT);
+
+    // Pre-built arguments for reconstitute (as the mapper would have them)
+    private final StockId id = StockId.newId();
+    private final ProductId productId = ProductId.of("prod-bench");
+    private final WarehouseId warehouseId = WarehouseId.of("wh-bench");
+    private final Owner owner = Owner.of("owner-bench");
+    private final Quantity onHand = Quantity.of(PLENTY, UNIT);
+    private final Quantity reserved = Quantity.of(PLENTY / 4, UNIT);
+    private final Quantity allocated = Quantity.of(PLENTY / 4, UNIT);
+    private final Quantity zero = Quantity.zero(UNIT);
+    private final Quantity low = Quantity.of(10, UNIT);
+    private final Quantity max = Quantity.of(PLENTY * 2, UNIT);
+    private final Instant lastUpdated = Instant.now();
+
+    private Stock stock;
+
+    @Setup(Level.Iteration)
+    public void freshStock() {
+        stock = reconstitute();
+    }
+
+    @Benchmark
+    public Quantity getAvailableToPromise() {
+        return stock.getAvailableToPromise();
+    }
+
+    @Benchmark
+    public List<StockEvent> reserveStock() {
+        stock.reserveStock(one);
+        return stock.pullDomainEvents();
+    }
+
+    @Benchmark
+    public List<StockEvent> allocateStock() {
+        stock.allocateStock(one);
+        return stock.pullDomainEvents();
+    }
+
+    @Benchmark
+    public List<StockEvent> confirmShipment() {
+        stock.confirmShipment(one);
+        return stock.pullDomainEvents();
+    }
+
+    @Benchmark
+    public Stock reconstitute() {
+        return Stock.reconstitute(
+                id, productId, warehouseId, owner, UNIT,
+                onHand, reserved, allocated, zero, zero, zero,
+                low, max,
+                VelocityCode.A_FAST_MOVER, RotationPolicy.FIFO, LifeCycleStatus.ACTIVE,
+                LocalDate.MAX, lastUpdated, 1L);
+    }
+}
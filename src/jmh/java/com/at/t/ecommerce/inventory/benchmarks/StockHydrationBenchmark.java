@@ -0,0 +1,65 @@
+package com.at.t.ecommerce.inventory.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.at.t.ecommerce.inventory.infrastructure.mappers.StockMapper;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJpaEntity;
+
+/**
+ * Read path: rows hydrated into Stock Aggregates per second, as in a bulk read or an availability scan.
+ * Run: mvn -Pjmh compile exec:exec -Djmh.args="StockHydrationBenchmark -prof gc"
+ * The score is in rows/s (one operation = one row).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StockHydrationBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private final StockMapper mapper = new StockMapper();
+    private final List<StockJpaEntity> rows = new ArrayList<>(ROWS);
+
+    @Setup
+    public void loadRows() {
+        for (int i = 0; i < ROWS; i++) {
+            StockJpaEntity entity = new StockJpaEntity();
+            entity.setId(UUID.randomUUID().toString());
+            entity.setProductId("prod-" + i);
+            entity.setWarehouseId("wh-" + (i % 20));
+            entity.setOwnerId("owner-bench");
+            entity.setUnitOfMeasure("EACH");
+            entity.setQuantityOnHand(1_000 + i);
+            entity.setQuantityReserved(i % 100);
+            entity.setQuantityAllocated(i % 50);
+            entity.setQuantityInTransit(200);
+            entity.setSafetyStock(10);
+            entity.setLowStockThreshold(10);
+            entity.setMaxStockThreshold(10_000);
+            entity.setVelocityCode("B_STANDARD");
+            entity.setRotationPolicy("FIFO");
+            entity.setLifecycleStatus("ACTIVE");
+            entity.setLastUpdated(Instant.now());
+            entity.setVersion((long) i);
+            rows.add(entity);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void hydrateRows(Blackhole blackhole) {
+        for (StockJpaEntity row : rows) {
+            blackhole.consume(mapper.toDomain(row));
+        }
+    }
+}
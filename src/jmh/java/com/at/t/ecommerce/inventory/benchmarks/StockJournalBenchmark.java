@@ -0,0 +1,261 @@
+package com.at.t.ecommerce.inventory.benchmarks;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Stock writes against a real PostgreSQL: UPDATE_IN_PLACE (every save rewrites the whole row, as the
+ * merge of StockJpaEntity does) vs JOURNAL (every save appends one event, the row is rewritten every
+ * 'snapshotEvery' events, see StockJournal). Each operation = one reservation: load + write + commit.
+ * Run: mvn -Pjmh compile exec:exec -Djmh.args="StockJournalBenchmark -t 4"
+ * Database: BENCH_JDBC_URL / BENCH_JDBC_USER / BENCH_JDBC_PASSWORD (default: the dev profile's).
+ * It only touches its own bench_stock_inventory / bench_stock_journal tables, recreated per trial.
+ *
+ * Throughput is in writes/s. Bloat is printed at the end of each trial, per table: size on disk,
+ * dead tuples and HOT updates (read from pg_stat_user_tables, autovacuum disabled on both tables so
+ * the dead tuples are all still there). Each thread writes its own rows: no lock waits in the numbers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class StockJournalBenchmark {
+
+    private static final String URL = env("BENCH_JDBC_URL", "jdbc:postgresql://localhost:5432/inventory_db");
+    private static final String USER = env("BENCH_JDBC_USER", "postgres");
+    private static final String PASSWORD = env("BENCH_JDBC_PASSWORD", "password");
+
+    // Same columns as stock_inventory (minus split_buckets, never written by a save)
+    private static final String CREATE_STOCK = """
+            CREATE TABLE bench_stock_inventory (
+              stock_id VARCHAR(64) PRIMARY KEY,
+              product_id VARCHAR(64) NOT NULL, warehouse_id VARCHAR(64) NOT NULL, owner_id VARCHAR(64) NOT NULL,
+              unit_of_measure VARCHAR(20) NOT NULL,
+              qty_on_hand BIGINT, qty_reserved BIGINT, qty_allocated BIGINT, qty_in_transit BIGINT,
+              qty_safety_stock BIGINT, qty_discrepancy BIGINT, threshold_low BIGINT, threshold_max BIGINT,
+              velocity_code VARCHAR(20), rotation_policy VARCHAR(20), low_stock_signalled BOOLEAN NOT NULL DEFAULT FALSE,
+              status VARCHAR(20), expiry_date DATE, last_updated TIMESTAMP WITH TIME ZONE, last_audit_date DATE,
+              journal_seq BIGINT NOT NULL DEFAULT 0, version BIGINT
+            ) WITH (autovacuum_enabled = false)
+            """;
+    private static final String CREATE_JOURNAL = """
+            CREATE TABLE bench_stock_journal (
+              stock_id VARCHAR(64) NOT NULL, seq BIGINT NOT NULL, event_type VARCHAR(40) NOT NULL,
+              quantity BIGINT NOT NULL, atp_delta BIGINT NOT NULL, occurred_on TIMESTAMP WITH TIME ZONE NOT NULL,
+              PRIMARY KEY (stock_id, seq)
+            ) WITH (autovacuum_enabled = false)
+            """;
+
+    private static final String INSERT_STOCK = """
+            INSERT INTO bench_stock_inventory (stock_id, product_id, warehouse_id, owner_id, unit_of_measure,
+              qty_on_hand, qty_reserved, qty_allocated, qty_in_transit, qty_safety_stock, qty_discrepancy,
+              threshold_low, threshold_max, velocity_code, rotation_policy, status, last_updated, journal_seq, version)
+            VALUES (?, ?, 'wh-bench', 'owner-bench', 'EACH', 1000000000, 0, 0, 0, 0, 0, 10, 1000000000,
+                    'B_STANDARD', 'FIFO', 'ACTIVE', CURRENT_TIMESTAMP, 0, 0)
+            """;
+    private static final String LOAD = "SELECT qty_reserved, journal_seq, version FROM bench_stock_inventory WHERE stock_id = ?";
+    private static final String LOAD_TAIL = "SELECT seq, quantity FROM bench_stock_journal WHERE stock_id = ? AND seq > ? ORDER BY seq";
+
+    // What Hibernate issues for a merged StockJpaEntity: every column, checked against the version
+    private static final String REWRITE = """
+            UPDATE bench_stock_inventory SET product_id = ?, warehouse_id = ?, owner_id = ?, unit_of_measure = ?,
+              qty_on_hand = ?, qty_reserved = ?, qty_allocated = ?, qty_in_transit = ?, qty_safety_stock = ?,
+              qty_discrepancy = ?, threshold_low = ?, threshold_max = ?, velocity_code = ?, rotation_policy = ?,
+              low_stock_signalled = ?, status = ?, expiry_date = ?, last_updated = ?, last_audit_date = ?,
+              journal_seq = ?, version = ?
+            WHERE stock_id = ? AND version = ?
+            """;
+    private static final String APPEND = "INSERT INTO bench_stock_journal (stock_id, seq, event_type, quantity, atp_delta, occurred_on) VALUES (?, ?, 'StockReserved', 1, -1, ?)";
+
+    public enum PersistenceMode { UPDATE_IN_PLACE, JOURNAL }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"UPDATE_IN_PLACE", "JOURNAL"})
+        public PersistenceMode mode;
+
+        @Param({"50"})
+        public int snapshotEvery;
+
+        @Setup(Level.Trial)
+        public void createTables() throws SQLException {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_stock_journal");
+                statement.execute("DROP TABLE IF EXISTS bench_stock_inventory");
+                statement.execute(CREATE_STOCK);
+                statement.execute(CREATE_JOURNAL);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void reportBloat() throws SQLException, InterruptedException {
+            Thread.sleep(1_000); // Table statistics are flushed by the backends asynchronously
+            try (Connection connection = connect(); Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("""
+                         SELECT relname, n_live_tup, n_dead_tup, n_tup_upd, n_tup_hot_upd,
+                                pg_size_pretty(pg_total_relation_size(relid)) AS total_size
+                           FROM pg_stat_user_tables
+                          WHERE relname IN ('bench_stock_inventory', 'bench_stock_journal')
+                          ORDER BY relname
+                         """)) {
+                System.out.printf("%n[%s, snapshotEvery=%d]%n", mode, snapshotEvery);
+                while (rows.next()) {
+                    System.out.printf("  %-22s size=%-8s live=%-9d dead=%-9d updates=%-9d hot=%d%n",
+                            rows.getString("relname"), rows.getString("total_size"), rows.getLong("n_live_tup"),
+                            rows.getLong("n_dead_tup"), rows.getLong("n_tup_upd"), rows.getLong("n_tup_hot_upd"));
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        @Param({"100"})
+        public int rowsPerThread;
+
+        private Connection connection;
+        private PreparedStatement load;
+        private PreparedStatement loadTail;
+        private PreparedStatement rewrite;
+        private PreparedStatement append;
+        private String[] stockIds;
+
+        @Setup(Level.Trial)
+        public void open() throws SQLException {
+            connection = connect();
+            stockIds = new String[rowsPerThread];
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_STOCK)) {
+                for (int i = 0; i < rowsPerThread; i++) {
+                    stockIds[i] = UUID.randomUUID().toString();
+                    insert.setString(1, stockIds[i]);
+                    insert.setString(2, "prod-" + stockIds[i]);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.setAutoCommit(false);
+            load = connection.prepareStatement(LOAD);
+            loadTail = connection.prepareStatement(LOAD_TAIL);
+            rewrite = connection.prepareStatement(REWRITE);
+            append = connection.prepareStatement(APPEND);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int reserveOne(Database database, Session session) throws SQLException {
+        String stockId = session.stockIds[ThreadLocalRandom.current().nextInt(session.stockIds.length)];
+        try {
+            int written = database.mode == PersistenceMode.JOURNAL
+                    ? appendEvent(database, session, stockId)
+                    : rewriteRow(session, stockId);
+            session.connection.commit();
+            return written;
+        } catch (SQLException e) {
+            session.connection.rollback();
+            throw e;
+        }
+    }
+
+    // Load the row, reserve 1, write the whole row back
+    private static int rewriteRow(Session session, String stockId) throws SQLException {
+        long reserved;
+        long version;
+        session.load.setString(1, stockId);
+        try (ResultSet row = session.load.executeQuery()) {
+            row.next();
+            reserved = row.getLong(1);
+            version = row.getLong(3);
+        }
+        return rewrite(session, stockId, reserved + 1, 0L, version);
+    }
+
+    // Load the snapshot + its tail, append 1 event; rewrite the row only when a snapshot is due
+    private static int appendEvent(Database database, Session session, String stockId) throws SQLException {
+        long reserved;
+        long snapshotSeq;
+        long version;
+        session.load.setString(1, stockId);
+        try (ResultSet row = session.load.executeQuery()) {
+            row.next();
+            reserved = row.getLong(1);
+            snapshotSeq = row.getLong(2);
+            version = row.getLong(3);
+        }
+        long head = snapshotSeq;
+        session.loadTail.setString(1, stockId);
+        session.loadTail.setLong(2, snapshotSeq);
+        try (ResultSet tail = session.loadTail.executeQuery()) {
+            while (tail.next()) {
+                head = tail.getLong(1);
+                reserved += tail.getLong(2);
+            }
+        }
+
+        session.append.setString(1, stockId);
+        session.append.setLong(2, head + 1);
+        session.append.setTimestamp(3, Timestamp.from(Instant.now()));
+        int written = session.append.executeUpdate();
+        if (head + 1 - snapshotSeq >= database.snapshotEvery) {
+            written += rewrite(session, stockId, reserved + 1, head + 1, version);
+        }
+        return written;
+    }
+
+    private static int rewrite(Session session, String stockId, long reserved, long journalSeq, long version) throws SQLException {
+        PreparedStatement update = session.rewrite;
+        update.setString(1, "prod-" + stockId);
+        update.setString(2, "wh-bench");
+        update.setString(3, "owner-bench");
+        update.setString(4, "EACH");
+        update.setLong(5, 1_000_000_000L);
+        update.setLong(6, reserved);
+        update.setLong(7, 0);
+        update.setLong(8, 0);
+        update.setLong(9, 0);
+        update.setLong(10, 0);
+        update.setLong(11, 10);
+        update.setLong(12, 1_000_000_000L);
+        update.setString(13, "B_STANDARD");
+        update.setString(14, "FIFO");
+        update.setBoolean(15, false);
+        update.setString(16, "ACTIVE");
+        update.setDate(17, null);
+        update.setTimestamp(18, Timestamp.from(Instant.now()));
+        update.setDate(19, Date.valueOf(LocalDate.now()));
+        update.setLong(20, journalSeq);
+        update.setLong(21, version + 1);
+        update.setString(22, stockId);
+        update.setLong(23, version);
+        return update.executeUpdate();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    private static String env(String name, String fallback) {
+        return Objects.requireNonNullElse(System.getenv(name), fallback);
+    }
+}
@@ -0,0 +1,63 @@
+package com.at.t.ecommerce.inventory.benchmarks;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.infrastructure.mappers.StockMapper;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJpaEntity;
+
+/**
+ * Both directions of the persistence mapping (runs once per row loaded / saved).
+ * Run: mvn -Pjmh compile exec:exec -Djmh.args="StockMapperBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StockMapperBenchmark {
+
+    private final StockMapper mapper = new StockMapper();
+
+    private StockJpaEntity entity;
+    private Stock domain;
+
+    @Setup
+    public void setUp() {
+        entity = new StockJpaEntity();
+        entity.setId("0b3c1f0e-8a55-4f57-9d2b-6f0c3b7a9e11");
+        entity.setProductId("prod-bench");
+        entity.setWarehouseId("wh-bench");
+        entity.setOwnerId("owner-bench");
+        entity.setUnitOfMeasure("EACH");
+        entity.setQuantityOnHand(1_000);
+        entity.setQuantityReserved(100);
+        entity.setQuantityAllocated(50);
+        entity.setQuantityInTransit(200);
+        entity.setSafetyStock(10);
+        entity.setDiscrepancyGap(0);
+        entity.setLowStockThreshold(10);
+        entity.setMaxStockThreshold(10_000);
+        entity.setVelocityCode("A_FAST_MOVER");
+        entity.setRotationPolicy("FIFO");
+        entity.setLifecycleStatus("ACTIVE");
+        entity.setLastUpdated(Instant.now());
+        entity.setVersion(7L);
+
+        domain = mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public Stock toDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public StockJpaEntity toEntity() {
+        return mapper.toEntity(domain);
+    }
+}
@@ -0,0 +1,181 @@
+package com.at.t.ecommerce.inventory.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.at.t.ecommerce.inventory.InventoryServiceApplication;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.grpc.generated.GetStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.StockResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.StockServiceGrpc;
+import com.at.t.ecommerce.inventory.loadtest.LoadTestResults.Operation;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * End-to-end load test: starts the service (H2 or a Testcontainers PostgreSQL), seeds the stock rows,
+ * then calls it over real gRPC at a fixed OPEN-LOOP rate: requests go out on schedule, however slow
+ * the answers are, like independent clients would send them.
+ * 1. SKU popularity follows a Zipf law (a few hot items take most of the traffic)
+ * 2. Latency is measured from the intended send time (no coordinated omission)
+ * 3. Results (HdrHistogram percentiles, throughput, status and server counters) go to a file
+ * Run: mvn -Ploadtest compile exec:exec -Dloadtest.args="--rate=3000 --zipf=1.2 --inventory.reservation.mode=ADAPTIVE"
+ */
+public final class InventoryLoadTest {
+
+    private static final String WAREHOUSE = "wh-load";
+
+    private InventoryLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext service = startService(options)) {
+            List<ProductId> products = seed(service, options);
+            run(options, products, service.getBean(MeterRegistry.class));
+        }
+        System.exit(0); // Kafka/Redis clients may linger on non-daemon threads
+    }
+
+    private static ConfigurableApplicationContext startService(LoadTestOptions options) {
+        // Command-line arguments, so they win over application-dev.yml; the caller's own come last and win over ours
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("grpc.server.port", String.valueOf(options.port()));
+        properties.put("server.port", "0");
+        properties.put("inventory.outbox.relay.enabled", "false"); // No Kafka broker
+        properties.put("logging.level.com.at.t.ecommerce", "WARN"); // Per-call logs would measure the logger
+        properties.put("logging.level.com.at.t.ecommerce.inventory.infrastructure.cache", "ERROR"); // No Redis either
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        switch (options.db()) {
+            case "h2" -> {
+                properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+                properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+                properties.put("spring.datasource.username", "sa");
+                properties.put("spring.datasource.password", "");
+                properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            }
+            case "postgres" -> {
+                properties.put("spring.datasource.url", "jdbc:tc:postgresql:16-alpine:///inventory_db");
+                properties.put("spring.datasource.driver-class-name", "org.testcontainers.jdbc.ContainerDatabaseDriver");
+            }
+            default -> throw new IllegalArgumentException("Unknown --db=" + options.db() + " (h2 or postgres)");
+        }
+        for (String arg : options.serviceArgs()) {
+            properties.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        List<String> args = new ArrayList<>();
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return new SpringApplicationBuilder(InventoryServiceApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static List<ProductId> seed(ConfigurableApplicationContext service, LoadTestOptions options) {
+        StockFactory factory = service.getBean(StockFactory.class);
+        StockRepository repository = service.getBean(StockRepository.class);
+        List<ProductId> products = new ArrayList<>(options.skus());
+        for (int i = 0; i < options.skus(); i++) {
+            ProductId productId = new ProductId(String.format("sku-%06d", i));
+            Stock stock = factory.createNewStock(productId, new WarehouseId(WAREHOUSE), new Owner("loadtest"), UnitOfMeasure.EACH);
+            stock.receiveStock(Quantity.of(options.initialStock(), UnitOfMeasure.EACH));
+            repository.save(stock);
+            products.add(productId);
+        }
+        System.out.printf("Seeded %d stock rows%n", products.size());
+        return products;
+    }
+
+    private static void run(LoadTestOptions options, List<ProductId> products, MeterRegistry registry) throws InterruptedException {
+        ZipfSampler popularity = new ZipfSampler(products.size(), options.zipf());
+        LoadTestResults results = new LoadTestResults();
+        ManagedChannel channel = Grpc.newChannelBuilderForAddress("localhost", options.port(), InsecureChannelCredentials.create()).build();
+        StockServiceGrpc.StockServiceFutureStub stub = StockServiceGrpc.newFutureStub(channel);
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        boolean measuring = false;
+        System.out.printf("Sending %d calls/s: %s warm-up, then %s measured%n", options.rate(), options.warmup(), options.duration());
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) break;
+            if (!measuring && intended >= measureFrom) {
+                results.startMeasuring(registry);
+                measuring = true;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            ProductId product = products.get(popularity.next());
+            Operation operation = ThreadLocalRandom.current().nextDouble() < options.reserveRatio() ? Operation.RESERVE : Operation.AVAILABILITY;
+            if (!inFlight.tryAcquire()) {
+                if (measuring) results.dropped(operation);
+                continue;
+            }
+            StockServiceGrpc.StockServiceFutureStub call = stub.withDeadlineAfter(options.deadline().toNanos(), TimeUnit.NANOSECONDS);
+            ListenableFuture<StockResponse> response = operation == Operation.RESERVE
+                    ? call.reserveStock(ReserveStockRequest.newBuilder()
+                            .setProductId(product.value())
+                            .setWarehouseId(WAREHOUSE)
+                            .setQuantity(1)
+                            .setUnitOfMeasure("EACH")
+                            .build())
+                    : call.getStockAvailability(GetStockRequest.newBuilder()
+                            .setProductId(product.value())
+                            .setWarehouseId(WAREHOUSE)
+                            .build());
+            boolean measured = measuring;
+            Futures.addCallback(response, new FutureCallback<>() {
+                @Override
+                public void onSuccess(StockResponse result) {
+                    done(Status.Code.OK);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    done(Status.fromThrowable(t).getCode());
+                }
+
+                private void done(Status.Code code) {
+                    if (measured) results.record(operation, System.nanoTime() - intended, code);
+                    inFlight.release();
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        // Let the last calls finish (or hit their deadline) before reading the numbers
+        inFlight.tryAcquire(options.maxInFlight(), options.deadline().plusSeconds(2).toMillis(), TimeUnit.MILLISECONDS);
+        Duration measured = Duration.ofNanos(end - measureFrom);
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            results.write(options, popularity.shareOfTop(Math.max(1, products.size() / 100)), measured, registry);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Could not write " + options.output(), e);
+        }
+    }
+}
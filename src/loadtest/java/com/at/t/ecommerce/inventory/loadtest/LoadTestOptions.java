@@ -0,0 +1,70 @@
+package com.at.t.ecommerce.inventory.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Load test knobs, given as --name=value (durations like the service's: 500ms, 30s, 2m). Any other --argument (e.g. --inventory.reservation.mode=ATOMIC)
+ * is handed to the service unchanged.
+ *
+ * @param rate         requests per second, sent on schedule whatever the latency (open loop)
+ * @param duration     measured time
+ * @param warmup       time before measuring (JIT, connection pool, caches)
+ * @param skus         stock rows seeded before the run
+ * @param zipf         popularity skew of the SKUs: 0 = uniform, ~1 = typical catalogue, >1.5 = a few very hot items
+ * @param reserveRatio share of ReserveStock calls, the rest are GetStockAvailability
+ * @param initialStock on-hand quantity of every seeded row
+ * @param deadline     client deadline per call
+ * @param maxInFlight  calls outstanding before the generator counts new ones as 'dropped' (protects the client)
+ * @param db           h2 (in memory) or postgres (Testcontainers, needs Docker)
+ * @param port         gRPC port of the service under test
+ * @param output       results file
+ * @param serviceArgs  the arguments passed through to the service
+ */
+public record LoadTestOptions(int rate, Duration duration, Duration warmup, int skus, double zipf,
+                              double reserveRatio, long initialStock, Duration deadline, int maxInFlight,
+                              String db, int port, Path output, List<String> serviceArgs) {
+
+    private static final Set<String> NAMES = Set.of("rate", "duration", "warmup", "skus", "zipf", "reserve-ratio",
+            "initial-stock", "deadline", "max-in-flight", "db", "port", "output");
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> serviceArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.contains(".")) {
+                serviceArgs.add(arg);
+            } else if (NAMES.contains(name)) {
+                values.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + NAMES);
+            }
+        }
+
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("rate", "2000")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("skus", "1000")),
+                Double.parseDouble(values.getOrDefault("zipf", "1.0")),
+                Double.parseDouble(values.getOrDefault("reserve-ratio", "0.5")),
+                Long.parseLong(values.getOrDefault("initial-stock", "1000000")),
+                DurationStyle.detectAndParse(values.getOrDefault("deadline", "1s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "20000")),
+                values.getOrDefault("db", "h2"),
+                Integer.parseInt(values.getOrDefault("port", "9191")),
+                Path.of(values.getOrDefault("output", "target/loadtest/results.txt")),
+                List.copyOf(serviceArgs));
+    }
+}
@@ -0,0 +1,129 @@
+package com.at.t.ecommerce.inventory.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * What the generator saw (latency from the INTENDED send time, so a stalled server is not hidden by
+ * a stalled client) plus the server's own counters over the measured window.
+ */
+final class LoadTestResults {
+
+    enum Operation {
+        RESERVE, AVAILABILITY
+    }
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Status.Code, LongAdder>> statuses = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> dropped = new EnumMap<>(Operation.class);
+    private Map<String, Double> serverBaseline = Map.of();
+
+    LoadTestResults() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            Map<Status.Code, LongAdder> byCode = new EnumMap<>(Status.Code.class);
+            for (Status.Code code : Status.Code.values()) byCode.put(code, new LongAdder());
+            statuses.put(operation, byCode);
+            dropped.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, Status.Code code) {
+        latencies.get(operation).recordValue(latencyNanos);
+        statuses.get(operation).get(code).increment();
+    }
+
+    void dropped(Operation operation) {
+        dropped.get(operation).increment();
+    }
+
+    void startMeasuring(MeterRegistry registry) {
+        serverBaseline = serverCounters(registry);
+    }
+
+    void write(LoadTestOptions options, double skuShareOfTopPercent, Duration measured, MeterRegistry registry) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        double seconds = measured.toNanos() / 1e9;
+
+        out.printf("# Inventory load test, %s%n", Instant.now());
+        out.printf("rate=%d/s duration=%s warmup=%s skus=%d zipf=%.2f (top 1%% of SKUs get %.0f%% of calls) reserve-ratio=%.2f%n",
+                options.rate(), options.duration(), options.warmup(), options.skus(), options.zipf(),
+                skuShareOfTopPercent * 100, options.reserveRatio());
+        out.printf("db=%s deadline=%s max-in-flight=%d service-args=%s%n%n",
+                options.db(), options.deadline(), options.maxInFlight(), options.serviceArgs());
+
+        out.printf("%-13s %9s %9s %9s %9s %9s %9s %9s %9s%n", "operation", "calls", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "dropped");
+        for (Operation operation : Operation.values()) {
+            Histogram h = latencies.get(operation);
+            out.printf("%-13s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9d%n", operation.name().toLowerCase(),
+                    h.getTotalCount(), statuses.get(operation).get(Status.Code.OK).sum() / seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()), dropped.get(operation).sum());
+        }
+
+        out.printf("%nStatus breakdown%n");
+        for (Operation operation : Operation.values()) {
+            StringBuilder line = new StringBuilder(String.format("%-13s", operation.name().toLowerCase()));
+            statuses.get(operation).forEach((code, count) -> {
+                if (count.sum() > 0) line.append(' ').append(code).append('=').append(count.sum());
+            });
+            out.println(line);
+        }
+
+        out.printf("%nServer counters over the measured window%n");
+        Map<String, Double> now = serverCounters(registry);
+        now.forEach((id, value) -> out.printf("%-70s %12.0f%n", id, value - serverBaseline.getOrDefault(id, 0.0)));
+
+        String summary = buffer.toString(StandardCharsets.UTF_8);
+
+        // The full distributions only go to the file (HdrHistogram's plottable format)
+        for (Operation operation : Operation.values()) {
+            out.printf("%n# Latency distribution (ms): %s%n", operation.name().toLowerCase());
+            latencies.get(operation).outputPercentileDistribution(out, 5, 1e6);
+        }
+
+        Files.createDirectories(options.output().toAbsolutePath().getParent());
+        Files.write(options.output(), buffer.toByteArray());
+        System.out.print(summary);
+        System.out.printf("%nFull results: %s%n", options.output().toAbsolutePath());
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // Every inventory.* counter, keyed by name + tags (e.g. inventory.reservation.rejected{reason=insufficient_stock})
+    private static Map<String, Double> serverCounters(MeterRegistry registry) {
+        Map<String, Double> counters = new TreeMap<>();
+        for (Meter meter : registry.getMeters()) {
+            if (meter instanceof Counter counter && meter.getId().getName().startsWith("inventory.")) {
+                StringBuilder id = new StringBuilder(meter.getId().getName());
+                if (!meter.getId().getTags().isEmpty()) {
+                    id.append('{');
+                    meter.getId().getTags().forEach(tag -> id.append(tag.getKey()).append('=').append(tag.getValue()).append(','));
+                    id.setCharAt(id.length() - 1, '}');
+                }
+                counters.put(id.toString(), counter.count());
+            }
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,35 @@
+package com.at.t.ecommerce.inventory.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws item ranks 0..n-1 with P(k) proportional to 1 / (k+1)^s (rank 0 is the most popular).
+ * The cumulative distribution is computed once; each draw is a binary search.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double skew) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    // Share of all draws that land on the 'top' most popular items (printed with the results)
+    double shareOfTop(int top) {
+        return cumulative[Math.min(top, cumulative.length) - 1];
+    }
+}
@@ -0,0 +1,43 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+/**
+ * Port for the availability cache. Implementations must FAIL OPEN:
+ * an unreachable cache behaves like a miss, never like an error.
+ */
+public interface AvailabilityCache {
+
+    Optional<StockAvailability> get(StockKey key);
+
+    /**
+     * Taken BEFORE a missed key is loaded from the database, then handed to {@link #put}: a write
+     * committed during the load evicts the key, and the old value the load read must not be cached
+     * over that eviction (it would live until the TTL).
+     */
+    Generation generation(StockKey key);
+
+    /**
+     * Stores the value only if the key was not evicted since 'generation' was taken.
+     */
+    void put(StockAvailability availability, Generation generation);
+
+    void evict(StockKey key);
+
+    /**
+     * Everything one transaction wrote, at once (implementations should make it one round trip).
+     */
+    default void evictAll(Collection<StockKey> keys) {
+        keys.forEach(this::evict);
+    }
+
+    /**
+     * How often a key had been evicted when a load started: 'shared' in the shared cache, 'local'
+     * in the in-process one (-1: unknown, that level stores nothing).
+     */
+    record Generation(long shared, long local) {
+    }
+}
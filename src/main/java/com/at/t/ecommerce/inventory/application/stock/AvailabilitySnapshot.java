@@ -0,0 +1,24 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+/**
+ * Port for an in-process copy of every Stock's ATP, consulted before the caches and the database.
+ * Unlike {@link AvailabilityCache} it is meant to hold the whole catalog, kept current by the
+ * committed writes rather than expired by a TTL.
+ */
+public interface AvailabilitySnapshot {
+
+    /**
+     * Empty when the Stock is unknown, or when its entry cannot be trusted (changed elsewhere since).
+     */
+    Optional<StockAvailability> get(StockKey key);
+
+    /**
+     * 'asOf': when the value was read. An older value never replaces a newer one.
+     */
+    void put(StockAvailability availability, Instant asOf);
+}
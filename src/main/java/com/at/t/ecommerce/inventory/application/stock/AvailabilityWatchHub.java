@@ -0,0 +1,207 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes committed ATP changes to the watchers of each Stock (WatchAvailability), instead of
+ * marketplace channels polling for them.
+ * 1. Changes are only recorded for watched Stocks (one map lookup for the others)
+ * 2. Coalescing: changes of one Stock are collapsed to the latest ATP and pushed once per
+ *    'window', so a burst of 1000 reservations on a SKU is one push per watcher. "Latest" is the
+ *    highest row version, not the last notification: concurrent commits notify in any order, and
+ *    a change older than one already recorded for the Stock is dropped
+ * 3. Changes that carry no value (committed on other instances, or the writer's estimate): the
+ *    latest ATP is read once per window
+ *
+ * inventory.watch.watches   open watches (gauge)
+ * inventory.watch.coalesced changes absorbed by a later one within the same window
+ * inventory.watch.pushed    updates handed to watchers, after coalescing
+ */
+@Service
+@EnableConfigurationProperties(WatchProperties.class)
+@Slf4j
+public class AvailabilityWatchHub {
+
+    /**
+     * Receives the updates of one watch, one call at a time (never concurrently).
+     * Must not block: it runs on the push thread shared by every watch.
+     */
+    public interface Subscriber {
+        void onAvailability(List<StockAvailability> updates, boolean snapshot);
+
+        // The instance is shutting down: end the stream so the client re-watches elsewhere
+        void onShutdown();
+    }
+
+    private final StockAvailabilityService availabilityService;
+    private final WatchProperties properties;
+    private final Counter coalesced;
+    private final Counter pushed;
+
+    // Watches per Stock; a Stock nobody watches has no entry
+    private final ConcurrentMap<StockKey, Set<Watch>> watchers = new ConcurrentHashMap<>();
+
+    // Changed since the last push: latest ATP per Stock, and Stocks whose ATP must be read
+    private final ConcurrentMap<StockKey, StockAvailability> changed = new ConcurrentHashMap<>();
+    private final Set<StockKey> changedElsewhere = ConcurrentHashMap.newKeySet();
+
+    // Highest version recorded per watched Stock (kept across pushes, dropped with its last watch)
+    private final ConcurrentMap<StockKey, Long> versions = new ConcurrentHashMap<>();
+
+    private final Set<Watch> open = ConcurrentHashMap.newKeySet();
+
+    public AvailabilityWatchHub(StockAvailabilityService availabilityService, WatchProperties properties, MeterRegistry registry) {
+        this.availabilityService = availabilityService;
+        this.properties = properties;
+        this.coalesced = registry.counter("inventory.watch.coalesced");
+        this.pushed = registry.counter("inventory.watch.pushed");
+        registry.gaugeCollectionSize("inventory.watch.watches", List.of(), open);
+    }
+
+    /**
+     * Starts watching: the subscriber gets the current ATP of every existing Stock first
+     * (snapshot = true), then its changes. Unknown Stocks are watched too (e.g. not received yet).
+     */
+    public Watch watch(Set<StockKey> keys, Subscriber subscriber) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("A watch needs at least one product/warehouse key");
+        }
+        if (keys.size() > properties.maxKeys()) {
+            throw new IllegalArgumentException("A watch is limited to " + properties.maxKeys() + " keys, got " + keys.size());
+        }
+
+        Watch watch = new Watch(Set.copyOf(keys), subscriber);
+        // Registered BEFORE the snapshot is read, and pushes wait for the snapshot: no change can be missed
+        // or overtaken by an older value
+        synchronized (watch) {
+            open.add(watch);
+            keys.forEach(key -> watchers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(watch));
+            List<StockAvailability> snapshot = new ArrayList<>(keys.size());
+            keys.forEach(key -> current(key).ifPresent(snapshot::add));
+            subscriber.onAvailability(snapshot, true);
+        }
+        log.debug("Watch opened on {} Stocks", keys.size());
+        return watch;
+    }
+
+    /**
+     * A write committed on this instance, with the ATP it left and the Stock's version it was made at.
+     */
+    public void changed(StockAvailability availability, long version) {
+        StockKey key = availability.key();
+        if (!watchers.containsKey(key)) return;
+        boolean[] newest = new boolean[1];
+        // Per key atomically: the version check and the recorded change cannot interleave with another write's
+        versions.compute(key, (k, recorded) -> {
+            newest[0] = recorded == null || version >= recorded;
+            if (newest[0] && changed.put(key, availability) != null) coalesced.increment();
+            return newest[0] ? version : recorded;
+        });
+        if (!newest[0]) coalesced.increment(); // Overtaken by a newer write
+    }
+
+    /**
+     * Writes whose ATP is not known (committed on other instances, or estimated): read at the next push.
+     */
+    public void changedElsewhere(Collection<StockKey> keys) {
+        keys.forEach(key -> {
+            if (watchers.containsKey(key) && !changedElsewhere.add(key)) coalesced.increment();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.watch.window:PT0.25S}")
+    public void push() {
+        if (changed.isEmpty() && changedElsewhere.isEmpty()) return;
+
+        Map<Watch, List<StockAvailability>> updates = new HashMap<>();
+        for (StockKey key : changed.keySet()) {
+            StockAvailability latest = changed.remove(key);
+            if (latest != null) route(latest, updates);
+        }
+        for (StockKey key : changedElsewhere) {
+            changedElsewhere.remove(key);
+            current(key).ifPresent(latest -> route(latest, updates));
+        }
+        updates.forEach(Watch::deliver);
+    }
+
+    // Before the gRPC server stops: open watches would otherwise hold up its graceful shutdown
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        open.forEach(watch -> {
+            close(watch);
+            watch.subscriber.onShutdown();
+        });
+    }
+
+    private void route(StockAvailability latest, Map<Watch, List<StockAvailability>> updates) {
+        Set<Watch> watching = watchers.get(latest.key());
+        if (watching == null) return;
+        watching.forEach(watch -> updates.computeIfAbsent(watch, w -> new ArrayList<>()).add(latest));
+    }
+
+    private Optional<StockAvailability> current(StockKey key) {
+        try {
+            return Optional.of(availabilityService.getAvailability(key.productId(), key.warehouseId()));
+        } catch (StockNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void close(Watch watch) {
+        if (!open.remove(watch)) return;
+        watch.keys.forEach(key -> watchers.computeIfPresent(key, (k, watching) -> {
+            watching.remove(watch);
+            if (!watching.isEmpty()) return watching;
+            versions.remove(key);
+            return null;
+        }));
+        log.debug("Watch closed on {} Stocks", watch.keys.size());
+    }
+
+    /**
+     * One open watch; close it when its stream ends.
+     */
+    public final class Watch implements AutoCloseable {
+
+        private final Set<StockKey> keys;
+        private final Subscriber subscriber;
+
+        private Watch(Set<StockKey> keys, Subscriber subscriber) {
+            this.keys = keys;
+            this.subscriber = subscriber;
+        }
+
+        private synchronized void deliver(List<StockAvailability> updates) {
+            if (!open.contains(this)) return;
+            pushed.increment(updates.size());
+            subscriber.onAvailability(updates, false);
+        }
+
+        @Override
+        public void close() {
+            AvailabilityWatchHub.this.close(this);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.application.stock.ReservationProperties.Mode;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.VelocityCode;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the contention strategy of each Stock row and retries optimistic conflicts.
+ * 1. Cold SKUs stay optimistic: no lock is held while the Domain logic runs.
+ * 2. Hot SKUs (by velocity code, or by their observed conflict rate in ADAPTIVE mode) take the row
+ *    lock or a single conditional UPDATE, so their writers queue instead of failing and retrying.
+ */
+@Component
+@Slf4j
+public class ContentionPolicy {
+
+    private static final double SMOOTHING = 0.1; // Weight of the latest attempt in the moving conflict rate
+
+    private final ReservationProperties properties;
+    private final ReservationMetrics metrics;
+
+    // Per Stock: moving conflict rate + velocity code (so choosing a strategy needs no extra SELECT)
+    private final Cache<StockKey, Contention> observed;
+
+    public ContentionPolicy(ReservationProperties properties, ReservationMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.observed = Caffeine.newBuilder()
+                .maximumSize(properties.contention().trackedStocks())
+                .build();
+    }
+
+    /**
+     * True when the strategy depends on a velocity code this policy has not seen yet for that Stock
+     * (the caller should load the Stock and pass it to {@link #modeFor}).
+     */
+    public boolean needsStock(StockKey key) {
+        if (properties.modeByVelocity().isEmpty()) return false;
+        Contention contention = observed.getIfPresent(key);
+        return contention == null || contention.velocityCode() == null;
+    }
+
+    /**
+     * The strategy for one reservation against this Stock. 'stock' is optional (null when not loaded).
+     */
+    public Mode modeFor(StockKey key, Stock stock) {
+        VelocityCode velocityCode = null;
+        if (stock != null) {
+            velocityCode = stock.getVelocityCode();
+            observed.get(key, k -> new Contention()).velocityCode(velocityCode);
+        } else if (!properties.modeByVelocity().isEmpty()) {
+            Contention contention = observed.getIfPresent(key);
+            velocityCode = contention != null ? contention.velocityCode() : null;
+        }
+
+        Mode mode = properties.modeFor(velocityCode);
+        if (mode != Mode.ADAPTIVE) return mode;
+        Contention contention = observed.getIfPresent(key);
+        return contention != null && contention.isHot() ? properties.contention().hotMode() : Mode.LOAD_AND_MERGE;
+    }
+
+    /**
+     * Runs one attempt (its own transaction) and runs it again after an optimistic conflict, with a
+     * jittered exponential pause, at most 'maxAttempts' times. Every outcome feeds the conflict rate.
+     * Business exceptions (e.g. InsufficientStockException) are not retried.
+     */
+    public <T> T retryOnConflict(StockKey key, Supplier<T> attempt) {
+        ReservationProperties.Contention tuning = properties.contention();
+        for (int n = 1; ; n++) {
+            try {
+                T result = attempt.get();
+                record(key, false);
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                metrics.conflict();
+                record(key, true);
+                if (n >= tuning.maxAttempts()) {
+                    log.warn("Reservation for Product {} gave up after {} conflicting attempts", key.productId().value(), n);
+                    throw e;
+                }
+                log.debug("Optimistic conflict on Product {} (attempt {}), retrying", key.productId().value(), n);
+                pause(n, tuning);
+                metrics.retry();
+            }
+        }
+    }
+
+    private void record(StockKey key, boolean conflict) {
+        double escalateAbove = properties.contention().escalateAbove();
+        Contention contention = observed.get(key, k -> new Contention());
+        if (contention.record(conflict, escalateAbove, properties.contention().cooldown().toNanos())) {
+            log.info("Product {} at Warehouse {} is {} (conflict rate crossed {})", key.productId().value(),
+                    key.warehouseId().value(), contention.isHot() ? "contended" : "calm again", escalateAbove);
+        }
+    }
+
+    // "Full jitter": a random pause in [0, min(cap, base * 2^attempt)), so retrying writers spread out
+    private static void pause(int attempt, ReservationProperties.Contention tuning) {
+        long ceiling = Math.min(tuning.maxBackoff().toNanos(), tuning.backoff().toNanos() << Math.min(attempt, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(Math.max(ceiling, 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a reservation retry", e);
+        }
+    }
+
+    // Mutable, guarded by its own monitor: only touched once per reservation attempt
+    private static final class Contention {
+
+        private double conflictRate;
+        private boolean hot;
+        private long hotSince;
+        private VelocityCode velocityCode;
+
+        synchronized VelocityCode velocityCode() {
+            return velocityCode;
+        }
+
+        synchronized void velocityCode(VelocityCode velocityCode) {
+            this.velocityCode = velocityCode;
+        }
+
+        synchronized boolean isHot() {
+            return hot;
+        }
+
+        // Returns true when the Stock switched between calm and contended
+        // (hysteresis: up above the threshold, down below half of it once the cool-down is over)
+        synchronized boolean record(boolean conflict, double escalateAbove, long cooldownNanos) {
+            conflictRate += SMOOTHING * ((conflict ? 1.0 : 0.0) - conflictRate);
+            long now = System.nanoTime();
+            if (!hot && conflictRate > escalateAbove) {
+                hot = true;
+                hotSince = now;
+                return true;
+            }
+            if (hot && conflictRate < escalateAbove / 2 && now - hotSince >= cooldownNanos) {
+                hot = false;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.at.t.ecommerce.inventory.domain.stock.repositories.ReservationRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Idempotency layer in front of {@link StockApplicationService#reserveStock}, keyed by order line
+ * (order id + product + warehouse). Retries after a client deadline must not reserve twice:
+ * 1. Hot window: a bounded in-memory cache (TTL) answers duplicates with NO database transaction.
+ *    A duplicate arriving while the first call is still running waits for its outcome, but no longer
+ *    than its own gRPC deadline (or 'maxWait' without one): then it fails with {@link ReservationInFlightException}.
+ * 2. Beyond it (evicted, other instance): the ledger's unique order line is the source of truth.
+ * Calls without an order id go straight through.
+ */
+@Service
+@Slf4j
+public class IdempotentReservationService {
+
+    private final StockApplicationService applicationService;
+    private final ReservationRepository reservations;
+    private final Duration maxWait;
+
+    // Completed answers AND calls in flight; a failed call is removed, so its retry runs again
+    private final Cache<OrderLine, CompletableFuture<Answer>> answers;
+
+    public IdempotentReservationService(StockApplicationService applicationService,
+                                        ReservationRepository reservations,
+                                        ReservationProperties properties) {
+        this.applicationService = applicationService;
+        this.reservations = reservations;
+        this.maxWait = properties.idempotency().maxWait();
+        this.answers = Caffeine.newBuilder()
+                .maximumSize(properties.idempotency().maxSize())
+                .expireAfterWrite(properties.idempotency().ttl())
+                .build();
+    }
+
+    public ReservationId reserveStock(String orderId, ProductId productId, WarehouseId warehouseId, Quantity amount) {
+        if (orderId == null || orderId.isBlank()) {
+            return applicationService.reserveStock(productId, warehouseId, amount, null);
+        }
+        OrderLine key = new OrderLine(orderId, productId, warehouseId);
+
+        CompletableFuture<Answer> mine = new CompletableFuture<>();
+        CompletableFuture<Answer> first = answers.asMap().putIfAbsent(key, mine);
+        if (first != null) {
+            // 1. Duplicate: answered from memory
+            log.debug("Duplicate reservation for order {} answered from the idempotency cache", orderId);
+            return join(first, key).replay(orderId, productId, amount);
+        }
+
+        try {
+            ReservationId id = reserveOnce(key, amount);
+            mine.complete(new Answer(id, amount));
+            return id;
+        } catch (RuntimeException e) {
+            answers.asMap().remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ReservationId reserveOnce(OrderLine key, Quantity amount) {
+        try {
+            return applicationService.reserveStock(key.productId(), key.warehouseId(), amount, key.orderId());
+        } catch (DataIntegrityViolationException e) {
+            // 2. Lost the race against the same order line on another instance: its hold is the answer
+            // (from the primary: a replica may not have that hold yet)
+            return ReadConsistency.primary(() -> reservations.findByOrderLine(key.orderId(), key.productId(), key.warehouseId()))
+                    .map(existing -> applicationService.replay(existing, amount))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Answer join(CompletableFuture<Answer> call, OrderLine key) {
+        Deadline deadline = Context.current().getDeadline();
+        long waitNanos = deadline == null ? maxWait.toNanos() : Math.min(maxWait.toNanos(), deadline.timeRemaining(TimeUnit.NANOSECONDS));
+        try {
+            return call.get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // Re-throw the first call's business exception (e.g. InsufficientStockException) as-is
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ReservationInFlightException(key.orderId(), key.productId().value());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReservationInFlightException(key.orderId(), key.productId().value());
+        }
+    }
+
+    private record OrderLine(String orderId, ProductId productId, WarehouseId warehouseId) {
+    }
+
+    private record Answer(ReservationId reservationId, Quantity amount) {
+
+        ReservationId replay(String orderId, ProductId productId, Quantity requested) {
+            if (!amount.equals(requested)) {
+                throw new IllegalArgumentException(String.format("Order %s already reserved %d of Product %s, not %d.",
+                        orderId, amount.value(), productId.value(), requested.value()));
+            }
+            return reservationId;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.Objects;
+
+/**
+ * One line of an order placed elsewhere (order-event feed): at most one hold per order line, ever.
+ */
+public record OrderLine(String orderId, ReservationLine line) {
+    public OrderLine {
+        Objects.requireNonNull(orderId);
+        Objects.requireNonNull(line);
+        if (orderId.isBlank()) {
+            throw new IllegalArgumentException("An order line needs its order ID");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * Read Model: how much of a Product can be promised right now, all Warehouses together.
+ * What the storefront shows before a Warehouse is picked.
+ */
+public record ProductAvailability(ProductId productId, Quantity availableToPromise) {
+}
@@ -0,0 +1,39 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-request read consistency (current thread). Read-only transactions may be served by a read
+ * replica that lags the primary a little (see inventory.datasource.replicas); reads that must see
+ * the latest committed writes (the caller's own, or a hold another instance just took) run under
+ * {@link #primary}.
+ */
+public final class ReadConsistency {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    public static boolean primaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    public static <T> T primary(Supplier<T> reads) {
+        Boolean outer = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (outer == null) PRIMARY.remove();
+            else PRIMARY.set(outer);
+        }
+    }
+
+    public static void primary(Runnable reads) {
+        primary(() -> {
+            reads.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.Objects;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * One line of a delivery (dock receiving, ASN): 'amount' arrived for this Stock.
+ * 'owner' is optional, only needed when the Product is new to that Warehouse.
+ */
+public record ReceiptLine(ProductId productId, WarehouseId warehouseId, Quantity amount, Owner owner) {
+    public ReceiptLine {
+        Objects.requireNonNull(productId);
+        Objects.requireNonNull(warehouseId);
+        Objects.requireNonNull(amount);
+        if (amount.value() == 0) {
+            throw new IllegalArgumentException("A receipt line must receive at least one unit.");
+        }
+    }
+
+    public StockKey stockKey() {
+        return StockKey.of(productId, warehouseId);
+    }
+}
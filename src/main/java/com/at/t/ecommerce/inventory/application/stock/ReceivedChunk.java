@@ -0,0 +1,20 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.List;
+
+/**
+ * Result of ONE committed chunk of receipt lines.
+ *
+ * @param lines         lines in the chunk
+ * @param received      lines applied
+ * @param stocksWritten Stock rows written (lines for the same Stock are merged into one write)
+ * @param rejected      lines left out, with the reason; the rest of the chunk is committed anyway
+ */
+public record ReceivedChunk(int lines, int received, int stocksWritten, List<Rejected> rejected) {
+
+    /**
+     * @param index position of the line in the chunk (0-based)
+     */
+    public record Rejected(int index, ReceiptLine line, RuntimeException failure) {
+    }
+}
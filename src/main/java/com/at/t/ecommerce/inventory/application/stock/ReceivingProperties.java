@@ -0,0 +1,15 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bulk receiving (ReceiveStockBulk stream, receipt file inbox).
+ *
+ * @param chunkSize receipt lines per transaction: held in memory, locked together and written
+ *                  as JDBC batches (keep it a multiple of hibernate.jdbc.batch_size)
+ */
+@ConfigurationProperties(prefix = "inventory.receiving")
+public record ReceivingProperties(
+        @DefaultValue("500") int chunkSize) {
+}
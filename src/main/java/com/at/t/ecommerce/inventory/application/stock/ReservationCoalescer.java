@@ -0,0 +1,179 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit of single-line reservations, per Stock (see {@link ReservationProperties.Coalescing}).
+ * 1. The first caller for a Stock opens a group and leads it: it waits 'window' (or until the group is full)
+ * 2. Callers for the same Stock arriving meanwhile join the group and just wait for their answer
+ * 3. The leader closes the group and commits ALL its reservations at once, in arrival order,
+ *    then hands every member its own outcome
+ * 4. If that shared commit fails (e.g. one member's order line is already in the ledger), the leader
+ *    commits each member on its own instead: a failure then only reaches the member that caused it
+ * A leader interrupted while collecting commits nothing: every member fails with a CancellationException.
+ * Groups of different Stocks never wait for each other. While a leader commits, the next
+ * callers already form the next group: it commits as soon as the row lock is free.
+ */
+@Component
+@Slf4j
+public class ReservationCoalescer {
+
+    /**
+     * One caller's reservation; 'orderId' is optional (same meaning as in ReserveStock).
+     */
+    public record Request(ReservationLine line, String orderId) {
+    }
+
+    private final ReservationProperties.Coalescing properties;
+
+    // The group each Stock is currently collecting (removed by its leader when it closes it)
+    private final ConcurrentHashMap<StockKey, Group> open = new ConcurrentHashMap<>();
+
+    public ReservationCoalescer(ReservationProperties properties) {
+        this.properties = properties.coalescing();
+    }
+
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Blocks until the group of 'request' is committed. 'commit' gets the requests of one group
+     * (all for the same Stock) and must return one outcome per request, in the same order.
+     * If it throws for a group, it is called again once per member; what it throws then goes to that member.
+     */
+    public ReservationOutcome submit(Request request, Function<List<Request>, List<ReservationOutcome>> commit) {
+        Member member = new Member(request);
+        // Atomic per Stock with the leader's remove(): a member is either in the group that commits, or in the next one
+        Group group = open.compute(request.line().stockKey(),
+                (key, collecting) -> collecting != null && collecting.join(member) ? collecting : new Group(member));
+        if (group.leader == member) {
+            lead(request.line().stockKey(), group, commit);
+        }
+        return member.await();
+    }
+
+    private void lead(StockKey key, Group group, Function<List<Request>, List<ReservationOutcome>> commit) {
+        // 1. Collect, 2. close (nobody joins after this), 3. commit once for everybody
+        boolean interrupted = !group.awaitFull(properties.window().toNanos(), properties.maxBatch());
+        open.remove(key, group);
+        List<Member> members = group.close();
+        if (interrupted) {
+            // The leader's thread is being stopped: commit nothing, every member gets an answer
+            CancellationException abandoned = new CancellationException(String.format(
+                    "Reservation group of Stock %s/%s abandoned: its leader was interrupted", key.productId().value(), key.warehouseId().value()));
+            members.forEach(m -> m.answer.completeExceptionally(abandoned));
+            return;
+        }
+        try {
+            List<ReservationOutcome> outcomes = commit.apply(members.stream().map(Member::request).toList());
+            for (int i = 0; i < members.size(); i++) {
+                members.get(i).answer.complete(outcomes.get(i));
+            }
+            log.debug("Coalesced {} reservations of Stock {}/{}", members.size(), key.productId().value(), key.warehouseId().value());
+        } catch (RuntimeException e) {
+            if (members.size() == 1) {
+                members.get(0).answer.completeExceptionally(e);
+                return;
+            }
+            // 4. One member must not fail the others: commit them one by one
+            log.warn("Group commit of {} reservations of Stock {}/{} failed, committing them one by one: {}",
+                    members.size(), key.productId().value(), key.warehouseId().value(), e.toString());
+            members.forEach(member -> commitAlone(member, commit));
+        } catch (Error e) {
+            members.forEach(m -> m.answer.completeExceptionally(e));
+        }
+    }
+
+    private static void commitAlone(Member member, Function<List<Request>, List<ReservationOutcome>> commit) {
+        try {
+            member.answer.complete(commit.apply(List.of(member.request())).get(0));
+        } catch (RuntimeException | Error e) {
+            member.answer.completeExceptionally(e);
+        }
+    }
+
+    private record Member(Request request, CompletableFuture<ReservationOutcome> answer) {
+
+        Member(Request request) {
+            this(request, new CompletableFuture<>());
+        }
+
+        ReservationOutcome await() {
+            try {
+                return answer.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw e;
+            }
+        }
+    }
+
+    private final class Group {
+
+        private final Member leader;
+        private final List<Member> members = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition full = lock.newCondition();
+        private boolean closed;
+
+        Group(Member leader) {
+            this.leader = leader;
+            members.add(leader);
+        }
+
+        boolean join(Member member) {
+            lock.lock();
+            try {
+                if (closed || members.size() >= properties.maxBatch()) return false;
+                members.add(member);
+                if (members.size() >= properties.maxBatch()) full.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // False when interrupted while waiting (the interrupt flag is restored)
+        boolean awaitFull(long windowNanos, int maxBatch) {
+            lock.lock();
+            try {
+                long left = windowNanos;
+                while (members.size() < maxBatch && left > 0) {
+                    left = full.awaitNanos(left);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Member> close() {
+            lock.lock();
+            try {
+                closed = true;
+                return List.copyOf(members);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
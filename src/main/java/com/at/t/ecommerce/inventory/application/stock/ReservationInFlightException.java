@@ -0,0 +1,11 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+/**
+ * A retried order line gave up waiting for the first call of that line, which is still running:
+ * its outcome is unknown yet (the caller retries again later, or reads the hold).
+ */
+public class ReservationInFlightException extends RuntimeException {
+	public ReservationInFlightException(String orderId, String productId) {
+		super(String.format("Order %s is still reserving Product %s: no answer within the deadline", orderId, productId));
+	}
+}
@@ -0,0 +1,20 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.Objects;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * One line of a multi-line reservation (e.g. one cart item).
+ */
+public record ReservationLine(ProductId productId, WarehouseId warehouseId, Quantity amount) {
+    public ReservationLine {
+        Objects.requireNonNull(productId);
+        Objects.requireNonNull(warehouseId);
+        Objects.requireNonNull(amount);
+    }
+
+    public StockKey stockKey() {
+        return StockKey.of(productId, warehouseId);
+    }
+}
@@ -0,0 +1,118 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Where a reservation spends its time, and how often it fails. Tags stay low-cardinality
+ * (no product ids): per-SKU detail belongs in the logs.
+ *
+ * inventory.reservation.phase{phase}       load | domain | save | flush | commit
+ * inventory.reservation.reserved{strategy} committed single-line reservations, by contention strategy
+ * inventory.reservation.rejected{reason}   insufficient_stock | not_found | invalid | other
+ * inventory.reservation.conflicts          optimistic conflicts (each one is retried, or given up on)
+ * inventory.reservation.retries            attempts re-run after a conflict
+ */
+@Component
+public class ReservationMetrics {
+
+    public enum Phase {
+        LOAD, DOMAIN, SAVE, FLUSH, COMMIT
+    }
+
+    private final MeterRegistry registry;
+    private final Counter conflicts;
+    private final Counter retries;
+
+    public ReservationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.conflicts = Counter.builder("inventory.reservation.conflicts")
+                .description("Optimistic lock conflicts on Stock rows")
+                .register(registry);
+        this.retries = Counter.builder("inventory.reservation.retries")
+                .description("Reservation attempts re-run after a conflict")
+                .register(registry);
+    }
+
+    public <T> T time(Phase phase, Supplier<T> step) {
+        return phaseTimer(phase).record(step);
+    }
+
+    public void time(Phase phase, Runnable step) {
+        phaseTimer(phase).record(step);
+    }
+
+    /**
+     * Times the commit of the current transaction (from 'beforeCommit' to 'afterCommit').
+     * Call it once the pending changes were flushed, so this is the database commit alone.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Timer.Sample sample;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                sample = Timer.start(registry);
+            }
+
+            @Override
+            public void afterCommit() {
+                if (sample != null) sample.stop(phaseTimer(Phase.COMMIT));
+            }
+        });
+    }
+
+    /**
+     * Counts a reservation once its transaction committed (an attempt that conflicts is not counted).
+     */
+    public void reserved(String strategy) {
+        Counter counter = registry.counter("inventory.reservation.reserved", "strategy", strategy);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.increment();
+            }
+        });
+    }
+
+    public void rejected(Exception e) {
+        registry.counter("inventory.reservation.rejected", "reason", reason(e)).increment();
+    }
+
+    public void conflict() {
+        conflicts.increment();
+    }
+
+    public void retry() {
+        retries.increment();
+    }
+
+    private Timer phaseTimer(Phase phase) {
+        return Timer.builder("inventory.reservation.phase")
+                .description("Time spent in each step of a reservation transaction")
+                .tag("phase", phase.name().toLowerCase())
+                .register(registry); // Cached by the registry after the first call
+    }
+
+    private static String reason(Exception e) {
+        if (e instanceof InsufficientStockException) return "insufficient_stock";
+        if (e instanceof StockNotFoundException) return "not_found";
+        if (e instanceof IllegalArgumentException) return "invalid";
+        return "other";
+    }
+}
@@ -0,0 +1,30 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.Objects;
+
+/**
+ * Outcome of ONE line when lines are reserved independently of each other
+ * (streams, micro-batches): either the line was reserved, or it was rejected
+ * with the business exception that explains why.
+ */
+public record ReservationOutcome(ReservationLine line, ReservedLine reserved, RuntimeException failure) {
+
+    public ReservationOutcome {
+        Objects.requireNonNull(line);
+        if ((reserved == null) == (failure == null)) {
+            throw new IllegalArgumentException("An outcome is either reserved or failed, never both.");
+        }
+    }
+
+    public static ReservationOutcome reserved(ReservedLine reserved) {
+        return new ReservationOutcome(reserved.line(), reserved, null);
+    }
+
+    public static ReservationOutcome rejected(ReservationLine line, RuntimeException failure) {
+        return new ReservationOutcome(line, null, failure);
+    }
+
+    public boolean isSuccess() {
+        return reserved != null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.VelocityCode;
+
+/**
+ * How single-line reservations hit the database: a default mode, overridden per velocity code.
+ *
+ * @param mode the default contention strategy, see {@link Mode}
+ * @param modeByVelocity per-SKU override, e.g. A_FAST_MOVER: ATOMIC (slow movers stay optimistic)
+ * @param contention retry and escalation tuning, see {@link Contention}
+ * @param holdTtl how long a reservation is held before it is given back, unless it gets confirmed
+ * @param split hot-SKU split mode, see {@link Split}
+ * @param idempotency in-memory dedup of retried ReserveStock calls, see {@link Idempotency}
+ * @param coalescing group commit of concurrent reservations of one Stock, see {@link Coalescing}
+ */
+@ConfigurationProperties(prefix = "inventory.reservation")
+public record ReservationProperties(@DefaultValue("LOAD_AND_MERGE") Mode mode,
+                                    @DefaultValue Map<VelocityCode, Mode> modeByVelocity,
+                                    @DefaultValue Contention contention,
+                                    @DefaultValue("15m") Duration holdTtl,
+                                    @DefaultValue Split split,
+                                    @DefaultValue Idempotency idempotency,
+                                    @DefaultValue Coalescing coalescing) {
+
+    public enum Mode {
+        LOAD_AND_MERGE, // Optimistic: SELECT + domain logic + merge/UPDATE (@Version), retried on conflict
+        PESSIMISTIC,    // SELECT ... FOR UPDATE + domain logic + UPDATE (writers queue, never conflict)
+        ATOMIC,         // UPDATE ... WHERE atp >= :n RETURNING * (one round-trip, no lost-update window)
+        ADAPTIVE        // LOAD_AND_MERGE while conflicts are rare, 'contention.hotMode' once they are not
+    }
+
+    public Mode modeFor(VelocityCode velocityCode) {
+        return velocityCode == null ? mode : modeByVelocity.getOrDefault(velocityCode, mode);
+    }
+
+    /**
+     * Optimistic conflicts: how often they are retried and when a Stock counts as contended.
+     *
+     * @param maxAttempts tries per reservation before the conflict reaches the client (ABORTED)
+     * @param backoff base of the jittered exponential pause between tries
+     * @param maxBackoff cap of that pause
+     * @param escalateAbove conflict rate (moving average per Stock) above which ADAPTIVE switches to 'hotMode';
+     *                      it switches back below half of it
+     * @param hotMode what ADAPTIVE uses for contended Stocks (ATOMIC needs PostgreSQL)
+     * @param cooldown minimum time a Stock stays contended: under 'hotMode' writers queue instead of
+     *                 conflicting, so a falling conflict rate alone would flip it straight back
+     * @param trackedStocks Stocks whose conflict rate is remembered (least recently used are dropped)
+     */
+    public record Contention(@DefaultValue("4") int maxAttempts,
+                             @DefaultValue("5ms") Duration backoff,
+                             @DefaultValue("100ms") Duration maxBackoff,
+                             @DefaultValue("0.2") double escalateAbove,
+                             @DefaultValue("PESSIMISTIC") Mode hotMode,
+                             @DefaultValue("30s") Duration cooldown,
+                             @DefaultValue("10000") long trackedStocks) {
+    }
+
+    /**
+     * Hot-SKU split mode: the ATP of these Stocks is leased out to sub-bucket rows, so single-line
+     * reservations for one product stop queueing on one row lock.
+     *
+     * @param velocityCodes which Stocks get split (none by default), e.g. A_FAST_MOVER
+     * @param buckets sub-bucket rows per split Stock
+     * @param leasePerBucket how much ATP each sub-bucket gets when they are refilled
+     */
+    public record Split(@DefaultValue Set<VelocityCode> velocityCodes,
+                        @DefaultValue("8") int buckets,
+                        @DefaultValue("50") long leasePerBucket) {
+
+        public boolean enabled() {
+            return !velocityCodes.isEmpty() && buckets > 0;
+        }
+
+        public boolean appliesTo(Stock stock) {
+            return enabled() && velocityCodes.contains(stock.getVelocityCode());
+        }
+    }
+
+    /**
+     * Hot window of the ReserveStock idempotency layer (the ledger covers everything older).
+     *
+     * @param maxSize order lines remembered (bounded: a retry storm cannot exhaust the heap)
+     * @param ttl how long an answer is replayed from memory
+     * @param maxWait longest a duplicate waits for the first call still running (capped by its deadline)
+     */
+    public record Idempotency(@DefaultValue("100000") long maxSize, @DefaultValue("10m") Duration ttl,
+                              @DefaultValue("5s") Duration maxWait) {
+    }
+
+    /**
+     * Group commit: single-line reservations of the same Stock arriving within 'window' are applied
+     * together, in arrival order, under one row lock, with one UPDATE and one commit. Each caller
+     * still gets its own answer. Not used while split mode is on (sub-buckets already spread the load).
+     *
+     * @param enabled coalesce ReserveStock calls (off: one transaction per call)
+     * @param window how long the first reservation of a group waits for others (added to its latency)
+     * @param maxBatch reservations per group; a full group is committed without waiting for the window
+     */
+    public record Coalescing(@DefaultValue("false") boolean enabled,
+                             @DefaultValue("1ms") Duration window,
+                             @DefaultValue("256") int maxBatch) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.Quantity;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ReservationId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockId;
+
+/**
+ * Outcome of a successfully reserved line: the Stock it hit, the ATP left afterwards
+ * and the ledger entry to confirm / release it with.
+ */
+public record ReservedLine(ReservationLine line, StockId stockId, Quantity availableToPromise, ReservationId reservationId) {
+}
@@ -1,10 +1,32 @@
 package com.at.t.ecommerce.inventory.application.stock;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.at.t.ecommerce.inventory.application.stock.ReservationMetrics.Phase;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Reservation;
 import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.ReservationNotFoundException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockException;
 import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.ReservationRepository;
 import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
 
@@ -13,31 +35,455 @@ import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@EnableConfigurationProperties(ReservationProperties.class)
 @Slf4j // Logs are crucial for debugging production issues
 public class StockApplicationService {
 
     private final StockRepository repository;
+    private final ReservationRepository reservations; // The ledger: one row per hold, expires on its own
+    private final ReservationProperties reservationProperties;
+    private final ContentionPolicy contention; // Optimistic, pessimistic or atomic: per Stock row
+    private final TransactionTemplate transactionTemplate; // One transaction per attempt (conflicts are retried)
+    private final ReservationMetrics metrics;
+    private final ReservationCoalescer coalescer; // Group commit of concurrent reservations of one Stock
+
+    private static final int ATOMIC_MAX_ATTEMPTS = 3;
 
     /**
      * The Main Orchestrator for Reservations.
      * 1. Loads the Aggregate (Stock)
      * 2. Executes Business Logic (Reserve)
      * 3. Persists State
+     * 4. Records the hold in the ledger (released automatically once 'holdTtl' has passed)
+     * How the first three steps hit the row is up to the {@link ContentionPolicy} (optimistic,
+     * pessimistic lock or one conditional UPDATE); an optimistic conflict re-runs the whole transaction.
+     * Split (hot) Stocks are reserved from one of their sub-buckets instead. With coalescing on,
+     * concurrent calls for the same Stock are committed together instead (see {@link ReservationCoalescer}).
+     * With an 'orderId' (optional) the call is idempotent: the order line's existing hold is returned.
      */
-    @Transactional
-    public void reserveStock(ProductId productId, WarehouseId warehouseId, Quantity amount) {
+    public ReservationId reserveStock(ProductId productId, WarehouseId warehouseId, Quantity amount, String orderId) {
         log.info("Attempting to reserve {} items for Product: {}", amount.value(), productId.value());
+        if (coalescer.enabled() && !reservationProperties.split().enabled()) {
+            return reserveCoalesced(new ReservationLine(productId, warehouseId, amount), orderId); // Rejections counted per line
+        }
+        try {
+            return contention.retryOnConflict(StockKey.of(productId, warehouseId), () -> transactionTemplate.execute(status -> {
+                ReservationId id = reserveOnce(productId, warehouseId, amount, orderId);
+                // Flush here rather than inside the commit, so the two show up as separate phases
+                metrics.time(Phase.FLUSH, status::flush);
+                metrics.timeCommit();
+                return id;
+            }));
+        } catch (StockException | StockNotFoundException | IllegalArgumentException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    private ReservationId reserveOnce(ProductId productId, WarehouseId warehouseId, Quantity amount, String orderId) {
+        if (orderId != null) {
+            Optional<Reservation> existing = reservations.findByOrderLine(orderId, productId, warehouseId);
+            if (existing.isPresent()) {
+                return replay(existing.get(), amount);
+            }
+        }
+
+        StockId stockId = reserve(productId, warehouseId, amount);
+
+        // A concurrent duplicate of the same order line fails here on the ledger's unique constraint
+        Reservation hold = Reservation.hold(stockId, productId, warehouseId, amount, orderId, Instant.now(), reservationProperties.holdTtl());
+        reservations.addAll(List.of(hold));
+        return hold.getId();
+    }
+
+    /**
+     * The answer a retry gets: the first hold of that order line, as long as it asks for the same amount.
+     */
+    ReservationId replay(Reservation existing, Quantity amount) {
+        if (!existing.getQuantity().equals(amount)) {
+            throw new IllegalArgumentException(String.format("Order %s already reserved %d of Product %s, not %d.",
+                    existing.getOrderId(), existing.getQuantity().value(), existing.getProductId().value(), amount.value()));
+        }
+        log.info("Order {} already holds {} for Product {}: returning reservation {}",
+                existing.getOrderId(), amount.value(), existing.getProductId().value(), existing.getId().value());
+        return existing.getId();
+    }
 
-        // 1. Fetch the Aggregate (Use the Lock if high concurrency is expected)
-        Stock stock = repository.findByProductAndWarehouse(productId, warehouseId)
+    private StockId reserve(ProductId productId, WarehouseId warehouseId, Quantity amount) {
+        StockKey key = StockKey.of(productId, warehouseId);
+        Stock loaded = null;
+        if (reservationProperties.split().enabled() || contention.needsStock(key)) {
+            loaded = metrics.time(Phase.LOAD, () -> repository.findByProductAndWarehouse(productId, warehouseId))
+                    .orElseThrow(() -> new StockNotFoundException(productId, warehouseId));
+            if (isSplit(loaded)) {
+                return reserveFromBuckets(loaded, amount);
+            }
+        }
+
+        return switch (contention.modeFor(key, loaded)) {
+            case ATOMIC -> reserveAtomically(productId, warehouseId, amount);
+            case PESSIMISTIC -> reserveLocked(key, amount);
+            default -> reserveOptimistically(loaded, productId, warehouseId, amount);
+        };
+    }
+
+    // Optimistic: no lock while the Domain runs; @Version turns a concurrent write into a conflict (retried)
+    private StockId reserveOptimistically(Stock loaded, ProductId productId, WarehouseId warehouseId, Quantity amount) {
+        // 1. Fetch the Aggregate
+        Stock stock = loaded != null ? loaded : metrics.time(Phase.LOAD, () -> repository.findByProductAndWarehouse(productId, warehouseId))
                 .orElseThrow(() -> new StockNotFoundException(productId, warehouseId));
+        if (isSplit(stock)) {
+            return reserveFromBuckets(stock, amount); // Leases left over from a former split config
+        }
 
         // 2. Execute Domain Logic (The Domain guarantees the rules)
-        stock.reserveStock(amount);
+        metrics.time(Phase.DOMAIN, () -> stock.reserveStock(amount));
 
         // 3. Save (This flushes the changes to DB and dispatches Events)
-        repository.save(stock);
+        metrics.time(Phase.SAVE, () -> repository.save(stock));
+        metrics.reserved("optimistic");
         
         log.info("Reservation successful. New Available Qty: {}", stock.getAvailableToPromise().value());
+        return stock.getId();
+    }
+
+    // Pessimistic: the row lock makes concurrent writers queue, so a contended Stock never conflicts
+    private StockId reserveLocked(StockKey key, Quantity amount) {
+        Stock stock = metrics.time(Phase.LOAD, () -> repository.findAllForUpdate(List.of(key))).stream().findFirst()
+                .orElseThrow(() -> new StockNotFoundException(key.productId(), key.warehouseId()));
+        if (isSplit(stock)) {
+            return reserveFromBuckets(stock, amount);
+        }
+        metrics.time(Phase.DOMAIN, () -> stock.reserveStock(amount));
+        metrics.time(Phase.SAVE, () -> repository.save(stock));
+        metrics.reserved("pessimistic");
+
+        log.info("Reservation successful under row lock. New Available Qty: {}", stock.getAvailableToPromise().value());
+        return stock.getId();
+    }
+
+    private StockId reserveAtomically(ProductId productId, WarehouseId warehouseId, Quantity amount) {
+        for (int attempt = 1; attempt <= ATOMIC_MAX_ATTEMPTS; attempt++) {
+            Optional<Stock> reserved = metrics.time(Phase.SAVE, () -> repository.reserveAtomically(productId, warehouseId, amount));
+            if (reserved.isPresent()) {
+                metrics.reserved("atomic");
+                log.info("Reservation successful. New Available Qty: {}", reserved.get().getAvailableToPromise().value());
+                return reserved.get().getId();
+            }
+
+            // The UPDATE matched nothing: replay the Domain rule on the fresh row to raise the
+            // exact same exception the LOAD_AND_MERGE path would (not found / unit / insufficient).
+            Stock current = repository.findByProductAndWarehouse(productId, warehouseId)
+                    .orElseThrow(() -> new StockNotFoundException(productId, warehouseId));
+            if (isSplit(current)) {
+                return reserveFromBuckets(current, amount); // The UPDATE only sees the unleased ATP
+            }
+            current.reserveStock(amount);
+            // No exception: stock was replenished between the two statements, try again
+        }
+        throw new IllegalStateException("Atomic reservation kept racing with concurrent updates, giving up.");
+    }
+
+    /**
+     * Hot-SKU path: only one small sub-bucket row is locked per reservation, picked at random.
+     * When none of them holds enough, the Stock row is locked once to reserve from its own
+     * (unleased) ATP and to refill every sub-bucket, up to 'leasePerBucket' each.
+     */
+    private StockId reserveFromBuckets(Stock stock, Quantity amount) {
+        ReservationProperties.Split split = reservationProperties.split();
+
+        // 1. Try the sub-buckets, starting from a random one to spread the load
+        int start = split.buckets() > 0 ? ThreadLocalRandom.current().nextInt(split.buckets()) : 0;
+        for (int i = 0; i < split.buckets(); i++) {
+            if (repository.reserveFromBucket(stock, (start + i) % split.buckets(), amount)) {
+                metrics.reserved("split");
+                log.debug("Reserved {} from sub-bucket {} of Stock {}", amount.value(), (start + i) % split.buckets(), stock.getId().value());
+                return stock.getId();
+            }
+        }
+
+        // 2. Rebalance under the Stock row lock (then the sub-bucket locks, always in that order)
+        Stock locked = repository.findByIdForUpdate(stock.getId())
+                .orElseThrow(() -> new StockNotFoundException(stock.getProductId(), stock.getWarehouseId()));
+        long[] levels = reclaimLeases(locked);
+
+        // 3. Domain Logic on the whole ATP (throws if the Stock is really sold out)
+        locked.reserveStock(amount);
+
+        // 4. Hand what is left back out
+        long[] refill = leaseOut(locked, levels);
+        repository.save(locked);
+        repository.saveBuckets(locked.getId(), refill);
+        metrics.reserved("split");
+
+        log.info("Reservation successful after refilling {} sub-buckets. New Available Qty: {}",
+                split.buckets(), locked.getAvailableToPromise().value());
+        return locked.getId();
+    }
+
+    // Under the Stock row lock: every sub-bucket's lease comes back, so the Domain sees the whole ATP
+    private long[] reclaimLeases(Stock locked) {
+        long[] levels = repository.lockBuckets(locked.getId());
+        long leased = 0;
+        for (long level : levels) leased += level;
+        locked.returnLease(Quantity.of(leased, locked.getUnitOfMeasure()));
+        return levels;
+    }
+
+    // What is left is leased out again, evenly (a Stock no longer configured for split drains to 0)
+    private long[] leaseOut(Stock locked, long[] levels) {
+        ReservationProperties.Split split = reservationProperties.split();
+        long[] refill = new long[Math.max(levels.length, Math.max(split.buckets(), 0))];
+        if (split.appliesTo(locked)) {
+            long pool = Math.min(locked.getAvailableToPromise().value(), split.leasePerBucket() * split.buckets());
+            for (int bucket = 0; bucket < split.buckets(); bucket++) {
+                refill[bucket] = pool / split.buckets() + (bucket < pool % split.buckets() ? 1 : 0);
+            }
+            locked.leaseToBuckets(Quantity.of(pool, locked.getUnitOfMeasure()));
+        }
+        return refill;
+    }
+
+    /**
+     * Multi-line paths lock every Stock at once (findAllForUpdate, sub-buckets included): the split
+     * ones get their leases back before any line runs, so a line sees the same ATP a single
+     * ReserveStock would.
+     */
+    private Map<Stock, long[]> reclaimLeases(Collection<Stock> locked) {
+        Map<Stock, long[]> levels = new LinkedHashMap<>();
+        for (Stock stock : locked) {
+            if (isSplit(stock)) levels.put(stock, reclaimLeases(stock));
+        }
+        return levels;
+    }
+
+    // ...then they lease out what is left; Stock rows are saved first, their sub-buckets after
+    private void saveAll(Collection<Stock> touched, Map<Stock, long[]> levels) {
+        Map<Stock, long[]> refills = new LinkedHashMap<>();
+        levels.forEach((stock, before) -> refills.put(stock, leaseOut(stock, before)));
+        Set<Stock> changed = new LinkedHashSet<>(touched);
+        changed.addAll(levels.keySet());
+        changed.forEach(repository::save);
+        refills.forEach((stock, refill) -> repository.saveBuckets(stock.getId(), refill));
+    }
+
+    // Configured for split, or still holding sub-bucket leases (they must be drained through the split path)
+    private boolean isSplit(Stock stock) {
+        return reservationProperties.split().appliesTo(stock) || stock.getQuantityLeased().value() > 0;
+    }
+
+    /**
+     * Multi-line Reservation (e.g. a whole cart) in ONE transaction, all-or-nothing.
+     * 1. Loads + locks every affected Stock in a single query (fixed lock order => no deadlocks);
+     *    split Stocks take their sub-bucket leases back, so every line sees the whole ATP
+     * 2. Reserves each line in request order (any failure rolls back the whole batch)
+     * 3. Persists each touched Stock once
+     */
+    @Transactional
+    public List<ReservedLine> reserveStockBatch(List<ReservationLine> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("A batch reservation needs at least one line.");
+        }
+        log.info("Attempting to reserve a batch of {} lines", lines.size());
+
+        // 1. Fetch + Lock all Aggregates at once
+        Set<StockKey> keys = lines.stream()
+                .map(ReservationLine::stockKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<StockKey, Stock> stocks = repository.findAllForUpdate(keys).stream()
+                .collect(Collectors.toMap(s -> StockKey.of(s.getProductId(), s.getWarehouseId()), Function.identity()));
+        Map<Stock, long[]> leases = reclaimLeases(stocks.values());
+
+        // 2. Execute Domain Logic line by line (the same SKU may appear twice in a cart)
+        for (ReservationLine line : lines) {
+            Stock stock = stocks.get(line.stockKey());
+            try {
+                if (stock == null) {
+                    throw new StockNotFoundException(line.productId(), line.warehouseId());
+                }
+                stock.reserveStock(line.amount());
+            } catch (StockException | StockNotFoundException | IllegalArgumentException e) {
+                metrics.rejected(e); // One line rejects the whole batch
+                throw e;
+            }
+        }
+
+        // 3. Save every touched Aggregate once
+        saveAll(stocks.values(), leases);
+
+        // 4. One ledger row per line
+        Instant now = Instant.now();
+        List<Reservation> holds = new ArrayList<>(lines.size());
+        List<ReservedLine> reserved = new ArrayList<>(lines.size());
+        for (ReservationLine line : lines) {
+            Stock stock = stocks.get(line.stockKey());
+            Reservation hold = hold(line, stock.getId(), now);
+            holds.add(hold);
+            reserved.add(new ReservedLine(line, stock.getId(), stock.getAvailableToPromise(), hold.getId()));
+        }
+        reservations.addAll(holds);
+        log.info("Batch reservation successful for {} lines over {} stock rows", lines.size(), stocks.size());
+        return reserved;
+    }
+
+    /**
+     * Order lines from the order-event feed, in ONE transaction; one outcome per line, in order.
+     * Like {@link #reserveInOrder}, a rejected line does not affect the others. Lines are grouped per
+     * Stock: each Stock is locked once (one query for all of them), takes its lines in order and is
+     * saved ONCE with their combined change.
+     * The feed is at-least-once: a redelivered line finds its hold in the ledger and gets it back.
+     */
+    @Transactional
+    public List<ReservationOutcome> reserveOrderLines(List<OrderLine> lines) {
+        return reserveInOrder(lines.stream().map(OrderLine::line).toList(), lines.stream().map(OrderLine::orderId).toList());
+    }
+
+    /**
+     * Group commit of concurrent single-line reservations (see {@link ReservationCoalescer}):
+     * callers of the same Stock share one transaction, one row lock, one UPDATE and one commit.
+     */
+    private ReservationId reserveCoalesced(ReservationLine line, String orderId) {
+        ReservationOutcome outcome = coalescer.submit(new ReservationCoalescer.Request(line, orderId),
+                group -> transactionTemplate.execute(status -> {
+                    List<ReservationOutcome> outcomes = reserveInOrder(
+                            group.stream().map(ReservationCoalescer.Request::line).toList(),
+                            group.stream().map(ReservationCoalescer.Request::orderId).toList());
+                    outcomes.stream().filter(ReservationOutcome::isSuccess).forEach(reserved -> metrics.reserved("coalesced"));
+                    return outcomes;
+                }));
+        if (!outcome.isSuccess()) {
+            throw outcome.failure();
+        }
+        log.info("Reservation successful (coalesced). New Available Qty: {}", outcome.reserved().availableToPromise().value());
+        return outcome.reserved().reservationId();
+    }
+
+    /**
+     * Micro-batch of INDEPENDENT Reservations (e.g. drained from a stream) in ONE transaction,
+     * one outcome per line, in order. A rejected line does not affect the others: the Domain
+     * checks before it mutates, so a failed line leaves its Stock untouched.
+     * 'orderIds' (same size as 'lines', entries may be null) make the lines that have one idempotent.
+     */
+    @Transactional
+    public List<ReservationOutcome> reserveInOrder(List<ReservationLine> lines, List<String> orderIds) {
+        if (lines.isEmpty()) return List.of();
+
+        // 1. Holds these orders already took (one query), then every Stock locked at once
+        Map<Map.Entry<String, StockKey>, Reservation> held = reservations.findByOrderIds(
+                        orderIds.stream().filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(r -> Map.entry(r.getOrderId(), StockKey.of(r.getProductId(), r.getWarehouseId())),
+                        Function.identity()));
+        Set<StockKey> keys = lines.stream()
+                .map(ReservationLine::stockKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<StockKey, Stock> stocks = repository.findAllForUpdate(keys).stream()
+                .collect(Collectors.toMap(s -> StockKey.of(s.getProductId(), s.getWarehouseId()), Function.identity()));
+        Map<Stock, long[]> leases = reclaimLeases(stocks.values());
+
+        // 2. Domain Logic line by line, on the in-memory Aggregates
+        Instant now = Instant.now();
+        List<ReservationOutcome> outcomes = new ArrayList<>(lines.size());
+        Map<Map.Entry<String, StockKey>, ReservationOutcome> answered = new HashMap<>(); // Same order line twice in a batch
+        List<Reservation> holds = new ArrayList<>();
+        Set<Stock> touched = new LinkedHashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            ReservationLine line = lines.get(i);
+            String orderId = orderIds.get(i);
+            Map.Entry<String, StockKey> orderLineKey = orderId == null ? null : Map.entry(orderId, line.stockKey());
+            ReservationOutcome earlier = orderLineKey == null ? null : answered.get(orderLineKey);
+            if (earlier != null && (!earlier.isSuccess() || earlier.line().amount().equals(line.amount()))) {
+                outcomes.add(earlier);
+                continue;
+            }
+            ReservationOutcome outcome;
+            try {
+                Stock stock = stocks.get(line.stockKey());
+                if (stock == null) {
+                    throw new StockNotFoundException(line.productId(), line.warehouseId());
+                }
+                if (earlier != null) {
+                    throw new IllegalArgumentException(String.format("Order %s lists Product %s twice with different amounts.",
+                            orderId, line.productId().value()));
+                }
+                Reservation existing = orderLineKey == null ? null : held.get(orderLineKey);
+                ReservationId id;
+                if (existing != null) {
+                    id = replay(existing, line.amount());
+                } else {
+                    stock.reserveStock(line.amount());
+                    touched.add(stock);
+                    Reservation hold = Reservation.hold(stock.getId(), line.productId(), line.warehouseId(), line.amount(),
+                            orderId, now, reservationProperties.holdTtl());
+                    holds.add(hold);
+                    id = hold.getId();
+                }
+                outcome = ReservationOutcome.reserved(new ReservedLine(line, stock.getId(), stock.getAvailableToPromise(), id));
+            } catch (StockException | StockNotFoundException | IllegalArgumentException e) {
+                metrics.rejected(e);
+                outcome = ReservationOutcome.rejected(line, e);
+            }
+            if (orderLineKey != null) answered.putIfAbsent(orderLineKey, outcome);
+            outcomes.add(outcome);
+        }
+
+        // 3. Each touched Stock saved once, one ledger row per new hold
+        saveAll(touched, leases);
+        reservations.addAll(holds);
+        log.debug("In-order micro-batch of {} lines over {} Stocks: {} reserved", lines.size(), stocks.size(),
+                outcomes.stream().filter(ReservationOutcome::isSuccess).count());
+        return outcomes;
+    }
+
+    /**
+     * The order went through: the hold stops expiring, the stock stays reserved.
+     */
+    @Transactional
+    public Reservation confirmReservation(ReservationId id) {
+        Reservation reservation = reservations.findByIdForUpdate(id)
+                .orElseThrow(() -> new ReservationNotFoundException(id));
+        reservation.confirm();
+        return reservations.save(reservation);
+    }
+
+    /**
+     * The client cancelled: the held amount goes back to ATP right away.
+     */
+    @Transactional
+    public Reservation releaseReservation(ReservationId id) {
+        Reservation reservation = reservations.findByIdForUpdate(id)
+                .orElseThrow(() -> new ReservationNotFoundException(id));
+        reservation.release();
+        giveBack(reservation);
+        return reservations.save(reservation);
+    }
+
+    /**
+     * Called by the expiry schedule when a hold came due. A no-op when the hold was confirmed or
+     * released in the meantime (or another instance expired it first).
+     */
+    @Transactional
+    public void expireReservation(ReservationId id) {
+        Instant now = Instant.now();
+        Optional<Reservation> found = reservations.findByIdForUpdate(id);
+        if (found.isEmpty() || !found.get().isExpiredAt(now)) {
+            return;
+        }
+        Reservation reservation = found.get();
+        reservation.expire(now);
+        giveBack(reservation);
+        reservations.save(reservation);
+        log.info("Reservation {} expired, {} items back to Stock {}", id.value(), reservation.getQuantity().value(), reservation.getStockId().value());
+    }
+
+    // Lock order: ledger row first, then the Stock row
+    private void giveBack(Reservation reservation) {
+        Stock stock = repository.findByIdForUpdate(reservation.getStockId())
+                .orElseThrow(() -> new StockNotFoundException(reservation.getProductId(), reservation.getWarehouseId()));
+        stock.releaseStock(reservation.getQuantity());
+        repository.save(stock);
+    }
+
+    private Reservation hold(ReservationLine line, StockId stockId, Instant now) {
+        return Reservation.hold(stockId, line.productId(), line.warehouseId(), line.amount(), null, now, reservationProperties.holdTtl());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * Read Model: how much of a Stock bucket can be promised right now.
+ * This is what product pages need, so it is what we cache (not the whole Aggregate).
+ */
+public record StockAvailability(StockId stockId, StockKey key, Quantity availableToPromise) {
+}
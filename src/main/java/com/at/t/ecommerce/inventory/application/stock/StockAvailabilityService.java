@@ -0,0 +1,122 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Read Side for availability (called ~50x more often than reserve).
+ * 1. Read-through: cache first, database only on a miss. The loaded value is not cached if a
+ *    commit evicted the key during the load (it may be older than that commit)
+ * 2. Request Coalescing: concurrent misses on the SAME key share ONE database load,
+ *    so a cold popular SKU cannot stampede Postgres
+ * 3. Under {@link ReadConsistency#primary} (read-your-writes) the caches and the shared loads are
+ *    skipped: the row is read from the primary, then cached as usual
+ * 4. With an {@link AvailabilitySnapshot} (whole catalog, in process) it is asked before the caches;
+ *    every database load refreshes it, stamped with the time the load started
+ */
+@Service
+@Slf4j
+public class StockAvailabilityService {
+
+    private final StockRepository repository;
+    private final AvailabilityCache cache;
+    private final AvailabilitySnapshot snapshot; // null: none
+
+    // Loads currently in flight, one per key. Entries only live for the duration of a load.
+    private final ConcurrentMap<StockKey, CompletableFuture<StockAvailability>> inFlight = new ConcurrentHashMap<>();
+
+    public StockAvailabilityService(StockRepository repository, AvailabilityCache cache,
+                                    ObjectProvider<AvailabilitySnapshot> snapshot) {
+        this.repository = repository;
+        this.cache = cache;
+        this.snapshot = snapshot.getIfAvailable();
+    }
+
+    public StockAvailability getAvailability(ProductId productId, WarehouseId warehouseId) {
+        StockKey key = StockKey.of(productId, warehouseId);
+        if (ReadConsistency.primaryRequired()) {
+            AvailabilityCache.Generation generation = cache.generation(key);
+            StockAvailability loaded = load(key);
+            cache.put(loaded, generation);
+            return loaded;
+        }
+
+        if (snapshot != null) {
+            Optional<StockAvailability> local = snapshot.get(key);
+            if (local.isPresent()) {
+                return local.get();
+            }
+        }
+
+        Optional<StockAvailability> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        CompletableFuture<StockAvailability> myLoad = new CompletableFuture<>();
+        CompletableFuture<StockAvailability> leader = inFlight.putIfAbsent(key, myLoad);
+        if (leader != null) {
+            // Somebody is already loading this key: wait for their result
+            return join(leader);
+        }
+
+        try {
+            AvailabilityCache.Generation generation = cache.generation(key); // Before the load: see AvailabilityCache#put
+            StockAvailability loaded = load(key);
+            cache.put(loaded, generation);
+            myLoad.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            myLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, myLoad);
+        }
+    }
+
+    /**
+     * Total ATP across every Warehouse: one indexed row, maintained by the writes
+     * (not cached: it changes with every reservation of the Product, wherever it happens).
+     */
+    public ProductAvailability getProductAvailability(ProductId productId) {
+        return repository.findProductAvailability(productId)
+                .map(total -> new ProductAvailability(productId, total))
+                .orElseThrow(() -> new StockNotFoundException(productId));
+    }
+
+    private StockAvailability load(StockKey key) {
+        log.debug("Availability cache miss for {}", key);
+        Instant startedAt = Instant.now(); // A write committed during the load is newer than what it reads
+        Stock stock = repository.findByProductAndWarehouse(key.productId(), key.warehouseId())
+                .orElseThrow(() -> new StockNotFoundException(key.productId(), key.warehouseId()));
+        StockAvailability loaded = new StockAvailability(stock.getId(), key, stock.getAvailableToPromise());
+        if (snapshot != null) {
+            snapshot.put(loaded, startedAt);
+        }
+        return loaded;
+    }
+
+    private static StockAvailability join(CompletableFuture<StockAvailability> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // Re-throw the leader's business exception (e.g. StockNotFoundException) as-is
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockException;
+import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk receiving: a container's worth of lines goes through {@link Stock#receiveStock} one CHUNK
+ * (see {@link ReceivingProperties#chunkSize()}) per transaction, instead of one load + save per line.
+ * Callers stream the lines in and hand over one chunk at a time, so a 40k-line delivery never sits
+ * in memory as a whole.
+ */
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ReceivingProperties.class)
+@Slf4j
+public class StockReceivingService {
+
+    private final StockRepository repository;
+    private final StockFactory factory;
+    private final ReceivingProperties properties;
+    private final TransactionTemplate transactionTemplate; // One transaction per attempt
+
+    public int chunkSize() {
+        return properties.chunkSize();
+    }
+
+    /**
+     * Receives ONE chunk in ONE transaction.
+     * 1. Loads + locks every Stock of the chunk in a single query (fixed lock order => no deadlocks
+     *    with concurrent reservations); a Product new to its Warehouse gets a new Stock
+     * 2. Applies the lines in order; a bad line is rejected on its own
+     * 3. Saves each touched Stock once: the whole chunk is flushed together, as JDBC batches
+     *    (hibernate.jdbc.batch_size, ordered inserts/updates)
+     * Two chunks can both find a Stock missing and create it: the second commit fails on the unique
+     * (product_id, warehouse_id) key and the chunk runs once more, now finding (and locking) that row.
+     */
+    public ReceivedChunk receiveChunk(List<ReceiptLine> lines) {
+        if (lines.isEmpty()) return new ReceivedChunk(0, 0, 0, List.of());
+        try {
+            return transactionTemplate.execute(status -> receive(lines));
+        } catch (DataIntegrityViolationException e) {
+            log.info("A Stock of this chunk was created concurrently, receiving the chunk again: {}", e.getMostSpecificCause().getMessage());
+            return transactionTemplate.execute(status -> receive(lines));
+        }
+    }
+
+    private ReceivedChunk receive(List<ReceiptLine> lines) {
+        // 1. Fetch + Lock all Aggregates at once
+        Set<StockKey> keys = lines.stream()
+                .map(ReceiptLine::stockKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<StockKey, Stock> stocks = new LinkedHashMap<>();
+        repository.findAllForUpdate(keys).forEach(s -> stocks.put(StockKey.of(s.getProductId(), s.getWarehouseId()), s));
+
+        // 2. Execute Domain Logic line by line (a delivery often lists the same SKU several times)
+        List<ReceivedChunk.Rejected> rejected = new ArrayList<>();
+        Set<Stock> touched = new LinkedHashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            ReceiptLine line = lines.get(i);
+            try {
+                Stock stock = stocks.get(line.stockKey());
+                if (stock == null) {
+                    stock = newStock(line);
+                    stocks.put(line.stockKey(), stock);
+                }
+                stock.receiveStock(line.amount());
+                touched.add(stock);
+            } catch (StockException | IllegalArgumentException e) {
+                rejected.add(new ReceivedChunk.Rejected(i, line, e));
+            }
+        }
+
+        // 3. Save every touched Aggregate once (written on flush, batched)
+        touched.forEach(repository::save);
+        log.debug("Received a chunk of {} lines into {} stock rows ({} rejected)", lines.size(), touched.size(), rejected.size());
+        return new ReceivedChunk(lines.size(), lines.size() - rejected.size(), touched.size(), rejected);
+    }
+
+    private Stock newStock(ReceiptLine line) {
+        if (line.owner() == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Product %s is new to Warehouse %s: an owner is required to create its Stock.",
+                    line.productId().value(), line.warehouseId().value()));
+        }
+        log.info("Receiving creates Stock for Product {} in Warehouse {}", line.productId().value(), line.warehouseId().value());
+        return factory.createNewStock(line.productId(), line.warehouseId(), line.owner(), line.amount().unit());
+    }
+}
@@ -0,0 +1,18 @@
+package com.at.t.ecommerce.inventory.application.stock;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * WatchAvailability streams.
+ *
+ * @param window  changes of one Stock within this window are pushed once, with the latest ATP
+ * @param maxKeys Stocks one watch may register (also the most updates one slow watcher can have pending)
+ */
+@ConfigurationProperties(prefix = "inventory.watch")
+public record WatchProperties(
+        @DefaultValue("250ms") Duration window,
+        @DefaultValue("1000") int maxKeys) {
+}
@@ -0,0 +1,98 @@
+package com.at.t.ecommerce.inventory.domain.stock.entities;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+import com.at.t.ecommerce.inventory.domain.stock.enums.ReservationStatus;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InvalidStockStateException;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * One line of the reservation ledger: WHO holds HOW MUCH of a Stock, and until WHEN.
+ * The Stock only knows the total ('quantityReserved'); this is what lets an abandoned
+ * hold be given back on its own once it expires.
+ */
+public class Reservation {
+
+	private final ReservationId id;
+	private final StockId stockId;
+	private final ProductId productId;
+	private final WarehouseId warehouseId;
+	private final Quantity quantity;
+	private final String orderId; // Optional: set when the caller knows its order
+	private final Instant createdAt;
+	private final Instant expiresAt;
+	private ReservationStatus status;
+
+	private Reservation(ReservationId id, StockId stockId, ProductId productId, WarehouseId warehouseId,
+			Quantity quantity, String orderId, ReservationStatus status, Instant createdAt, Instant expiresAt) {
+		this.id = Objects.requireNonNull(id);
+		this.stockId = Objects.requireNonNull(stockId);
+		this.productId = Objects.requireNonNull(productId);
+		this.warehouseId = Objects.requireNonNull(warehouseId);
+		this.quantity = Objects.requireNonNull(quantity);
+		this.orderId = orderId;
+		this.status = Objects.requireNonNull(status);
+		this.createdAt = Objects.requireNonNull(createdAt);
+		this.expiresAt = Objects.requireNonNull(expiresAt);
+	}
+
+	/**
+	 * A new hold, recorded right after the Stock accepted the reservation.
+	 */
+	public static Reservation hold(StockId stockId, ProductId productId, WarehouseId warehouseId,
+			Quantity quantity, String orderId, Instant now, Duration ttl) {
+		return new Reservation(ReservationId.newId(), stockId, productId, warehouseId, quantity, orderId,
+				ReservationStatus.HELD, now, now.plus(ttl));
+	}
+
+	/**
+	 * For the Infrastructure Layer (Mapper) only.
+	 */
+	public static Reservation reconstitute(ReservationId id, StockId stockId, ProductId productId, WarehouseId warehouseId,
+			Quantity quantity, String orderId, ReservationStatus status, Instant createdAt, Instant expiresAt) {
+		return new Reservation(id, stockId, productId, warehouseId, quantity, orderId, status, createdAt, expiresAt);
+	}
+
+	// --- DOMAIN BEHAVIORS (the Stock side is done by the caller through Stock.releaseStock) ---
+
+	public void confirm() {
+		requireHeld("confirm");
+		this.status = ReservationStatus.CONFIRMED;
+	}
+
+	public void release() {
+		requireHeld("release");
+		this.status = ReservationStatus.RELEASED;
+	}
+
+	public void expire(Instant now) {
+		requireHeld("expire");
+		if (!isExpiredAt(now)) {
+			throw new InvalidStockStateException("Reservation " + id.value() + " only expires at " + expiresAt);
+		}
+		this.status = ReservationStatus.EXPIRED;
+	}
+
+	public boolean isExpiredAt(Instant now) {
+		return status == ReservationStatus.HELD && !now.isBefore(expiresAt);
+	}
+
+	private void requireHeld(String action) {
+		if (status != ReservationStatus.HELD) {
+			throw new InvalidStockStateException("Cannot " + action + " reservation " + id.value() + ": it is " + status);
+		}
+	}
+
+	// --- GETTERS ---
+	public ReservationId getId() { return id; }
+	public StockId getStockId() { return stockId; }
+	public ProductId getProductId() { return productId; }
+	public WarehouseId getWarehouseId() { return warehouseId; }
+	public Quantity getQuantity() { return quantity; }
+	public String getOrderId() { return orderId; }
+	public ReservationStatus getStatus() { return status; }
+	public Instant getCreatedAt() { return createdAt; }
+	public Instant getExpiresAt() { return expiresAt; }
+}
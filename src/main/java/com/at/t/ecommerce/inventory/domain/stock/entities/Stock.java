@@ -7,10 +7,16 @@ import java.util.List;
 import java.util.Objects;
 
 import com.at.t.ecommerce.inventory.domain.stock.enums.*;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockAllocated;
 import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockLevelLow;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockReceived;
 import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockReleased;
 import com.at.t.ecommerce.inventory.domain.stock.events.StockReserved;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockRestored;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockShipped;
 
 /**
  * The Stock Aggregate Root. This class represents a specific 'bucket' of
@@ -27,24 +33,29 @@ public class Stock {
 	private final UnitOfMeasure unitOfMeasure;
 
 	// --- 2. QUANTITY BUCKETS (STATE) ---
+	// Kept as primitive longs, all in 'unitOfMeasure' (checked ONCE per aggregate, see reconstitute):
+	// the hot path (ATP, reserve, invariants) then runs without allocating a single Quantity.
+	// Quantity stays the public API: every getter/mutator converts at the boundary.
 	private StockCondition stockCondition;
-	private Quantity quantityOnHand; // Physical stock currently sitting on shelves.
-	private Quantity quantityReserved; // Stock "locked" by customer orders/carts.
-	private Quantity quantityAllocated; // Stock currently being picked by warehouse staff.
-	private Quantity quantityInTransit; // Stock confirmed as shipped from supplier but not yet received.
-	private Quantity discrepancyGap; // Difference between system count and physical count.
-	private Quantity safetyStock; // Buffer to prevent overselling due to theft/damage.
+	private long quantityOnHand; // Physical stock currently sitting on shelves.
+	private long quantityReserved; // Stock "locked" by customer orders/carts.
+	private long quantityAllocated; // Stock currently being picked by warehouse staff.
+	private long quantityInTransit; // Stock confirmed as shipped from supplier but not yet received.
+	private long discrepancyGap; // Difference between system count and physical count.
+	private long safetyStock; // Buffer to prevent overselling due to theft/damage.
+	private long quantityLeased; // Part of ATP handed out to sub-bucket rows (hot-SKU split mode).
 
 	// --- 3. POLICIES & THRESHOLDS ---
 	private final Quantity lowStockThreshold;
 	private final Quantity maxStockThreshold;
 	private VelocityCode velocityCode;
 	private final RotationPolicy rotationPolicy;
+	private boolean lowStockSignalled; // StockLevelLow raised, not yet re-armed (see checkStockLevel)
 
 	// --- 4. LIFECYCLE & AUDIT ---
 	private LocalDate expiryDate;
 	private LifeCycleStatus lifecycleStatus;
-	private Instant lastUpdated;
+	private long lastUpdatedMillis; // Epoch millis: a clock read, not an Instant, on every mutation
 	private Long version;
 	private LocalDate lastAuditDate;
 
@@ -64,20 +75,15 @@ public class Stock {
 			throw new IllegalArgumentException("Maximum limit cannot be lower than re-order point (Low Threshold).");
 		}
 
-		this.id = StockId.newId();
+		this.id = stockId != null ? stockId : StockId.newId();
 		this.stockCondition = StockCondition.NEW;
 		this.velocityCode = VelocityCode.B_STANDARD;
 		this.lifecycleStatus = LifeCycleStatus.ACTIVE;
 
-		this.quantityOnHand = Quantity.zero(unitOfMeasure);
-		this.quantityReserved = Quantity.zero(unitOfMeasure);
-		this.quantityAllocated = Quantity.zero(unitOfMeasure);
-		this.quantityInTransit = Quantity.zero(unitOfMeasure);
-		this.discrepancyGap = Quantity.zero(unitOfMeasure);
-		this.safetyStock = Quantity.zero(unitOfMeasure);
+		// All buckets start at zero (the long default)
 
 		this.version = 0L;
-		this.lastUpdated = Instant.now();
+		this.lastUpdatedMillis = System.currentTimeMillis();
 		this.lastAuditDate = LocalDate.now();
 
 		validateInvariants();
@@ -87,7 +93,10 @@ public class Stock {
 	
 	// New Helper Method
     public List<StockEvent> pullDomainEvents() {
-        List<StockEvent> events = new ArrayList<>(this.domainEvents);
+        if (this.domainEvents.isEmpty()) {
+            return List.of();
+        }
+        List<StockEvent> events = List.copyOf(this.domainEvents);
         this.domainEvents.clear();
         return events;
     }
@@ -103,24 +112,47 @@ public class Stock {
 	 * safely tell a customer is available to buy.
 	 */
 	public Quantity getAvailableToPromise() {
-		return quantityOnHand.add(quantityInTransit).subtract(quantityReserved).subtract(safetyStock);
+		return Quantity.of(availableToPromise(), unitOfMeasure);
+	}
+
+	// Primitive ATP for the internal rules (no allocation)
+	private long availableToPromise() {
+		long atp = quantityOnHand + quantityInTransit - quantityReserved - safetyStock;
+		if (atp < 0) {
+			throw new IllegalArgumentException("Subtraction results in negative quantity");
+		}
+		return atp;
 	}
 
 	/**
 	 * STEP 1: RESERVE (Order Created) Locks the item so no other customer can buy
 	 * it. Stock stays 'On Hand' physically but is virtually marked as 'Reserved'.
+	 * Only the part of ATP NOT leased to sub-buckets can be reserved here.
 	 */
 	public void reserveStock(Quantity amount) {
-		Quantity available = getAvailableToPromise();
-		if (amount.isGreaterThan(available)) {
-			throw new InsufficientStockException(productId, amount, available);
+		long n = valueOf(amount);
+		long before = atpForSignal();
+		long available = availableToPromise() - quantityLeased;
+		if (n > available) {
+			throw new InsufficientStockException(productId, amount, Quantity.of(available, unitOfMeasure));
 		}
-		this.quantityReserved = this.quantityReserved.add(amount);
-        this.lastUpdated = Instant.now();
+		this.quantityReserved += n;
+        touch();
         validateInvariants();
 
         // ✅ The Voice: Register the event
         registerEvent(StockReserved.now(this.id, this.productId, amount));
+        checkStockLevel(before);
+	}
+
+	/**
+	 * A reservation the database already applied (one conditional UPDATE): this Stock was loaded
+	 * AFTER it. Registers the Events {@link #reserveStock} would have.
+	 */
+	public void recordReservation(Quantity amount) {
+		long n = valueOf(amount);
+		registerEvent(StockReserved.now(this.id, this.productId, amount));
+		checkStockLevel(atpForSignal() + n);
 	}
 
 	/**
@@ -129,13 +161,18 @@ public class Stock {
 	 * being released back to inventory accidentally.
 	 */
 	public void allocateStock(Quantity amount) {
-		if (amount.isGreaterThan(quantityReserved)) {
+		long n = valueOf(amount);
+		if (n > quantityReserved) {
 			throw new IllegalStateException("Cannot allocate: Requested amount exceeds current reservations.");
 		}
-		this.quantityReserved = this.quantityReserved.subtract(amount);
-		this.quantityAllocated = this.quantityAllocated.add(amount);
-		this.lastUpdated = Instant.now();
+		long before = atpForSignal();
+		this.quantityReserved -= n;
+		this.quantityAllocated += n;
+		touch();
 		validateInvariants();
+
+		registerEvent(StockAllocated.now(this.id, this.productId, amount));
+		checkStockLevel(before);
 	}
 
 	/**
@@ -143,13 +180,21 @@ public class Stock {
 	 * warehouse. OnHand and Allocated both decrease.
 	 */
 	public void confirmShipment(Quantity amount) {
-		if (amount.isGreaterThan(quantityAllocated)) {
+		long n = valueOf(amount);
+		if (n > quantityAllocated) {
 			throw new IllegalStateException("Cannot ship: Requested amount was never allocated.");
 		}
-		this.quantityAllocated = this.quantityAllocated.subtract(amount);
-		this.quantityOnHand = this.quantityOnHand.subtract(amount);
-		this.lastUpdated = Instant.now();
+		if (n > quantityOnHand) {
+			throw new IllegalArgumentException("Subtraction results in negative quantity");
+		}
+		long before = atpForSignal();
+		this.quantityAllocated -= n;
+		this.quantityOnHand -= n;
+		touch();
 		validateInvariants();
+
+		registerEvent(StockShipped.now(this.id, this.productId, amount));
+		checkStockLevel(before);
 	}
 
 	/**
@@ -157,12 +202,17 @@ public class Stock {
 	 * available for other customers again.
 	 */
 	public void releaseStock(Quantity amount) {
-		if (amount.isGreaterThan(quantityReserved)) {
+		long n = valueOf(amount);
+		if (n > quantityReserved) {
 			throw new IllegalStateException("Cannot release: Requested amount exceeds reserved quantity.");
 		}
-		this.quantityReserved = this.quantityReserved.subtract(amount);
-		this.lastUpdated = Instant.now();
+		long before = atpForSignal();
+		this.quantityReserved -= n;
+		touch();
 		validateInvariants();
+
+		registerEvent(StockReleased.now(this.id, this.productId, amount));
+		checkStockLevel(before);
 	}
 
 	/**
@@ -171,9 +221,13 @@ public class Stock {
 	 * count.
 	 */
 	public void restoreStock(Quantity amount) {
-		this.quantityOnHand = this.quantityOnHand.add(amount);
-		this.lastUpdated = Instant.now();
+		long before = atpForSignal();
+		this.quantityOnHand += valueOf(amount);
+		touch();
 		validateInvariants();
+
+		registerEvent(StockRestored.now(this.id, this.productId, amount));
+		checkStockLevel(before);
 	}
 
 	/**
@@ -181,15 +235,117 @@ public class Stock {
 	 * Hand' when a truck arrives at the warehouse.
 	 */
 	public void receiveStock(Quantity amount) {
+		long n = valueOf(amount);
+		long before = atpForSignal();
 		// Handle over-delivery logic safely
-        if (amount.isGreaterThan(quantityInTransit)) {
-            this.quantityInTransit = Quantity.zero(unitOfMeasure); 
+        if (n > quantityInTransit) {
+            this.quantityInTransit = 0;
         } else {
-            this.quantityInTransit = this.quantityInTransit.subtract(amount);
+            this.quantityInTransit -= n;
         }
-        this.quantityOnHand = this.quantityOnHand.add(amount);
-        this.lastUpdated = Instant.now();
+        this.quantityOnHand += n;
+        touch();
         validateInvariants();
+
+        registerEvent(StockReceived.now(this.id, this.productId, amount));
+        checkStockLevel(before);
+	}
+
+	/**
+	 * SPLIT (Hot SKU) Hands part of the ATP out to sub-bucket rows, so reservations
+	 * can be taken from those rows without locking this one. Leased stock still
+	 * counts in ATP, it just cannot be reserved through {@link #reserveStock}.
+	 */
+	public void leaseToBuckets(Quantity amount) {
+		long n = valueOf(amount);
+		if (n > availableToPromise() - quantityLeased) {
+			throw new IllegalStateException("Cannot lease: Requested amount exceeds the unleased ATP.");
+		}
+		this.quantityLeased += n;
+		// Sub-bucket reservations lowered ATP without going through this Aggregate (they only ever lower it)
+		checkStockLevel(Long.MAX_VALUE);
+	}
+
+	/**
+	 * UNSPLIT Takes back what is left in the sub-buckets (the caller holds their locks).
+	 */
+	public void returnLease(Quantity amount) {
+		long n = valueOf(amount);
+		if (n > quantityLeased) {
+			throw new IllegalStateException("Cannot return: Requested amount exceeds the leased quantity.");
+		}
+		this.quantityLeased -= n;
+	}
+
+	/**
+	 * Low-stock signal, evaluated after every ATP change (no scan needed to find low items):
+	 * StockLevelLow is raised once when ATP falls to the re-order point, i.e. from above it ('before')
+	 * to at or below it: a receipt or a release that leaves ATP under the line is no alert. With
+	 * HYSTERESIS: it is only re-armed once ATP is back above the re-order point plus a margin, so a
+	 * SKU hovering at the line raises it once, not on every reserve/release pair.
+	 */
+	private void checkStockLevel(long before) {
+		long atp = atpForSignal();
+		long reorderPoint = lowStockThreshold.value();
+		if (!lowStockSignalled && before > reorderPoint && atp <= reorderPoint) {
+			lowStockSignalled = true;
+			registerEvent(StockLevelLow.now(id, productId, warehouseId,
+					Quantity.of(atp, unitOfMeasure), lowStockThreshold));
+		} else {
+			rearmIfRecovered(atp);
+		}
+	}
+
+	private long atpForSignal() {
+		return Math.max(0, quantityOnHand + quantityInTransit - quantityReserved - safetyStock); // Never throws
+	}
+
+	private void rearmIfRecovered(long atp) {
+		if (lowStockSignalled && atp > lowStockThreshold.value() + rearmMargin()) {
+			lowStockSignalled = false;
+		}
+	}
+
+	// 10% of the band between the re-order point and the maximum, at least 1 unit
+	private long rearmMargin() {
+		return Math.max(1, (maxStockThreshold.value() - lowStockThreshold.value()) / 10);
+	}
+
+	/**
+	 * JOURNAL REPLAY: re-applies an Event this Stock registered earlier, on top of the state it
+	 * had then (snapshot + the Events before it, in order). No rule is checked and nothing is
+	 * registered: the Event already happened. 'sequence' is its position in the journal and
+	 * becomes the version. ONLY for the Infrastructure Layer, like {@link #reconstitute}.
+	 */
+	public void replay(StockEvent event, long sequence) {
+		if (event instanceof StockReserved e) {
+			this.quantityReserved += valueOf(e.amount());
+		} else if (event instanceof StockReleased e) {
+			this.quantityReserved -= valueOf(e.amount());
+		} else if (event instanceof StockAllocated e) {
+			long n = valueOf(e.amount());
+			this.quantityReserved -= n;
+			this.quantityAllocated += n;
+		} else if (event instanceof StockShipped e) {
+			long n = valueOf(e.amount());
+			this.quantityAllocated -= n;
+			this.quantityOnHand -= n;
+		} else if (event instanceof StockReceived e) {
+			long n = valueOf(e.amount());
+			this.quantityInTransit = Math.max(0, quantityInTransit - n); // Same over-delivery rule as receiveStock
+			this.quantityOnHand += n;
+		} else if (event instanceof StockRestored e) {
+			this.quantityOnHand += valueOf(e.amount());
+		}
+
+		// The signal state follows the same steps: raised by its own Event, re-armed after a recovery
+		if (event instanceof StockLevelLow) {
+			this.lowStockSignalled = true;
+		} else {
+			rearmIfRecovered(Math.max(0, quantityOnHand + quantityInTransit - quantityReserved - safetyStock));
+		}
+		this.lastUpdatedMillis = event.occurredOn().toEpochMilli();
+		this.version = sequence;
 	}
 
 	// --- GUARDS ---
@@ -200,11 +356,32 @@ public class Stock {
 	private void validateInvariants() {
 		// Final check: You can't have more reserved than you have total items (Physical
 		// + Incoming)
-		Quantity totalPossible = quantityOnHand.add(quantityInTransit);
-		if (quantityReserved.isGreaterThan(totalPossible)) {
+		long totalPossible = quantityOnHand + quantityInTransit;
+		if (quantityReserved > totalPossible) {
 			throw new IllegalStateException("System Integrity Error: Reserved stock exceeds total possible inventory.");
 		}
 	}
+
+	/**
+	 * The ONLY unit check on the hot path: an incoming amount must be in this Stock's unit.
+	 * Returns the raw value so the arithmetic can stay primitive.
+	 */
+	private long valueOf(Quantity amount) {
+		return valueOf(amount, unitOfMeasure);
+	}
+
+	private static long valueOf(Quantity amount, UnitOfMeasure unit) {
+		Objects.requireNonNull(amount, "Cannot compare with null quantity");
+		if (amount.unit() != unit) {
+			throw new IllegalArgumentException(
+					String.format("Unit mismatch: Cannot mix %s with %s", amount.unit(), unit));
+		}
+		return amount.value();
+	}
+
+	private void touch() {
+		this.lastUpdatedMillis = System.currentTimeMillis();
+	}
 	
 	// --- 1. GETTERS (Necessary for the Mapper to read state) ---
     // We keep setters private/absent to enforce immutability
@@ -215,25 +392,29 @@ public class Stock {
     public UnitOfMeasure getUnitOfMeasure() { return unitOfMeasure; }
     
     // We expose the raw value or the object? Object is safer.
-    public Quantity getQuantityOnHand() { return quantityOnHand; }
-    public Quantity getQuantityReserved() { return quantityReserved; }
-    public Quantity getQuantityAllocated() { return quantityAllocated; }
-    public Quantity getQuantityInTransit() { return quantityInTransit; }
-    public Quantity getSafetyStock() { return safetyStock; }
-    public Quantity getDiscrepancyGap() { return discrepancyGap; }
+    public Quantity getQuantityOnHand() { return Quantity.of(quantityOnHand, unitOfMeasure); }
+    public Quantity getQuantityReserved() { return Quantity.of(quantityReserved, unitOfMeasure); }
+    public Quantity getQuantityAllocated() { return Quantity.of(quantityAllocated, unitOfMeasure); }
+    public Quantity getQuantityInTransit() { return Quantity.of(quantityInTransit, unitOfMeasure); }
+    public Quantity getSafetyStock() { return Quantity.of(safetyStock, unitOfMeasure); }
+    public Quantity getDiscrepancyGap() { return Quantity.of(discrepancyGap, unitOfMeasure); }
+    public Quantity getQuantityLeased() { return Quantity.of(quantityLeased, unitOfMeasure); }
     
     public Quantity getLowStockThreshold() { return lowStockThreshold; }
     public Quantity getMaxStockThreshold() { return maxStockThreshold; }
+    public boolean isLowStockSignalled() { return lowStockSignalled; }
     public VelocityCode getVelocityCode() { return velocityCode; }
     public RotationPolicy getRotationPolicy() { return rotationPolicy; }
     public LifeCycleStatus getLifecycleStatus() { return lifecycleStatus; }
     public LocalDate getExpiryDate() { return expiryDate; }
     public Long getVersion() { return version; }
+    public Instant getLastUpdated() { return Instant.ofEpochMilli(lastUpdatedMillis); }
     
  // --- 2. THE RECONSTITUTION FACTORY (For the Mapper) ---
     /**
      * DANGEROUS: This method is ONLY for the Infrastructure Layer (Mapper).
-     * It bypasses the 'New Stock' logic to restore an existing object from the DB.
+     * It bypasses the 'New Stock' logic to restore an existing object from the DB:
+     * no new id, no clock reads, no invariant check (the row was valid when written).
      */
     public static Stock reconstitute(
             StockId id, ProductId productId, WarehouseId warehouseId, Owner ownerId, UnitOfMeasure unit,
@@ -242,43 +423,62 @@ public class Stock {
             VelocityCode velocity, RotationPolicy rotation, LifeCycleStatus status,
             LocalDate expiry, Instant lastUpdated, Long version) {
         
-        // We use a private constructor or just create it here. 
-        // For simplicity in this example, we use the main constructor but then OVERWRITE the internal state.
-        // A cleaner way is a private "All Args" constructor.
-        
-        Stock stock = new Stock(id, productId, warehouseId, ownerId, rotation, lowThresh, maxThresh, unit);
-        
-        // Force the ID to match the Database ID (not a new random one)
-        setPrivateField(stock, "id", id); 
-        
-        // Restore Buckets
-        stock.quantityOnHand = onHand;
-        stock.quantityReserved = reserved;
-        stock.quantityAllocated = allocated;
-        stock.quantityInTransit = inTransit;
-        stock.safetyStock = safety;
-        stock.discrepancyGap = discrepancy;
+        return reconstitute(id, productId, warehouseId, ownerId, unit,
+                onHand, reserved, allocated, inTransit, safety, discrepancy, Quantity.zero(unit),
+                lowThresh, maxThresh, velocity, rotation, status, expiry, lastUpdated, version, false);
+    }
+
+    /**
+     * Same as above, for a Stock whose ATP is partly leased to sub-bucket rows, and with the
+     * low-stock signal state (true = StockLevelLow already raised for the current crossing).
+     */
+    public static Stock reconstitute(
+            StockId id, ProductId productId, WarehouseId warehouseId, Owner ownerId, UnitOfMeasure unit,
+            Quantity onHand, Quantity reserved, Quantity allocated, Quantity inTransit, Quantity safety, Quantity discrepancy,
+            Quantity leased, Quantity lowThresh, Quantity maxThresh, 
+            VelocityCode velocity, RotationPolicy rotation, LifeCycleStatus status,
+            LocalDate expiry, Instant lastUpdated, Long version, boolean lowStockSignalled) {
         
-        // Restore Metadata
-        stock.velocityCode = velocity;
-        stock.lifecycleStatus = status;
-        stock.expiryDate = expiry;
-        stock.lastUpdated = lastUpdated;
-        stock.version = version;
+        Objects.requireNonNull(unit);
         
-        return stock;
+        // The unit check happens here, once, instead of on every operation
+        return new Stock(id, productId, warehouseId, ownerId, unit,
+                valueOf(onHand, unit), valueOf(reserved, unit), valueOf(allocated, unit),
+                valueOf(inTransit, unit), valueOf(safety, unit), valueOf(discrepancy, unit), valueOf(leased, unit),
+                lowThresh, maxThresh, velocity, rotation, status, expiry,
+                lastUpdated != null ? lastUpdated.toEpochMilli() : 0L, version, lowStockSignalled);
     }
     
- // Helper to set the final ID field (Java reflection or protected access is usually needed here)
-    // In a real project, we often add a private constructor that takes ALL fields to avoid reflection.
-    private static void setPrivateField(Object target, String fieldName, Object value) {
-        try {
-            java.lang.reflect.Field field = target.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            field.set(target, value);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to reconstitute Stock", e);
-        }
+    // All-args constructor for reconstitute: plain field assignment, no reflection.
+    private Stock(StockId id, ProductId productId, WarehouseId warehouseId, Owner ownerId, UnitOfMeasure unit,
+            long onHand, long reserved, long allocated, long inTransit, long safety, long discrepancy, long leased,
+            Quantity lowThresh, Quantity maxThresh,
+            VelocityCode velocity, RotationPolicy rotation, LifeCycleStatus status,
+            LocalDate expiry, long lastUpdatedMillis, Long version, boolean lowStockSignalled) {
+        this.id = Objects.requireNonNull(id);
+        this.productId = Objects.requireNonNull(productId);
+        this.warehouseId = Objects.requireNonNull(warehouseId);
+        this.ownerId = Objects.requireNonNull(ownerId);
+        this.unitOfMeasure = unit;
+        this.rotationPolicy = Objects.requireNonNull(rotation);
+        this.lowStockThreshold = Objects.requireNonNull(lowThresh);
+        this.maxStockThreshold = Objects.requireNonNull(maxThresh);
+        
+        this.stockCondition = StockCondition.NEW;
+        this.quantityOnHand = onHand;
+        this.quantityReserved = reserved;
+        this.quantityAllocated = allocated;
+        this.quantityInTransit = inTransit;
+        this.safetyStock = safety;
+        this.discrepancyGap = discrepancy;
+        this.quantityLeased = leased;
+        
+        this.velocityCode = velocity;
+        this.lifecycleStatus = status;
+        this.expiryDate = expiry;
+        this.lastUpdatedMillis = lastUpdatedMillis;
+        this.version = version;
+        this.lowStockSignalled = lowStockSignalled;
     }
 	
 }
\ No newline at end of file
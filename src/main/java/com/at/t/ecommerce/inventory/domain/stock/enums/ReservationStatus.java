@@ -0,0 +1,10 @@
+package com.at.t.ecommerce.inventory.domain.stock.enums;
+
+public enum ReservationStatus {
+
+	HELD, // Stock is reserved until 'expiresAt' unless the order confirms it
+	CONFIRMED, // The order went through: the stock stays reserved (picking takes over)
+	RELEASED, // Cancelled by the client: the stock went back to ATP
+	EXPIRED // Abandoned (e.g. cart timed out): the stock went back to ATP
+
+}
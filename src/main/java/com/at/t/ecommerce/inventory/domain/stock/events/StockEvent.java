@@ -1,6 +1,7 @@
 package com.at.t.ecommerce.inventory.domain.stock.events;
 
 import com.at.t.ecommerce.inventory.domain.shared.DomainEvent;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockId;
 
 /**
  * Java 17 Sealed Interface.
@@ -9,5 +10,8 @@ import com.at.t.ecommerce.inventory.domain.shared.DomainEvent;
  */
 
 public sealed interface StockEvent extends DomainEvent 
-    permits StockReserved, StockReleased, StockShipped, StockReceived, StockLevelLow {
+    permits StockReserved, StockReleased, StockAllocated, StockShipped, StockReceived, StockRestored, StockLevelLow {
+
+    // Every Stock event belongs to exactly one Aggregate (used as Outbox / Kafka key)
+    StockId stockId();
 }
\ No newline at end of file
@@ -5,14 +5,20 @@ import java.time.Instant;
 import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
 
+/**
+ * ATP fell to the re-order point (lowStockThreshold). Raised ONCE per crossing:
+ * the Stock has to recover above the threshold (plus a margin) before it can be raised again.
+ */
 public record StockLevelLow(
     StockId stockId,
     ProductId productId,
+    WarehouseId warehouseId,
     Quantity currentLevel,
+    Quantity reorderPoint,
     Instant occurredOn
 ) implements StockEvent {
     
-    public static StockLevelLow now(StockId id, ProductId pId, Quantity level) {
-        return new StockLevelLow(id, pId, level, Instant.now());
+    public static StockLevelLow now(StockId id, ProductId pId, WarehouseId wId, Quantity level, Quantity reorderPoint) {
+        return new StockLevelLow(id, pId, wId, level, reorderPoint, Instant.now());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.at.t.ecommerce.inventory.domain.stock.events;
+
+import java.time.Instant;
+
+import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+public record StockRestored(
+    StockId stockId,
+    ProductId productId,
+    Quantity amount,
+    Instant occurredOn
+) implements StockEvent {
+    
+    public static StockRestored now(StockId id, ProductId pId, Quantity amount) {
+        return new StockRestored(id, pId, amount, Instant.now());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.at.t.ecommerce.inventory.domain.stock.exceptions;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.ReservationId;
+
+public class ReservationNotFoundException extends RuntimeException {
+	public ReservationNotFoundException(ReservationId id) {
+		super(String.format("Reservation %s not found", id.value()));
+	}
+}
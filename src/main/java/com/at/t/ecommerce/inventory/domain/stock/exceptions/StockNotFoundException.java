@@ -7,4 +7,8 @@ public class StockNotFoundException extends RuntimeException {
 	public StockNotFoundException(ProductId pid, WarehouseId wid) {
 		super(String.format("Stock not found for Product %s in Warehouse %s", pid.value(), wid.value()));
 	}
+
+	public StockNotFoundException(ProductId pid) {
+		super(String.format("Stock not found for Product %s in any Warehouse", pid.value()));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.at.t.ecommerce.inventory.domain.stock.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Reservation;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ProductId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ReservationId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.WarehouseId;
+
+public interface ReservationRepository {
+
+    /**
+     * Inserts new holds (one INSERT batch, no SELECT-before-INSERT).
+     */
+    void addAll(Collection<Reservation> holds);
+
+    /**
+     * Persists a status change of an existing hold.
+     */
+    Reservation save(Reservation reservation);
+
+    /**
+     * Pessimistic Lock Fetch: confirm / release / expire of the same hold never interleave.
+     */
+    Optional<Reservation> findByIdForUpdate(ReservationId id);
+
+    /**
+     * The hold an order already took for this product + warehouse (at most one, unique in the ledger).
+     */
+    Optional<Reservation> findByOrderLine(String orderId, ProductId productId, WarehouseId warehouseId);
+
+    /**
+     * Every hold these orders already took (any product / warehouse), in one query.
+     */
+    List<Reservation> findByOrderIds(Collection<String> orderIds);
+
+    /**
+     * Keyset page over the HELD reservations (ordered by ID), to rebuild the expiry schedule.
+     * Pass null to start from the beginning.
+     */
+    List<Reservation> findHeld(ReservationId after, int limit);
+
+    /**
+     * HELD reservations whose expiry is not after 'cutoff', oldest first: the catch-up for holds
+     * no running instance has on its expiry schedule.
+     */
+    List<Reservation> findHeldExpiredBy(Instant cutoff, int limit);
+}
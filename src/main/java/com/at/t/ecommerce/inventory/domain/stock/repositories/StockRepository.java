@@ -1,10 +1,14 @@
 package com.at.t.ecommerce.inventory.domain.stock.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
 import com.at.t.ecommerce.inventory.domain.stock.vo.ProductId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.Quantity;
 import com.at.t.ecommerce.inventory.domain.stock.vo.StockId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
 import com.at.t.ecommerce.inventory.domain.stock.vo.WarehouseId;
 
 public interface StockRepository {
@@ -26,6 +30,14 @@ public interface StockRepository {
      */
     Optional<Stock> findByProductAndWarehouse(ProductId productId, WarehouseId warehouseId);
 
+    /**
+     * Total ATP of a Product across ALL its Warehouses.
+     * Read from an aggregate that every write of this repository keeps up to date,
+     * so it costs one indexed lookup no matter how many Warehouses stock the Product.
+     * Empty when no Warehouse stocks it.
+     */
+    Optional<Quantity> findProductAvailability(ProductId productId);
+
     /**
      * PRO FEATURE: Pessimistic Lock Fetch.
      * Use this when you are about to reserve stock. It tells the DB to "Lock" the row
@@ -33,4 +45,40 @@ public interface StockRepository {
      * Prevents the "Double Booking" race condition.
      */
     Optional<Stock> findByIdForUpdate(StockId id);
-}
\ No newline at end of file
+
+    /**
+     * Batch Pessimistic Lock Fetch.
+     * Loads every Stock matching the given Business Keys in ONE query and locks the rows
+     * in a fixed order (by Stock ID), so two concurrent batches can never deadlock.
+     * Keys without a matching row are simply absent from the result.
+     * A split Stock also gets its sub-buckets locked, so its leased quantity is exact.
+     */
+    List<Stock> findAllForUpdate(Collection<StockKey> keys);
+
+    /**
+     * Atomic Reservation: applies the SAME rule as {@link Stock#reserveStock} (ATP >= amount)
+     * inside ONE conditional UPDATE, and records the StockReserved event.
+     * Returns the Stock AFTER the reservation, or empty when the condition did not match
+     * (no such row, unit mismatch or not enough ATP) - nothing was changed in that case.
+     */
+    Optional<Stock> reserveAtomically(ProductId productId, WarehouseId warehouseId, Quantity amount);
+
+    /**
+     * Hot-SKU split mode: takes the amount from ONE sub-bucket row with a conditional UPDATE,
+     * without touching (or locking) the Stock row, and records the StockReserved event.
+     * Returns false when that sub-bucket does not hold enough - nothing was changed in that case.
+     */
+    boolean reserveFromBucket(Stock stock, int bucket, Quantity amount);
+
+    /**
+     * Locks the sub-bucket rows of a Stock already locked with {@link #findByIdForUpdate}
+     * and returns what each one still holds (index = bucket number, missing rows hold 0).
+     */
+    long[] lockBuckets(StockId id);
+
+    /**
+     * Writes the sub-bucket levels decided under the locks taken by {@link #lockBuckets}.
+     * Call it after {@link #save} of the same Stock (whose leased quantity must match the sum).
+     */
+    void saveBuckets(StockId id, long[] remaining);
+}
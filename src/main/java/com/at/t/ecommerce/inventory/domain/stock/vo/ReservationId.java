@@ -0,0 +1,24 @@
+package com.at.t.ecommerce.inventory.domain.stock.vo;
+
+import java.util.Objects;
+import java.util.UUID;
+
+public record ReservationId(String value) {
+
+    public ReservationId {
+        Objects.requireNonNull(value, "ReservationId value cannot be null");
+        if (value.isBlank()) {
+            throw new IllegalArgumentException("ReservationId cannot be empty");
+        }
+    }
+
+    // Factory method to generate a new random ID
+    public static ReservationId newId() {
+        return new ReservationId(UUID.randomUUID().toString());
+    }
+
+    // Factory method to create from existing String (for Mapper / gRPC)
+    public static ReservationId of(String value) {
+        return new ReservationId(value);
+    }
+}
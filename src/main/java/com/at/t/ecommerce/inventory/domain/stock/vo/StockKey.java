@@ -0,0 +1,18 @@
+package com.at.t.ecommerce.inventory.domain.stock.vo;
+
+import java.util.Objects;
+
+/**
+ * The Business Key of a Stock bucket: "The iPhone 15 at Texas Warehouse".
+ * Used wherever several Stock rows are addressed at once (batches, caches).
+ */
+public record StockKey(ProductId productId, WarehouseId warehouseId) {
+    public StockKey {
+        Objects.requireNonNull(productId, "StockKey productId cannot be null");
+        Objects.requireNonNull(warehouseId, "StockKey warehouseId cannot be null");
+    }
+
+    public static StockKey of(ProductId productId, WarehouseId warehouseId) {
+        return new StockKey(productId, warehouseId);
+    }
+}
@@ -0,0 +1,87 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityCache;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+import com.at.t.ecommerce.inventory.infrastructure.events.StockStateChanged;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.routing.ReadReplicaProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops the cached availability once a Stock write is COMMITTED.
+ * Evicting before the commit would let a concurrent reader re-cache the old row.
+ * The keys of one transaction are evicted together (a receiving chunk or a cart is one
+ * Redis DEL and one invalidation message, not one per Stock).
+ * With read replicas, a miss right after the commit may still load the old row from a replica
+ * and cache it: the keys are evicted a second time once replicas have caught up (max-lag plus
+ * one lag check), so such an entry lives that long at most instead of the whole TTL.
+ */
+@Component
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@Slf4j
+public class AvailabilityCacheInvalidator {
+
+    private final AvailabilityCache cache;
+    private final TaskScheduler scheduler; // null: no second eviction
+    private final Duration reEvictAfter;
+
+    public AvailabilityCacheInvalidator(AvailabilityCache cache, ReadReplicaProperties replicas,
+                                        ObjectProvider<TaskScheduler> scheduler) {
+        this.cache = cache;
+        this.scheduler = replicas.enabled() ? scheduler.getIfUnique() : null;
+        this.reEvictAfter = replicas.maxLag().plus(replicas.lagCheckInterval());
+        if (replicas.enabled() && this.scheduler == null) {
+            log.warn("No TaskScheduler: availability entries re-cached from a lagging replica live until their TTL");
+        }
+    }
+
+    @EventListener
+    public void onStockStateChanged(StockStateChanged event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(event.key());
+            if (scheduler != null) {
+                scheduler.schedule(() -> cache.evict(event.key()), Instant.now().plus(reEvictAfter));
+            }
+            return;
+        }
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvictions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.keys.add(event.key());
+    }
+
+    // One per transaction, bound to it as a resource
+    private final class PendingEvictions implements TransactionSynchronization {
+
+        private final Set<StockKey> keys = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            cache.evictAll(keys);
+            if (scheduler != null) {
+                scheduler.schedule(() -> cache.evictAll(keys), Instant.now().plus(reEvictAfter));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AvailabilityCacheInvalidator.this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param ttl       upper bound on how long an entry can survive a missed invalidation
+ * @param keyPrefix Redis key namespace
+ * @param near      in-process cache in front of Redis, see {@link Near}
+ */
+@ConfigurationProperties(prefix = "inventory.availability-cache")
+public record AvailabilityCacheProperties(
+        @DefaultValue("30s") Duration ttl,
+        @DefaultValue("inventory:atp:") String keyPrefix,
+        @DefaultValue Near near) {
+
+    /**
+     * @param enabled      false = every lookup goes to Redis
+     * @param maximumSize  entries per pod (Caffeine evicts by frequency and recency, W-TinyLFU)
+     * @param maxStaleness how long an entry lives at most: the bound when a pod misses an invalidation
+     * @param channel      Redis pub/sub channel carrying the committed writes to every pod
+     */
+    public record Near(@DefaultValue("true") boolean enabled,
+                       @DefaultValue("10000") long maximumSize,
+                       @DefaultValue("2s") Duration maxStaleness,
+                       @DefaultValue("inventory:atp:invalidate") String channel) {
+    }
+}
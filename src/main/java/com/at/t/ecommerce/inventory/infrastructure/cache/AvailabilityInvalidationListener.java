@@ -0,0 +1,82 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Subscribes this pod to the invalidation channel of the near cache.
+ * Fails open like the cache itself: the service starts without Redis, and the subscription is
+ * retried in the background (on its own thread: a connect timeout must not stall the shared scheduler).
+ * Until it succeeds the near entries just expire after 'max-staleness'.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.availability-cache.near", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AvailabilityInvalidationListener implements SmartLifecycle {
+
+    private static final long RESUBSCRIBE_SECONDS = 5;
+
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    private final String channel;
+    private ScheduledExecutorService subscriber;
+    private boolean warned;
+
+    public AvailabilityInvalidationListener(RedisConnectionFactory connectionFactory, TwoLevelAvailabilityCache cache,
+                                            AvailabilityCacheProperties properties) {
+        this.channel = properties.near().channel();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> cache.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        container.afterPropertiesSet();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isRunning()) return;
+        subscriber = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        subscriber.scheduleWithFixedDelay(this::subscribe, 0, RESUBSCRIBE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!isRunning()) return;
+        subscriber.shutdownNow();
+        container.stop();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return subscriber != null && !subscriber.isShutdown();
+    }
+
+    // Once subscribed, the container recovers lost connections itself; only the first subscription is ours to retry
+    private void subscribe() {
+        if (container.isListening()) return;
+        try {
+            container.stop(); // A failed first attempt leaves the container 'started' but not listening
+            container.start();
+            log.info("Listening for availability invalidations on {}", channel);
+            warned = false;
+        } catch (RuntimeException e) {
+            if (!warned) {
+                log.warn("Availability invalidation channel unavailable, near cache entries rely on max-staleness: {}", e.getMessage());
+                warned = true;
+            }
+        }
+    }
+}
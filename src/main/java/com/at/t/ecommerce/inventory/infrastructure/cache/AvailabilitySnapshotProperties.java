@@ -0,0 +1,27 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled           answer GetStockAvailability from the in-process table (see {@link MappedAvailabilitySnapshot})
+ * @param file              where the table is mapped; kept across restarts (a local volume, not shared between pods)
+ * @param capacity          Stocks it can hold; the file takes 64 bytes per slot at most 70% full
+ *                          (1M: 128 MB, 25M: 4 GB), pages are only allocated once written
+ * @param maxRestoredAge    a file not written for longer than this is discarded at startup instead of served
+ * @param reconcileInterval how often every entry is re-read from the database (the first time at startup):
+ *                          bounds how long an entry can stay wrong after a missed invalidation message
+ * @param reconcilePage     Stock rows per query of a reconcile
+ */
+@ConfigurationProperties(prefix = "inventory.availability-snapshot")
+public record AvailabilitySnapshotProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/availability.snapshot") Path file,
+        @DefaultValue("1000000") long capacity,
+        @DefaultValue("15m") Duration maxRestoredAge,
+        @DefaultValue("15m") Duration reconcileInterval,
+        @DefaultValue("10000") int reconcilePage) {
+}
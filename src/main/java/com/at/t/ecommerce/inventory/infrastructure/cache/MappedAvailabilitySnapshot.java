@@ -0,0 +1,237 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilitySnapshot;
+import com.at.t.ecommerce.inventory.application.stock.ReadConsistency;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.events.RemoteStockChanges;
+import com.at.t.ecommerce.inventory.infrastructure.events.StockStateChanged;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockRepository;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.routing.ReadReplicaProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Every Stock's ATP in a {@link MappedAvailabilityTable}: GetStockAvailability without a network hop,
+ * for the whole catalog, and straight after a restart (the file is still there).
+ * 1. Committed writes of this pod store their ATP (after the commit, stamped with the commit time)
+ * 2. Writes of other pods (invalidation channel) mark the entry stale: the next read loads it
+ *    from the database, which stores it again
+ * 3. A reconcile re-reads every Stock at startup, then every 'reconcile-interval' (missed messages,
+ *    writes made while this pod was down). A restored file is served while the first one runs.
+ * Values read from a replica are stamped as old as the replica may be, so they cannot replace a
+ * newer committed write.
+ * Metrics: inventory.availability.snapshot.lookups{result=hit|miss|stale}, inventory.availability.snapshot.size
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.availability-snapshot", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({AvailabilitySnapshotProperties.class, ReadReplicaProperties.class})
+@Slf4j
+public class MappedAvailabilitySnapshot implements AvailabilitySnapshot, SmartLifecycle, DisposableBean {
+
+    private final MappedAvailabilityTable table;
+    private final SpringDataStockRepository stocks;
+    private final AvailabilitySnapshotProperties properties;
+    private final Duration replicaLag; // How old a read-only query's data can be
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+    private ScheduledExecutorService reconciler;
+
+    public MappedAvailabilitySnapshot(SpringDataStockRepository stocks, AvailabilitySnapshotProperties properties,
+                                      ReadReplicaProperties replicas, MeterRegistry registry) {
+        this.stocks = stocks;
+        this.properties = properties;
+        this.replicaLag = replicas.enabled() ? replicas.maxLag().plus(replicas.lagCheckInterval()) : Duration.ZERO;
+        this.table = open(properties);
+        this.hits = lookups(registry, "hit");
+        this.misses = lookups(registry, "miss");
+        this.stale = lookups(registry, "stale");
+        Gauge.builder("inventory.availability.snapshot.size", table, MappedAvailabilityTable::size)
+                .description("Stocks in the availability snapshot")
+                .register(registry);
+    }
+
+    @Override
+    public Optional<StockAvailability> get(StockKey key) {
+        MappedAvailabilityTable.Entry entry = table.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.stale()) {
+            stale.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.availability());
+    }
+
+    @Override
+    public void put(StockAvailability availability, Instant asOf) {
+        Instant readAt = ReadConsistency.primaryRequired() ? asOf : asOf.minus(replicaLag);
+        // -1 ms: a load that started in the same millisecond as a commit may not have seen it
+        table.put(availability, readAt.toEpochMilli() - 1);
+    }
+
+    @EventListener
+    public void onStockStateChanged(StockStateChanged event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(event, System.currentTimeMillis());
+            return;
+        }
+        PendingWrites pending = (PendingWrites) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingWrites();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.latest.put(event.key(), event); // The last write of the transaction is what it committed
+    }
+
+    @EventListener
+    public void onRemoteStockChanges(RemoteStockChanges event) {
+        long now = System.currentTimeMillis();
+        event.keys().forEach(key -> table.markStale(key, now));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isRunning()) return;
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.reconcileInterval().toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcile, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!isRunning()) return;
+        reconciler.shutdownNow();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return reconciler != null && !reconciler.isShutdown();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        table.close();
+    }
+
+    // Keyset pages over stock_inventory; each page is stamped with the time its query started
+    void reconcile() {
+        long started = System.currentTimeMillis();
+        long loaded = 0;
+        String after = "";
+        try {
+            List<Object[]> page;
+            do {
+                long asOf = System.currentTimeMillis() - replicaLag.toMillis() - 1;
+                page = stocks.findAvailabilityPage(after, properties.reconcilePage());
+                for (Object[] row : page) {
+                    table.put(availability(row), asOf);
+                    after = (String) row[0];
+                }
+                loaded += page.size();
+            } while (page.size() == properties.reconcilePage() && !Thread.currentThread().isInterrupted());
+            log.info("Availability snapshot reconciled: {} Stocks in {} ms ({} held)",
+                    loaded, System.currentTimeMillis() - started, table.size());
+        } catch (RuntimeException e) {
+            // Next run retries; meanwhile the entries are only as current as the committed writes made them
+            log.warn("Availability snapshot reconcile stopped after {} Stocks: {}", loaded, e.getMessage());
+        }
+        table.force();
+    }
+
+    private void apply(StockStateChanged event, long committedAt) {
+        if (event.exact()) {
+            table.put(new StockAvailability(event.stockId(), event.key(), event.availableToPromise()), committedAt);
+        } else {
+            table.markStale(event.key(), committedAt);
+        }
+    }
+
+    // One per transaction, bound to it as a resource
+    private final class PendingWrites implements TransactionSynchronization {
+
+        private final Map<StockKey, StockStateChanged> latest = new LinkedHashMap<>();
+
+        @Override
+        public void afterCommit() {
+            long committedAt = System.currentTimeMillis();
+            latest.values().forEach(event -> apply(event, committedAt));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MappedAvailabilitySnapshot.this);
+        }
+    }
+
+    // [stock_id, product_id, warehouse_id, unit, atp], see SpringDataStockRepository#findAvailabilityPage
+    private static StockAvailability availability(Object[] row) {
+        StockKey key = StockKey.of(new ProductId((String) row[1]), new WarehouseId((String) row[2]));
+        long atp = Math.max(0, ((Number) row[4]).longValue()); // The Domain never shows a negative ATP
+        return new StockAvailability(new StockId((String) row[0]), key,
+                Quantity.of(atp, UnitOfMeasure.valueOf((String) row[3])));
+    }
+
+    private static MappedAvailabilityTable open(AvailabilitySnapshotProperties properties) {
+        try {
+            MappedAvailabilityTable table = MappedAvailabilityTable.open(properties.file(), properties.capacity());
+            if (!table.restored()) {
+                log.info("Availability snapshot created in {} ({} Stocks at most)", properties.file(), table.capacity());
+                return table;
+            }
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - table.lastWriteMillis());
+            if (age.compareTo(properties.maxRestoredAge()) <= 0) {
+                log.info("Availability snapshot restored from {}: {} Stocks, last written {} ago", properties.file(), table.size(), age);
+                return table;
+            }
+            log.info("Availability snapshot in {} is {} old, starting empty", properties.file(), age);
+            table.close();
+            Files.delete(properties.file());
+            return MappedAvailabilityTable.open(properties.file(), properties.capacity());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map the availability snapshot " + properties.file(), e);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("inventory.availability.snapshot.lookups")
+                .description("Availability lookups answered by the snapshot, or not")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,331 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.Quantity;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+/**
+ * Off-heap ATP table in a memory-mapped file: open addressing (linear probing), one 64-byte slot
+ * per Stock, nothing on the Java heap but this object. The file outlives the process, so a
+ * restarted pod finds its table where it left it.
+ *
+ * Slot: key (128-bit hash of productId + warehouseId) | StockId (UUID) | ATP | as-of (epoch ms)
+ *       | seq | unit | flags. The key is a hash, not the IDs themselves: two Stocks colliding on
+ *       all 128 bits is not a practical concern at catalog scale (about 1e-24 for 20M Stocks).
+ *
+ * 1. Reads are lock-free: every slot has a sequence number, odd while it is being written; a read
+ *    that saw it change retries (seqlock). A slot that stays odd (a writer died mid-write) is
+ *    given up on after a bounded spin and reads as absent; the next write to it repairs it
+ * 2. Writes take one lock: they are far rarer than reads, and probing for a free slot must not race
+ * 3. A write only lands if it is at least as recent as what the slot holds ('asOfMillis'), so a
+ *    slow database page cannot overwrite a newer committed change
+ * 4. Slots are never freed: a Stock that goes away just stays (its ATP is no longer asked for).
+ *    A full table stores nothing more; those Stocks are read the usual way.
+ * 5. The header is flagged 'open' while the file is mapped and cleared by close(): a file still
+ *    flagged at open was not closed cleanly (crash, kill -9) and is discarded rather than trusted
+ */
+public class MappedAvailabilityTable implements Closeable {
+
+    private static final long MAGIC = 0x494E56415450_01L; // "INVATP" + 1
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4096;
+    private static final int SLOT_BYTES = 64;
+    private static final int SLOTS_PER_SEGMENT_BITS = 24; // 16M slots = 1 GiB per mapping (a mapping stops at 2 GiB)
+    private static final double MAX_LOAD = 0.7;
+    private static final int MAX_SPINS = 1_000; // A write holds a slot for well under a microsecond
+
+    // Header
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 8;
+    private static final int H_SLOT_BYTES = 12;
+    private static final int H_SLOTS = 16;
+    private static final int H_SIZE = 24;
+    private static final int H_LAST_WRITE = 32;
+    private static final int H_OPEN = 40;
+
+    // Slot
+    private static final int KEY_HI = 0;
+    private static final int KEY_LO = 8;
+    private static final int ID_MSB = 16;
+    private static final int ID_LSB = 24;
+    private static final int ATP = 32;
+    private static final int AS_OF = 40;
+    private static final int SEQ = 48;
+    private static final int UNIT = 52;
+    private static final int FLAGS = 53;
+
+    private static final byte STALE = 1;
+    private static final UnitOfMeasure[] UNITS = UnitOfMeasure.values();
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    /**
+     * What a slot holds. 'stale' = another instance changed the Stock since: the ATP must not be served.
+     */
+    public record Entry(StockAvailability availability, long asOfMillis, boolean stale) {
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final long slots;
+    private final long mask;
+    private final long maxSize;
+    private final boolean restored;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private long size; // Guarded by writeLock (mirrored in the header)
+
+    private MappedAvailabilityTable(FileChannel channel, long slots, boolean restored) throws IOException {
+        this.channel = channel;
+        this.slots = slots;
+        this.mask = slots - 1;
+        this.maxSize = (long) (slots * MAX_LOAD);
+        this.restored = restored;
+        this.header = order(channel.map(MapMode.READ_WRITE, 0, HEADER_BYTES));
+        long segmentSlots = Math.min(slots, 1L << SLOTS_PER_SEGMENT_BITS);
+        this.segments = new MappedByteBuffer[(int) (slots / segmentSlots)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = order(channel.map(MapMode.READ_WRITE, HEADER_BYTES + i * segmentSlots * SLOT_BYTES, segmentSlots * SLOT_BYTES));
+        }
+        if (restored) {
+            this.size = header.getLong(H_SIZE);
+        } else {
+            header.putLong(H_MAGIC, 0); // Invalid until fully initialised
+            header.putInt(H_VERSION, FORMAT_VERSION);
+            header.putInt(H_SLOT_BYTES, SLOT_BYTES);
+            header.putLong(H_SLOTS, slots);
+            header.putLong(H_SIZE, 0);
+            header.putLong(H_LAST_WRITE, 0);
+            header.putLong(H_MAGIC, MAGIC);
+        }
+        header.putInt(H_OPEN, 1);
+        header.force(); // On disk before any slot is written
+    }
+
+    /**
+     * Opens the table in 'file', sized for 'capacity' Stocks. An existing file of the same format and
+     * size, closed cleanly, is reused as it is (see {@link #restored()}); anything else is replaced by
+     * an empty table.
+     */
+    public static MappedAvailabilityTable open(Path file, long capacity) throws IOException {
+        long slots = Long.highestOneBit(Math.max(2, (long) Math.ceil(capacity / MAX_LOAD)) - 1) << 1;
+        long length = HEADER_BYTES + slots * SLOT_BYTES;
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        boolean reusable = Files.exists(file) && Files.size(file) == length && headerMatches(file, slots);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (!reusable) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.allocate(1), length - 1); // Sparse: pages are only allocated once written
+            }
+            return new MappedAvailabilityTable(channel, slots, reusable);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean restored() {
+        return restored;
+    }
+
+    public long lastWriteMillis() {
+        return header.getLong(H_LAST_WRITE);
+    }
+
+    public long size() {
+        return header.getLong(H_SIZE);
+    }
+
+    public long capacity() {
+        return maxSize;
+    }
+
+    public Entry get(StockKey key) {
+        long hi = hash(key, 0x9E3779B97F4A7C15L);
+        long lo = hash(key, 0xC2B2AE3D27D4EB4FL);
+        if (hi == 0 && lo == 0) hi = 1; // (0, 0) marks an empty slot
+        for (long probe = 0, i = hi & mask; probe < slots; probe++, i = (i + 1) & mask) {
+            ByteBuffer segment = segment(i);
+            int at = offset(i);
+            for (int spins = 0; ; spins++) {
+                if (spins == MAX_SPINS) return null; // Torn for good: the caller reads it the usual way
+                int seq = (int) INT.getAcquire(segment, at + SEQ);
+                if ((seq & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                long slotHi = segment.getLong(at + KEY_HI);
+                long slotLo = segment.getLong(at + KEY_LO);
+                boolean empty = slotHi == 0 && slotLo == 0;
+                boolean match = slotHi == hi && slotLo == lo;
+                Entry entry = match ? read(segment, at, key) : null;
+                VarHandle.acquireFence();
+                if ((int) INT.get(segment, at + SEQ) != seq) continue; // Written meanwhile: read the slot again
+                if (empty) return null;
+                if (match) return entry;
+                break; // Somebody else's slot: next one
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the ATP of a Stock as of 'asOfMillis' (clears the stale flag).
+     * Returns false when nothing was written: the slot holds something newer, the table is full,
+     * or the StockId is not a UUID (no room for free-form IDs in a slot).
+     */
+    public boolean put(StockAvailability availability, long asOfMillis) {
+        UUID id = uuid(availability.stockId());
+        if (id == null) return false;
+        return write(availability.key(), asOfMillis, true, (segment, at) -> {
+            segment.putLong(at + ID_MSB, id.getMostSignificantBits());
+            segment.putLong(at + ID_LSB, id.getLeastSignificantBits());
+            segment.putLong(at + ATP, availability.availableToPromise().value());
+            segment.put(at + UNIT, (byte) availability.availableToPromise().unit().ordinal());
+            segment.put(at + FLAGS, (byte) 0);
+        });
+    }
+
+    /**
+     * The Stock changed elsewhere as of 'asOfMillis': its ATP is not served until a newer put.
+     */
+    public void markStale(StockKey key, long asOfMillis) {
+        write(key, asOfMillis, false, (segment, at) -> segment.put(at + FLAGS, STALE));
+    }
+
+    /**
+     * Flushes the mapped pages to the file (the OS does it anyway, this just makes it happen now).
+     */
+    public void force() {
+        header.force();
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock(); // No write in progress once the file says 'closed cleanly'
+        try {
+            force();
+            header.putInt(H_OPEN, 0);
+            header.force();
+        } finally {
+            writeLock.unlock();
+        }
+        channel.close(); // The mappings go away with the buffers (GC)
+    }
+
+    private interface SlotWriter {
+        void write(ByteBuffer segment, int at);
+    }
+
+    private boolean write(StockKey key, long asOfMillis, boolean insert, SlotWriter writer) {
+        long hi = hash(key, 0x9E3779B97F4A7C15L);
+        long lo = hash(key, 0xC2B2AE3D27D4EB4FL);
+        if (hi == 0 && lo == 0) hi = 1;
+        writeLock.lock();
+        try {
+            for (long probe = 0, i = hi & mask; probe < slots; probe++, i = (i + 1) & mask) {
+                ByteBuffer segment = segment(i);
+                int at = offset(i);
+                long slotHi = segment.getLong(at + KEY_HI);
+                long slotLo = segment.getLong(at + KEY_LO);
+                boolean empty = slotHi == 0 && slotLo == 0;
+                if (!empty && (slotHi != hi || slotLo != lo)) continue;
+                if (empty && (!insert || size >= maxSize)) return false;
+                if (!empty && segment.getLong(at + AS_OF) > asOfMillis) return false;
+
+                // Seqlock: odd while the slot is inconsistent (an odd one left by a dead writer is evened out)
+                int seq = ((int) INT.get(segment, at + SEQ) + 1) & ~1;
+                INT.set(segment, at + SEQ, seq + 1);
+                VarHandle.releaseFence();
+                if (empty) {
+                    segment.putLong(at + KEY_HI, hi);
+                    segment.putLong(at + KEY_LO, lo);
+                }
+                writer.write(segment, at);
+                segment.putLong(at + AS_OF, asOfMillis);
+                INT.setRelease(segment, at + SEQ, seq + 2);
+
+                if (empty) header.putLong(H_SIZE, ++size);
+                header.putLong(H_LAST_WRITE, System.currentTimeMillis());
+                return true;
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static Entry read(ByteBuffer segment, int at, StockKey key) {
+        int unit = segment.get(at + UNIT);
+        if (unit < 0 || unit >= UNITS.length) return null; // Torn read: the seq check retries it
+        StockId stockId = new StockId(new UUID(segment.getLong(at + ID_MSB), segment.getLong(at + ID_LSB)).toString());
+        long atp = Math.max(0, segment.getLong(at + ATP));
+        return new Entry(new StockAvailability(stockId, key, Quantity.of(atp, UNITS[unit])),
+                segment.getLong(at + AS_OF), (segment.get(at + FLAGS) & STALE) != 0);
+    }
+
+    private ByteBuffer segment(long slot) {
+        return segments[(int) (slot >>> SLOTS_PER_SEGMENT_BITS)];
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot & ((1L << SLOTS_PER_SEGMENT_BITS) - 1)) * SLOT_BYTES;
+    }
+
+    // 64-bit FNV-1a over "productId \0 warehouseId" (UTF-8), with a different basis per half, then finalised (murmur3 fmix64)
+    private static long hash(StockKey key, long basis) {
+        long h = basis;
+        for (byte b : key.productId().value().getBytes(StandardCharsets.UTF_8)) h = (h ^ (b & 0xff)) * 0x100000001B3L;
+        h *= 0x100000001B3L;
+        for (byte b : key.warehouseId().value().getBytes(StandardCharsets.UTF_8)) h = (h ^ (b & 0xff)) * 0x100000001B3L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static UUID uuid(StockId id) {
+        try {
+            UUID uuid = UUID.fromString(id.value());
+            return uuid.toString().equals(id.value()) ? uuid : null; // Must read back as the same string
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean headerMatches(Path file, long slots) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(H_OPEN + 4).order(ByteOrder.nativeOrder());
+            channel.read(header, 0);
+            return header.getLong(H_MAGIC) == MAGIC && header.getInt(H_VERSION) == FORMAT_VERSION
+                    && header.getInt(H_SLOT_BYTES) == SLOT_BYTES && header.getLong(H_SLOTS) == slots
+                    && header.getInt(H_OPEN) == 0;
+        }
+    }
+
+    private static MappedByteBuffer order(MappedByteBuffer buffer) {
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+}
@@ -0,0 +1,139 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityCache;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis implementation of the availability cache.
+ * Key:   inventory:atp:{productId}:{warehouseId}
+ * Value: {stockId}|{atp}|{unit}  (a plain string: no serializer, tiny payload)
+ * Next to each key, {key}:gen counts its evictions (kept for one TTL after the last one): a loaded
+ * value is only SET if that count is still what it was when the load started (one script each).
+ */
+@Component
+@EnableConfigurationProperties(AvailabilityCacheProperties.class)
+@Slf4j
+public class RedisAvailabilityCache implements AvailabilityCache {
+
+    // KEYS: value, generation; ARGV: expected generation, value, TTL (ms)
+    private static final RedisScript<Long> PUT_IF_UNCHANGED = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end
+            redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            return 1""", Long.class);
+
+    // KEYS: value, generation, value, generation, ...; ARGV: TTL of the generations (ms)
+    private static final RedisScript<Long> EVICT = new DefaultRedisScript<>("""
+            for i = 1, #KEYS, 2 do
+                redis.call('DEL', KEYS[i])
+                redis.call('INCR', KEYS[i + 1])
+                redis.call('PEXPIRE', KEYS[i + 1], ARGV[1])
+            end
+            return #KEYS / 2""", Long.class);
+
+    private final StringRedisTemplate redis;
+    private final AvailabilityCacheProperties properties;
+    private final Counter hits;
+    private final Counter misses; // Including failed reads
+
+    public RedisAvailabilityCache(StringRedisTemplate redis, AvailabilityCacheProperties properties, MeterRegistry registry) {
+        this.redis = redis;
+        this.properties = properties;
+        // Same meter as the Caffeine binder of the near cache, so both levels sit side by side
+        this.hits = registry.counter("cache.gets", "cache", "availability.redis", "result", "hit");
+        this.misses = registry.counter("cache.gets", "cache", "availability.redis", "result", "miss");
+    }
+
+    @Override
+    public Optional<StockAvailability> get(StockKey key) {
+        try {
+            String value = redis.opsForValue().get(redisKey(key));
+            (value != null ? hits : misses).increment();
+            return Optional.ofNullable(value).map(v -> decode(key, v));
+        } catch (RuntimeException e) {
+            misses.increment();
+            log.warn("Availability cache read failed, falling back to the database: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Generation generation(StockKey key) {
+        try {
+            String value = redis.opsForValue().get(generationKey(key));
+            return new Generation(value == null ? 0 : Long.parseLong(value), -1);
+        } catch (RuntimeException e) {
+            log.warn("Availability cache read failed, the loaded value will not be cached: {}", e.getMessage());
+            return new Generation(-1, -1);
+        }
+    }
+
+    @Override
+    public void put(StockAvailability availability, Generation generation) {
+        if (generation.shared() < 0) return;
+        try {
+            redis.execute(PUT_IF_UNCHANGED, List.of(redisKey(availability.key()), generationKey(availability.key())),
+                    Long.toString(generation.shared()), encode(availability), Long.toString(properties.ttl().toMillis()));
+        } catch (RuntimeException e) {
+            log.warn("Availability cache write failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(StockKey key) {
+        evictAll(List.of(key));
+    }
+
+    @Override
+    public void evictAll(Collection<StockKey> keys) {
+        if (keys.isEmpty()) return;
+        List<String> redisKeys = new ArrayList<>(keys.size() * 2);
+        for (StockKey key : keys) {
+            redisKeys.add(redisKey(key));
+            redisKeys.add(generationKey(key));
+        }
+        try {
+            redis.execute(EVICT, redisKeys, Long.toString(properties.ttl().toMillis())); // One round trip for the whole transaction
+        } catch (RuntimeException e) {
+            // The TTL bounds how long the stale entry can live
+            log.warn("Availability cache eviction failed for {} keys: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private String redisKey(StockKey key) {
+        return properties.keyPrefix() + key.productId().value() + ":" + key.warehouseId().value();
+    }
+
+    private String generationKey(StockKey key) {
+        return redisKey(key) + ":gen";
+    }
+
+    private static String encode(StockAvailability availability) {
+        Quantity atp = availability.availableToPromise();
+        return availability.stockId().value() + "|" + atp.value() + "|" + atp.unit().name();
+    }
+
+    private static StockAvailability decode(StockKey key, String value) {
+        String[] parts = value.split("\\|");
+        return new StockAvailability(
+                StockId.of(parts[0]),
+                key,
+                Quantity.of(Long.parseLong(parts[1]), UnitOfMeasure.valueOf(parts[2])));
+    }
+}
@@ -0,0 +1,159 @@
+package com.at.t.ecommerce.inventory.infrastructure.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityCache;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.events.RemoteStockChanges;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * L1 (in-process Caffeine) in front of L2 (Redis): hot SKUs are answered without a network hop.
+ * 1. Reads: L1, then Redis (a hit there fills L1), then the caller loads from the database
+ * 2. Committed writes evict both levels here, and are published on a Redis channel so every
+ *    other pod drops its L1 copy (see {@link AvailabilityInvalidationListener})
+ * 3. Pub/sub is fire-and-forget: an L1 entry never lives longer than 'near.max-staleness',
+ *    which bounds how stale a pod that missed a message can be
+ * 4. L1 is filled only if its key was not evicted since the value was read (eviction counts per
+ *    stripe of keys, checked atomically with the fill), as Redis is (see RedisAvailabilityCache)
+ * Metrics: cache.gets{cache=availability.near|availability.redis, result=hit|miss}
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "inventory.availability-cache.near", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TwoLevelAvailabilityCache implements AvailabilityCache {
+
+    static final String NEAR_CACHE_NAME = "availability.near";
+    private static final int EVICTION_STRIPES = 4096; // Power of two
+
+    private final RedisAvailabilityCache redis;
+    private final StringRedisTemplate redisTemplate;
+    private final AvailabilityCacheProperties properties;
+    private final ApplicationEventPublisher events; // Other instances' writes, for the WatchAvailability hub
+    private final Cache<StockKey, StockAvailability> near;
+    private final AtomicLongArray evictions = new AtomicLongArray(EVICTION_STRIPES); // Local and remote
+
+    // Tags our own messages: the channel echoes them back, and this pod already evicted those keys
+    private final String origin = UUID.randomUUID().toString();
+
+    public TwoLevelAvailabilityCache(RedisAvailabilityCache redis, StringRedisTemplate redisTemplate,
+                                     AvailabilityCacheProperties properties, ApplicationEventPublisher events,
+                                     MeterRegistry registry) {
+        this.redis = redis;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.events = events;
+        this.near = Caffeine.newBuilder()
+                .maximumSize(properties.near().maximumSize())
+                .expireAfterWrite(properties.near().maxStaleness())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, near, NEAR_CACHE_NAME);
+    }
+
+    @Override
+    public Optional<StockAvailability> get(StockKey key) {
+        StockAvailability cached = near.getIfPresent(key);
+        if (cached != null) return Optional.of(cached);
+
+        long local = evictions.get(stripe(key));
+        Optional<StockAvailability> shared = redis.get(key);
+        shared.ifPresent(availability -> fill(availability, local));
+        return shared;
+    }
+
+    @Override
+    public Generation generation(StockKey key) {
+        long local = evictions.get(stripe(key)); // First: an eviction between the two reads only costs a fill
+        return new Generation(redis.generation(key).shared(), local);
+    }
+
+    @Override
+    public void put(StockAvailability availability, Generation generation) {
+        redis.put(availability, generation);
+        fill(availability, generation.local());
+    }
+
+    @Override
+    public void evict(StockKey key) {
+        evictAll(List.of(key));
+    }
+
+    @Override
+    public void evictAll(Collection<StockKey> keys) {
+        if (keys.isEmpty()) return;
+        invalidateNear(keys);
+        redis.evictAll(keys);
+        try {
+            redisTemplate.convertAndSend(properties.near().channel(), encode(keys));
+        } catch (RuntimeException e) {
+            // The other pods' copies expire after 'max-staleness'
+            log.warn("Availability invalidation could not be published for {} keys: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * A message from the invalidation channel: drops the L1 copies written by another pod's commit.
+     */
+    void onInvalidation(String message) {
+        List<StockKey> keys = decode(message);
+        if (keys == null || keys.isEmpty()) return;
+        invalidateNear(keys);
+        events.publishEvent(new RemoteStockChanges(keys));
+    }
+
+    // Counted first: a fill that runs after this sees the new count, one that ran before is invalidated
+    private void invalidateNear(Collection<StockKey> keys) {
+        keys.forEach(key -> evictions.incrementAndGet(stripe(key)));
+        near.invalidateAll(keys);
+    }
+
+    // Atomic with an invalidation of the same key (same map bin): the count is checked under it
+    private void fill(StockAvailability availability, long local) {
+        int stripe = stripe(availability.key());
+        near.asMap().compute(availability.key(), (key, old) -> evictions.get(stripe) == local ? availability : old);
+    }
+
+    private static int stripe(StockKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (EVICTION_STRIPES - 1);
+    }
+
+    // {origin}\n{productId}|{warehouseId}\n... (one message per committed transaction)
+    private String encode(Collection<StockKey> keys) {
+        StringBuilder message = new StringBuilder(origin);
+        keys.forEach(key -> message.append('\n').append(key.productId().value()).append('|').append(key.warehouseId().value()));
+        return message.toString();
+    }
+
+    private List<StockKey> decode(String message) {
+        String[] lines = message.split("\n");
+        if (lines[0].equals(origin)) return null;
+        List<StockKey> keys = new ArrayList<>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            int separator = lines[i].lastIndexOf('|');
+            if (separator < 0) continue;
+            keys.add(StockKey.of(new ProductId(lines[i].substring(0, separator)),
+                    new WarehouseId(lines[i].substring(separator + 1))));
+        }
+        return keys;
+    }
+}
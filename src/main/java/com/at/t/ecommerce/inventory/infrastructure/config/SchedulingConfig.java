@@ -0,0 +1,14 @@
+package com.at.t.ecommerce.inventory.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Scheduled for the whole service, in one place: outbox relay, reservation expiry
+ * (wheel ticks + catch-up), receipt inbox, watch pushes, replica lag checks. Each job is switched
+ * on and off by its own bean's condition.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
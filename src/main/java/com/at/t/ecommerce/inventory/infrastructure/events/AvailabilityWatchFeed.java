@@ -0,0 +1,39 @@
+package com.at.t.ecommerce.inventory.infrastructure.events;
+
+import java.util.List;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityWatchHub;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Feeds the WatchAvailability hub with COMMITTED Stock writes: the ones of this instance
+ * (with their ATP and version) and the ones whose ATP is not known: announced by other
+ * instances, or estimated by the writer (re-read by the hub).
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityWatchFeed {
+
+    private final AvailabilityWatchHub hub;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockStateChanged(StockStateChanged event) {
+        if (event.exact()) {
+            hub.changed(new StockAvailability(event.stockId(), event.key(), event.availableToPromise()), event.version());
+        } else {
+            hub.changedElsewhere(List.of(event.key()));
+        }
+    }
+
+    @EventListener
+    public void onRemoteStockChanges(RemoteStockChanges event) {
+        hub.changedElsewhere(event.keys());
+    }
+}
@@ -0,0 +1,12 @@
+package com.at.t.ecommerce.inventory.infrastructure.events;
+
+import java.util.List;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+
+/**
+ * In-process (Spring) notification that another instance committed writes to these Stocks
+ * (relayed by the availability invalidation channel). Already committed: plain listeners are fine.
+ */
+public record RemoteStockChanges(List<StockKey> keys) {
+}
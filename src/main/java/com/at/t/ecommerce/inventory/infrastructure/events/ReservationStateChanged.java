@@ -0,0 +1,13 @@
+package com.at.t.ecommerce.inventory.infrastructure.events;
+
+import java.time.Instant;
+
+import com.at.t.ecommerce.inventory.domain.stock.enums.ReservationStatus;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ReservationId;
+
+/**
+ * In-process (Spring) notification that a ledger row was written by the repository.
+ * Same contract as {@link StockStateChanged}: listen AFTER_COMMIT to act on it.
+ */
+public record ReservationStateChanged(ReservationId reservationId, ReservationStatus status, Instant expiresAt) {
+}
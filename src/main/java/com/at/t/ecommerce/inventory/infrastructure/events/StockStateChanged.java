@@ -0,0 +1,20 @@
+package com.at.t.ecommerce.inventory.infrastructure.events;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * In-process (Spring) notification that a Stock row was written by the repository.
+ * Published inside the writing transaction; listeners that need the data to be
+ * visible (caches, read models) should use {@code @TransactionalEventListener}.
+ * 'version' orders the writes of one Stock (AFTER_COMMIT listeners of concurrent transactions run in
+ * any order): the row version the write started from (JOURNAL: its last sequence), which grows with
+ * every committed write.
+ * 'exact' = false when the ATP is the writer's estimate (a sub-bucket reservation does not read the
+ * Stock row back): fine to notify with, not to keep as the value. Its version is -1.
+ */
+public record StockStateChanged(StockId stockId, StockKey key, Quantity availableToPromise, long version, boolean exact) {
+
+    public StockStateChanged(StockId stockId, StockKey key, Quantity availableToPromise, long version) {
+        this(stockId, key, availableToPromise, version, true);
+    }
+}
@@ -0,0 +1,181 @@
+package com.at.t.ecommerce.inventory.infrastructure.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical Timing Wheel (Varghese & Lauck; the structure behind Kafka's request purgatory).
+ *
+ * Level 0 has 'wheelSize' slots of 'tickMillis' each; every level above covers a whole turn of the
+ * one below per slot. Scheduling, cancelling and expiring an entry are O(1): no sorted queue and
+ * no scan, whatever the number of outstanding entries. An entry only moves down a level when its
+ * slot comes up (at most once per level).
+ *
+ * Deadlines are rounded UP to the tick: an entry may fire up to one tick late, never early.
+ * All public methods are synchronized; the caller drives the clock with {@link #advanceTo}.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final Level root;
+    private final Map<K, Entry<K>> entries = new HashMap<>(); // Cancel by key in O(1)
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("A timing wheel needs a positive tick and at least 2 slots.");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.root = new Level(tickMillis, startMillis);
+    }
+
+    /**
+     * Schedules (or re-schedules) a key.
+     * Returns false when the deadline has already passed: nothing is stored, the caller handles it now.
+     */
+    public synchronized boolean schedule(K key, long deadlineMillis) {
+        remove(key);
+        long rounded = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis) * tickMillis;
+        Entry<K> entry = new Entry<>(key, rounded);
+        if (!root.add(entry)) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Returns true when the key was scheduled (it will not fire any more).
+     */
+    public synchronized boolean cancel(K key) {
+        return remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the clock forward to 'nowMillis' and returns every key whose deadline has passed.
+     */
+    public synchronized List<K> advanceTo(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        if (entries.isEmpty()) {
+            // Nothing to cascade: jump straight there instead of ticking through the gap
+            for (Level level = root; level != null; level = level.overflow) {
+                level.currentTime = Math.max(level.currentTime, nowMillis - Math.floorMod(nowMillis, level.tick));
+            }
+            return expired;
+        }
+        while (root.currentTime + tickMillis <= nowMillis) {
+            long time = root.currentTime + tickMillis;
+            // Every level whose current slot starts at 'time' hands its entries down (or fires them)
+            for (Level level = root; level != null && time >= level.currentTime + level.tick; level = level.overflow) {
+                level.currentTime = time - Math.floorMod(time, level.tick);
+                flush(level.slotFor(level.currentTime), expired);
+            }
+        }
+        return expired;
+    }
+
+    private void flush(Entry<K> slot, List<K> expired) {
+        Entry<K> entry = slot.next;
+        slot.next = slot;
+        slot.prev = slot;
+        while (entry != slot) {
+            Entry<K> next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            if (!root.add(entry)) {
+                entries.remove(entry.key);
+                expired.add(entry.key);
+            }
+            entry = next;
+        }
+    }
+
+    private boolean remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    private final class Level {
+        final long tick;
+        final long interval; // What one full turn of this level covers
+        final Entry<K>[] slots;
+        long currentTime;    // Start of the current slot
+        Level overflow;      // Created on demand
+
+        @SuppressWarnings("unchecked")
+        Level(long tick, long startMillis) {
+            this.tick = tick;
+            this.interval = tick * wheelSize;
+            this.currentTime = startMillis - Math.floorMod(startMillis, tick);
+            this.slots = new Entry[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                slots[i] = Entry.sentinel();
+            }
+        }
+
+        boolean add(Entry<K> entry) {
+            if (entry.deadline < currentTime + tick) {
+                return false; // Due now
+            }
+            if (entry.deadline < currentTime + interval) {
+                slotFor(entry.deadline).append(entry);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level(interval, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        Entry<K> slotFor(long time) {
+            return slots[(int) Math.floorMod(Math.floorDiv(time, tick), (long) wheelSize)];
+        }
+    }
+
+    // Intrusive doubly-linked list node; each slot is a circular list around a sentinel
+    private static final class Entry<K> {
+        final K key;
+        final long deadline;
+        Entry<K> prev;
+        Entry<K> next;
+
+        Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        static <K> Entry<K> sentinel() {
+            Entry<K> sentinel = new Entry<>(null, Long.MIN_VALUE);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void append(Entry<K> entry) {
+            entry.prev = prev;
+            entry.next = this;
+            prev.next = entry;
+            prev = entry;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.at.t.ecommerce.inventory.infrastructure.expiry;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param tick            resolution of the timing wheel (a hold expires at most one tick late)
+ * @param wheelSize       slots per wheel level (level N covers tick * wheelSize^(N+1))
+ * @param rebuildPageSize HELD ledger rows read per query when the wheel is rebuilt on startup
+ * @param catchUpInterval how often overdue HELD rows are looked up in the ledger (holds of an instance that died)
+ * @param catchUpGrace    how overdue a hold must be before the catch-up takes it (its own instance goes first)
+ * @param catchUpPageSize overdue holds expired per catch-up run at most
+ */
+@ConfigurationProperties(prefix = "inventory.reservation.expiry")
+public record ReservationExpiryProperties(
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("64") int wheelSize,
+        @DefaultValue("5000") int rebuildPageSize,
+        @DefaultValue("1m") Duration catchUpInterval,
+        @DefaultValue("30s") Duration catchUpGrace,
+        @DefaultValue("500") int catchUpPageSize) {
+}
@@ -0,0 +1,123 @@
+package com.at.t.ecommerce.inventory.infrastructure.expiry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.at.t.ecommerce.inventory.application.stock.ReadConsistency;
+import com.at.t.ecommerce.inventory.application.stock.StockApplicationService;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Reservation;
+import com.at.t.ecommerce.inventory.domain.stock.enums.ReservationStatus;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.ReservationRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ReservationId;
+import com.at.t.ecommerce.inventory.infrastructure.events.ReservationStateChanged;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gives abandoned holds back, without ever scanning the ledger table for them:
+ * 1. On startup, the HELD rows are paged in (keyset) and put on a hierarchical timing wheel
+ * 2. Committed holds are added as they happen; confirmed / released ones are cancelled
+ * 3. Every tick, the holds that came due are expired one by one (own transaction each)
+ * An instance only learns of the holds that were HELD when it started and of the ones it commits
+ * itself: a hold taken on an instance that then died is on no schedule. So every 'catch-up-interval'
+ * the ledger is asked for the HELD rows more than 'catch-up-grace' past their expiry (indexed, see
+ * V8), which are expired too. Expiring twice is a no-op (the row is no longer HELD).
+ */
+@Component
+@EnableConfigurationProperties(ReservationExpiryProperties.class)
+@ConditionalOnProperty(prefix = "inventory.reservation.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ReservationExpiryScheduler {
+
+    private static final long RETRY_DELAY_MILLIS = 30_000;
+
+    private final ReservationRepository reservations;
+    private final StockApplicationService applicationService;
+    private final ReservationExpiryProperties properties;
+    private final HierarchicalTimingWheel<ReservationId> wheel;
+
+    public ReservationExpiryScheduler(ReservationRepository reservations,
+                                      StockApplicationService applicationService,
+                                      ReservationExpiryProperties properties) {
+        this.reservations = reservations;
+        this.applicationService = applicationService;
+        this.properties = properties;
+        this.wheel = new HierarchicalTimingWheel<>(properties.tick().toMillis(), properties.wheelSize(), System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        List<ReservationId> overdue = new ArrayList<>();
+        int loaded = 0;
+        ReservationId after = null;
+        List<Reservation> page;
+        do {
+            ReservationId from = after;
+            // From the primary: a lagging replica would miss the newest holds, and they would never expire
+            page = ReadConsistency.primary(() -> reservations.findHeld(from, properties.rebuildPageSize()));
+            for (Reservation hold : page) {
+                if (!wheel.schedule(hold.getId(), hold.getExpiresAt().toEpochMilli())) {
+                    overdue.add(hold.getId()); // Expired while we were down
+                }
+            }
+            loaded += page.size();
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (page.size() == properties.rebuildPageSize());
+
+        log.info("Expiry schedule rebuilt with {} holds in {} ms ({} already overdue)",
+                loaded, System.currentTimeMillis() - started, overdue.size());
+        overdue.forEach(this::expire);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationStateChanged(ReservationStateChanged event) {
+        if (event.status() != ReservationStatus.HELD) {
+            wheel.cancel(event.reservationId());
+        } else if (!wheel.schedule(event.reservationId(), event.expiresAt().toEpochMilli())) {
+            expire(event.reservationId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry.tick:PT1S}")
+    public void tick() {
+        List<ReservationId> due = wheel.advanceTo(System.currentTimeMillis());
+        if (!due.isEmpty()) {
+            log.debug("{} holds came due ({} still scheduled)", due.size(), wheel.size());
+            due.forEach(this::expire);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry.catch-up-interval:PT1M}",
+            initialDelayString = "${inventory.reservation.expiry.catch-up-interval:PT1M}")
+    public void catchUp() {
+        Instant cutoff = Instant.now().minus(properties.catchUpGrace());
+        // A lagging replica only delays the catch-up: each hold is checked again under its row lock
+        List<Reservation> overdue = reservations.findHeldExpiredBy(cutoff, properties.catchUpPageSize());
+        if (!overdue.isEmpty()) {
+            // The rest (if the page was full) comes with the next run
+            log.info("Expiry catch-up: {} holds overdue by more than {} and on no schedule", overdue.size(), properties.catchUpGrace());
+            overdue.forEach(hold -> expire(hold.getId()));
+        }
+    }
+
+    // One failure (e.g. a lock timeout) must not stop the others: that hold is simply tried again later
+    private void expire(ReservationId id) {
+        try {
+            applicationService.expireReservation(id);
+        } catch (RuntimeException e) {
+            log.warn("Could not expire reservation {}, retrying in {} ms: {}", id.value(), RETRY_DELAY_MILLIS, e.getMessage());
+            wheel.schedule(id, System.currentTimeMillis() + RETRY_DELAY_MILLIS);
+        }
+    }
+}
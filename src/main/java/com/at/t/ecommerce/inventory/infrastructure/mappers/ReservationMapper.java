@@ -0,0 +1,55 @@
+package com.at.t.ecommerce.inventory.infrastructure.mappers;
+
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Reservation;
+import com.at.t.ecommerce.inventory.domain.stock.enums.ReservationStatus;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.ReservationJpaEntity;
+
+@Component
+public class ReservationMapper {
+
+    /**
+     * DB -> Domain
+     */
+    public Reservation toDomain(ReservationJpaEntity entity) {
+        if (entity == null) return null;
+
+        return Reservation.reconstitute(
+            ReservationId.of(entity.getId().toString()),
+            StockId.of(entity.getStockId()),
+            new ProductId(entity.getProductId()),
+            new WarehouseId(entity.getWarehouseId()),
+            Quantity.of(entity.getQuantity(), UnitOfMeasure.valueOf(entity.getUnitOfMeasure())),
+            entity.getOrderId(),
+            ReservationStatus.valueOf(entity.getStatus()),
+            entity.getCreatedAt(),
+            entity.getExpiresAt()
+        );
+    }
+
+    /**
+     * Domain -> DB ('fresh' = INSERT without looking the row up first)
+     */
+    public ReservationJpaEntity toEntity(Reservation domain, boolean fresh) {
+        if (domain == null) return null;
+
+        ReservationJpaEntity entity = new ReservationJpaEntity();
+        entity.setId(UUID.fromString(domain.getId().value()));
+        entity.setStockId(domain.getStockId().value());
+        entity.setProductId(domain.getProductId().value());
+        entity.setWarehouseId(domain.getWarehouseId().value());
+        entity.setQuantity(domain.getQuantity().value());
+        entity.setUnitOfMeasure(domain.getQuantity().unit().name());
+        entity.setOrderId(domain.getOrderId());
+        entity.setStatus(domain.getStatus().name());
+        entity.setCreatedAt(domain.getCreatedAt());
+        entity.setExpiresAt(domain.getExpiresAt());
+        entity.setFresh(fresh);
+        return entity;
+    }
+}
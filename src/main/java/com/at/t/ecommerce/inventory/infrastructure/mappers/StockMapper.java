@@ -15,7 +15,26 @@ public class StockMapper {
      * Taking the flat rows and building the Rich Object.
      */
     public Stock toDomain(StockJpaEntity entity) {
-        if (entity == null) return null;
+        return toDomain(entity, 0L);
+    }
+
+    /**
+     * DB -> Domain for a split Stock: 'leased' is what its sub-bucket rows still hold.
+     * The row's qty_reserved includes it, the Domain keeps it apart.
+     */
+    public Stock toDomain(StockJpaEntity entity, long leased) {
+        return entity == null ? null : toDomain(entity, leased, entity.getVersion());
+    }
+
+    /**
+     * DB -> Domain for the JOURNAL persistence mode: the row is a snapshot, and the version of the
+     * Stock is the journal position it includes (the events after it are replayed on top).
+     */
+    public Stock toSnapshot(StockJpaEntity entity) {
+        return entity == null ? null : toDomain(entity, 0L, entity.getJournalSeq());
+    }
+
+    private Stock toDomain(StockJpaEntity entity, long leased, Long version) {
 
         UnitOfMeasure unit = UnitOfMeasure.valueOf(entity.getUnitOfMeasure());
 
@@ -28,11 +47,12 @@ public class StockMapper {
             
             // Quantities (Wrap primitives back into Value Objects)
             Quantity.of(entity.getQuantityOnHand(), unit),
-            Quantity.of(entity.getQuantityReserved(), unit),
+            Quantity.of(entity.getQuantityReserved() - leased, unit),
             Quantity.of(entity.getQuantityAllocated(), unit),
             Quantity.of(entity.getQuantityInTransit(), unit),
             Quantity.of(entity.getSafetyStock(), unit),
             Quantity.of(entity.getDiscrepancyGap(), unit),
+            Quantity.of(leased, unit),
 
             // Policies
             Quantity.of(entity.getLowStockThreshold(), unit),
@@ -44,7 +64,8 @@ public class StockMapper {
             
             entity.getExpiryDate(),
             entity.getLastUpdated(),
-            entity.getVersion()
+            version,
+            entity.isLowStockSignalled()
         );
     }
 
@@ -66,7 +87,7 @@ public class StockMapper {
 
         // Quantities (Extract raw long values)
         entity.setQuantityOnHand(domain.getQuantityOnHand().value());
-        entity.setQuantityReserved(domain.getQuantityReserved().value());
+        entity.setQuantityReserved(domain.getQuantityReserved().value() + domain.getQuantityLeased().value());
         entity.setQuantityAllocated(domain.getQuantityAllocated().value());
         entity.setQuantityInTransit(domain.getQuantityInTransit().value());
         entity.setSafetyStock(domain.getSafetyStock().value());
@@ -78,6 +99,7 @@ public class StockMapper {
         entity.setVelocityCode(domain.getVelocityCode().name());
         entity.setRotationPolicy(domain.getRotationPolicy().name());
         entity.setLifecycleStatus(domain.getLifecycleStatus().name());
+        entity.setLowStockSignalled(domain.isLowStockSignalled());
         
         entity.setExpiryDate(domain.getExpiryDate());
         entity.setLastUpdated(java.time.Instant.now()); // Always refresh timestamp on save
@@ -0,0 +1,12 @@
+package com.at.t.ecommerce.inventory.infrastructure.orders;
+
+import java.util.List;
+
+/**
+ * An OrderCreated event as the Order Service publishes it (JSON, keyed by order ID).
+ */
+public record OrderCreatedMessage(String orderId, List<Line> lines) {
+
+    public record Line(String productId, String warehouseId, long quantity, String unitOfMeasure) {
+    }
+}
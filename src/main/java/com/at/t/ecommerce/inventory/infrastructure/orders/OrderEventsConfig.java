@@ -0,0 +1,96 @@
+package com.at.t.ecommerce.inventory.infrastructure.orders;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.backoff.FixedBackOff;
+
+@Configuration
+@EnableConfigurationProperties(OrderEventsProperties.class)
+@ConditionalOnProperty(prefix = "inventory.order-events", name = "enabled", havingValue = "true")
+public class OrderEventsConfig {
+
+    /**
+     * Batch listener: one poll = one List = one reservation transaction.
+     * Offsets are committed by the container (AckMode.BATCH) only after the listener returned, i.e.
+     * after the transaction committed and the results were acknowledged. Records that cannot be parsed
+     * are NOT a reason to throw, the listener logs and skips them. A failure is pinned on one record
+     * (BatchListenerFailedException): the records before it are committed, then
+     * - database or broker unavailable: that record is consumed again every 'retry-backoff', without
+     *   limit (any other record would fail the same way; the feed must not skip orders)
+     * - anything else: 'retry-attempts' more tries, then the record goes to 'dead-letter-topic' and
+     *   the partition moves on
+     */
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<String, String> orderEventsListenerFactory(KafkaProperties kafkaProperties,
+                                                                                      OrderEventsProperties orderEvents,
+                                                                                      KafkaTemplate<String, String> orderResultsKafkaTemplate) {
+        Map<String, Object> config = kafkaProperties.buildConsumerProperties(null);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, orderEvents.groupId());
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, orderEvents.maxPollRecords());
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false); // The container commits, after the listener
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(AckMode.BATCH);
+        // Partition -1: the producer picks one, the dead-letter topic may have fewer partitions
+        DeadLetterPublishingRecoverer deadLetters = new DeadLetterPublishingRecoverer(orderResultsKafkaTemplate,
+                (record, e) -> new TopicPartition(orderEvents.deadLetterTopic(), -1));
+        long backoff = orderEvents.retryBackoff().toMillis();
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetters, new FixedBackOff(backoff, orderEvents.retryAttempts()));
+        errorHandler.setBackOffFunction((record, e) -> retryForever(e) ? new FixedBackOff(backoff, FixedBackOff.UNLIMITED_ATTEMPTS) : null);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Producer for the per-line results: JSON strings (the default JsonSerializer would quote them again).
+     */
+    @Bean
+    KafkaTemplate<String, String> orderResultsKafkaTemplate(KafkaProperties kafkaProperties, OrderEventsProperties orderEvents) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(null);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, (int) orderEvents.sendTimeout().toMillis()); // Broker down => fail the batch, don't hang
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+    }
+
+    // Failures of what every record needs, not of the record itself (null back-off = the bounded default)
+    static boolean retryForever(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            if (e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                    || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException
+                    || e instanceof OrderEventsListener.ResultsNotPublishedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
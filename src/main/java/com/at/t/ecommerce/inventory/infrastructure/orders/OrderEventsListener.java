@@ -0,0 +1,203 @@
+package com.at.t.ecommerce.inventory.infrastructure.orders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.application.stock.OrderLine;
+import com.at.t.ecommerce.inventory.application.stock.ReservationLine;
+import com.at.t.ecommerce.inventory.application.stock.ReservationOutcome;
+import com.at.t.ecommerce.inventory.application.stock.StockApplicationService;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ProductId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.Quantity;
+import com.at.t.ecommerce.inventory.domain.stock.vo.WarehouseId;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Order-event feed -> reservations, one poll at a time:
+ * 1. Parse every OrderCreated of the poll (unreadable records are logged and skipped)
+ * 2. Reserve ALL their lines in ONE transaction, grouped per Stock (see StockApplicationService#reserveOrderLines):
+ *    a line that cannot be reserved is rejected on its own, the rest of the batch goes through.
+ *    If that transaction fails, the poll is reserved again one record (one order) per transaction, so
+ *    the failure is pinned on one record: the records before it are answered, it is reported to the
+ *    container by index (BatchListenerFailedException), and only it is retried / dead-lettered
+ * 3. Publish one result per line (keyed by order ID) and wait for the acks
+ * The offsets are committed once this returns (see OrderEventsConfig). Records consumed again get
+ * their holds back from the ledger: delivery of the results is at-least-once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.order-events", name = "enabled", havingValue = "true")
+@Slf4j
+public class OrderEventsListener {
+
+    private final StockApplicationService applicationService;
+    private final KafkaTemplate<String, String> orderResultsKafkaTemplate;
+    private final OrderEventsProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public OrderEventsListener(StockApplicationService applicationService,
+                               KafkaTemplate<String, String> orderResultsKafkaTemplate,
+                               OrderEventsProperties properties,
+                               ObjectMapper objectMapper) {
+        this.applicationService = applicationService;
+        this.orderResultsKafkaTemplate = orderResultsKafkaTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = "${inventory.order-events.topic:orders.order-created}",
+            containerFactory = "orderEventsListenerFactory")
+    public void onOrders(List<ConsumerRecord<String, String>> records) {
+        // 1. Parse: valid lines are reserved, invalid ones answered straight away
+        List<List<OrderLine>> linesPerRecord = new ArrayList<>(records.size());
+        List<List<OrderLineResult>> resultsPerRecord = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            List<OrderLine> lines = new ArrayList<>();
+            List<OrderLineResult> results = new ArrayList<>();
+            OrderCreatedMessage order = parse(record);
+            for (OrderCreatedMessage.Line line : order == null ? List.<OrderCreatedMessage.Line>of() : order.lines()) {
+                try {
+                    lines.add(new OrderLine(order.orderId(), new ReservationLine(new ProductId(line.productId()),
+                            new WarehouseId(line.warehouseId()),
+                            Quantity.of(line.quantity(), UnitOfMeasure.valueOf(line.unitOfMeasure())))));
+                } catch (RuntimeException e) {
+                    results.add(new OrderLineResult(order.orderId(), line.productId(), line.warehouseId(), line.quantity(),
+                            false, null, null, "INVALID_ARGUMENT", String.valueOf(e.getMessage())));
+                }
+            }
+            linesPerRecord.add(lines);
+            resultsPerRecord.add(results);
+        }
+
+        // 2. One transaction for the whole poll (throws => nothing committed), else one per record
+        try {
+            List<OrderLine> lines = linesPerRecord.stream().flatMap(List::stream).toList();
+            List<ReservationOutcome> outcomes = applicationService.reserveOrderLines(lines);
+            int next = 0;
+            for (int i = 0; i < records.size(); i++) {
+                for (OrderLine line : linesPerRecord.get(i)) {
+                    resultsPerRecord.get(i).add(toResult(line.orderId(), outcomes.get(next++)));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order events: the transaction of {} records failed ({}), reserving them one record at a time",
+                    records.size(), e.getMessage());
+            reserveRecordByRecord(records, linesPerRecord, resultsPerRecord);
+        }
+
+        // 3. Results out before the offsets are committed
+        publish(resultsPerRecord, records.size());
+        log.debug("Order events: {} records, {} reserved", records.size(),
+                resultsPerRecord.stream().flatMap(List::stream).filter(OrderLineResult::success).count());
+    }
+
+    // The first record that fails stops the poll: the ones before it are answered (their offsets get
+    // committed), it is retried on its own, then dead-lettered if it keeps failing (see OrderEventsConfig)
+    private void reserveRecordByRecord(List<ConsumerRecord<String, String>> records, List<List<OrderLine>> linesPerRecord,
+                                       List<List<OrderLineResult>> resultsPerRecord) {
+        for (int i = 0; i < records.size(); i++) {
+            List<OrderLine> lines = linesPerRecord.get(i);
+            try {
+                List<ReservationOutcome> outcomes = applicationService.reserveOrderLines(lines);
+                for (int j = 0; j < lines.size(); j++) {
+                    resultsPerRecord.get(i).add(toResult(lines.get(j).orderId(), outcomes.get(j)));
+                }
+            } catch (RuntimeException e) {
+                publish(resultsPerRecord, i);
+                throw new BatchListenerFailedException("Order event " + records.get(i).topic() + "-"
+                        + records.get(i).partition() + "@" + records.get(i).offset() + " cannot be reserved", e, i);
+            }
+        }
+    }
+
+    private OrderCreatedMessage parse(ConsumerRecord<String, String> record) {
+        try {
+            OrderCreatedMessage order = record.value() == null ? null : objectMapper.readValue(record.value(), OrderCreatedMessage.class);
+            if (order == null || order.orderId() == null || order.orderId().isBlank() || order.lines() == null) {
+                log.warn("Order event {}-{}@{} has no order ID or lines: skipped", record.topic(), record.partition(), record.offset());
+                return null;
+            }
+            return order;
+        } catch (JsonProcessingException e) {
+            // Redelivering it would never help: skip it rather than block the partition
+            log.error("Order event {}-{}@{} is not an OrderCreated: skipped", record.topic(), record.partition(), record.offset(), e);
+            return null;
+        }
+    }
+
+    // Results of the first 'count' records; not acknowledged => the poll is consumed again from its first record
+    private void publish(List<List<OrderLineResult>> resultsPerRecord, int count) {
+        List<CompletableFuture<SendResult<String, String>>> acks = new ArrayList<>();
+        for (List<OrderLineResult> results : resultsPerRecord.subList(0, count)) {
+            for (OrderLineResult result : results) {
+                acks.add(orderResultsKafkaTemplate.send(properties.resultTopic(), result.orderId(), toJson(result)));
+            }
+        }
+        long deadline = System.nanoTime() + properties.sendTimeout().toNanos();
+        try {
+            for (CompletableFuture<SendResult<String, String>> ack : acks) {
+                ack.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchListenerFailedException("Interrupted while publishing order reservation results",
+                    new ResultsNotPublishedException(e), 0);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new BatchListenerFailedException("Order reservation results not acknowledged: the batch will be consumed again",
+                    new ResultsNotPublishedException(e), 0);
+        }
+    }
+
+    private String toJson(OrderLineResult result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the result of order " + result.orderId(), e);
+        }
+    }
+
+    private static OrderLineResult toResult(String orderId, ReservationOutcome outcome) {
+        ReservationLine line = outcome.line();
+        if (outcome.isSuccess()) {
+            return new OrderLineResult(orderId, line.productId().value(), line.warehouseId().value(), line.amount().value(),
+                    true, outcome.reserved().reservationId().value(), outcome.reserved().availableToPromise().value(), null, null);
+        }
+        return new OrderLineResult(orderId, line.productId().value(), line.warehouseId().value(), line.amount().value(),
+                false, null, null, errorCode(outcome.failure()), String.valueOf(outcome.failure().getMessage()));
+    }
+
+    // Same codes as the gRPC side (per-line errors of the reservation streams)
+    private static String errorCode(RuntimeException e) {
+        if (e instanceof StockNotFoundException) return "NOT_FOUND";
+        if (e instanceof InsufficientStockException) return "FAILED_PRECONDITION";
+        if (e instanceof IllegalArgumentException) return "INVALID_ARGUMENT";
+        return "INTERNAL";
+    }
+
+    /**
+     * The broker, not the records, failed: retried without limit (see OrderEventsConfig#retryForever).
+     */
+    static final class ResultsNotPublishedException extends IllegalStateException {
+
+        ResultsNotPublishedException(Throwable cause) {
+            super("Order reservation results not acknowledged", cause);
+        }
+    }
+}
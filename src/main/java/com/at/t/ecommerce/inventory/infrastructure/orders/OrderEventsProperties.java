@@ -0,0 +1,30 @@
+package com.at.t.ecommerce.inventory.infrastructure.orders;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled         consume the order-event feed (off: orders reserve through gRPC only)
+ * @param topic           Kafka topic the Order Service publishes OrderCreated events on
+ * @param resultTopic     Kafka topic receiving one result per order line (reserved or why not)
+ * @param groupId         consumer group: the partitions are shared between the pods
+ * @param maxPollRecords  events per poll = per reservation transaction
+ * @param sendTimeout     max wait for the broker acks of one batch of results
+ * @param retryBackoff    pause before a failed record is consumed again (database / broker down: without limit)
+ * @param retryAttempts   retries of a record failing for any other reason before it is dead-lettered
+ * @param deadLetterTopic Kafka topic receiving the records that kept failing (original key, value and headers)
+ */
+@ConfigurationProperties(prefix = "inventory.order-events")
+public record OrderEventsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("orders.order-created") String topic,
+        @DefaultValue("inventory.order-reservations") String resultTopic,
+        @DefaultValue("inventory-service") String groupId,
+        @DefaultValue("500") int maxPollRecords,
+        @DefaultValue("10s") Duration sendTimeout,
+        @DefaultValue("5s") Duration retryBackoff,
+        @DefaultValue("3") int retryAttempts,
+        @DefaultValue("orders.order-created.DLT") String deadLetterTopic) {
+}
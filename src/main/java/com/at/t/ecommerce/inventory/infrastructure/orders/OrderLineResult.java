@@ -0,0 +1,11 @@
+package com.at.t.ecommerce.inventory.infrastructure.orders;
+
+/**
+ * What became of ONE order line, published on the result topic (JSON, keyed by order ID).
+ * On success 'reservationId' confirms / releases the hold; otherwise 'errorCode' says why
+ * (NOT_FOUND, FAILED_PRECONDITION, INVALID_ARGUMENT, INTERNAL: the gRPC status names).
+ */
+public record OrderLineResult(String orderId, String productId, String warehouseId, long quantity,
+                              boolean success, String reservationId, Long availableToPromise,
+                              String errorCode, String message) {
+}
@@ -0,0 +1,37 @@
+package com.at.t.ecommerce.inventory.infrastructure.outbox;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "inventory.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+
+    /**
+     * Dedicated producer for the relay: payloads are already JSON strings (the default
+     * JsonSerializer would quote them again), and the relay wants big compressed batches.
+     */
+    @Bean
+    KafkaTemplate<String, String> outboxKafkaTemplate(KafkaProperties kafkaProperties, OutboxProperties outbox) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(null);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, outbox.compression());
+        config.put(ProducerConfig.LINGER_MS_CONFIG, (int) outbox.linger().toMillis());
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Retries never reorder/duplicate within a partition
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, (int) outbox.sendTimeout().toMillis()); // Broker down => fail the batch, don't hang
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+    }
+}
@@ -0,0 +1,24 @@
+package com.at.t.ecommerce.inventory.infrastructure.outbox;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param topic        Kafka topic receiving the Stock Domain Events
+ * @param batchSize    outbox rows locked + published per relay transaction
+ * @param sendTimeout  max wait for the broker acks of one batch
+ * @param compression  producer compression (batches compress far better than single events)
+ * @param linger       producer linger: how long the producer waits to fill a batch
+ * @param retention    how long sent events are kept (for replays/audits) before the purge deletes them
+ */
+@ConfigurationProperties(prefix = "inventory.outbox")
+public record OutboxProperties(
+        @DefaultValue("inventory.stock-events") String topic,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("10s") Duration sendTimeout,
+        @DefaultValue("lz4") String compression,
+        @DefaultValue("20ms") Duration linger,
+        @DefaultValue("7d") Duration retention) {
+}
@@ -0,0 +1,144 @@
+package com.at.t.ecommerce.inventory.infrastructure.outbox;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockOutboxJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockOutboxRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background relay: Outbox table -> Kafka. Never on the reservation commit path.
+ * Per batch (one transaction):
+ * 1. Lock up to batchSize unsent rows (SKIP LOCKED: parallel relays don't collide), and keep a row only
+ *    if every earlier unsent event of its Stock is in the batch too: an event whose predecessor another
+ *    relay holds waits for a later run, so a Stock's events are always published in order
+ * 2. Send them ALL asynchronously (the producer batches + compresses them)
+ * 3. Wait for the acks, then mark the acknowledged rows as sent in ONE UPDATE
+ * Delivery is at-least-once: a crash between 2 and 3 re-sends the batch.
+ * Sent rows are purged once older than the retention.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StockOutboxRelay {
+
+    static final String EVENT_TYPE_HEADER = "event-type";
+
+    private final SpringDataStockOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, String> outboxKafkaTemplate;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockOutboxRelay(SpringDataStockOutboxRepository outboxRepository,
+                            KafkaTemplate<String, String> outboxKafkaTemplate,
+                            OutboxProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval:PT0.25S}")
+    public void relay() {
+        // Drain the backlog: keep going while batches come back full AND fully acknowledged
+        Integer sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch());
+        } while (sent != null && sent == properties.batchSize());
+    }
+
+    // Sent events past the retention are deleted, batchSize rows per transaction
+    @Scheduled(fixedDelayString = "${inventory.outbox.purge-interval:PT1H}")
+    public void purge() {
+        Instant before = Instant.now().minus(properties.retention());
+        int deleted = 0;
+        Integer chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(before, properties.batchSize()));
+            deleted += chunk == null ? 0 : chunk;
+        } while (chunk != null && chunk == properties.batchSize());
+        if (deleted > 0) {
+            log.info("Outbox purge: {} events sent before {} deleted", deleted, before);
+        }
+    }
+
+    private int relayBatch() {
+        // 1. Lock the next batch, minus the events that would overtake one held by another relay
+        List<StockOutboxJpaEntity> locked = outboxRepository.lockNextUnsent(properties.batchSize());
+        if (locked.isEmpty()) return 0;
+        List<StockOutboxJpaEntity> rows = inOrder(locked);
+        if (rows.isEmpty()) return 0;
+
+        // 2. Fire all sends without waiting (keyed by StockId => per-Stock ordering)
+        List<CompletableFuture<SendResult<String, String>>> acks = new ArrayList<>(rows.size());
+        for (StockOutboxJpaEntity row : rows) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(properties.topic(), row.getAggregateId(), row.getPayload());
+            record.headers().add(EVENT_TYPE_HEADER, row.getEventType().getBytes(StandardCharsets.UTF_8));
+            acks.add(outboxKafkaTemplate.send(record));
+        }
+
+        // 3. Collect the acks; stop at the first failure so later events of the same Stock are not overtaken
+        long deadline = System.nanoTime() + properties.sendTimeout().toNanos();
+        List<Long> sentIds = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                acks.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(rows.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Outbox relay: event {} not acknowledged, will retry: {}", rows.get(i).getId(), e.getMessage());
+                break;
+            }
+        }
+
+        // 4. Bulk mark-as-sent
+        if (!sentIds.isEmpty()) {
+            outboxRepository.markSent(sentIds, Instant.now());
+            log.debug("Outbox relay: {} events published", sentIds.size());
+        }
+        return sentIds.size(); // Held-back rows make it short of a full batch: the next poll takes them
+    }
+
+    // The locked rows whose Stock has no earlier unsent event outside them (still in id order)
+    private List<StockOutboxJpaEntity> inOrder(List<StockOutboxJpaEntity> locked) {
+        Set<Long> lockedIds = locked.stream().map(StockOutboxJpaEntity::getId).collect(Collectors.toSet());
+        Set<String> aggregateIds = locked.stream().map(StockOutboxJpaEntity::getAggregateId).collect(Collectors.toSet());
+        long maxId = locked.stream().mapToLong(StockOutboxJpaEntity::getId).max().orElseThrow();
+
+        // Walk each Stock's unsent events in id order: everything from its first gap on is held back
+        Set<String> blocked = new HashSet<>();
+        Set<Long> publishable = new HashSet<>();
+        for (Object[] unsent : outboxRepository.findUnsent(aggregateIds, maxId)) {
+            Long id = (Long) unsent[0];
+            String aggregateId = (String) unsent[1];
+            if (blocked.contains(aggregateId)) continue;
+            if (lockedIds.contains(id)) publishable.add(id);
+            else blocked.add(aggregateId);
+        }
+        if (!blocked.isEmpty()) {
+            log.debug("Outbox relay: events of {} Stocks held back behind another relay", blocked.size());
+        }
+        return locked.stream().filter(row -> publishable.contains(row.getId())).toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.at.t.ecommerce.inventory.infrastructure.outbox;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockOutboxJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes every dispatched Stock Domain Event into the outbox table.
+ * A plain (synchronous) listener: it runs inside the repository's transaction,
+ * so the event is committed - or rolled back - together with the Stock row.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockOutboxWriter {
+
+    private final SpringDataStockOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStockEvent(StockEvent event) {
+        StockOutboxJpaEntity row = new StockOutboxJpaEntity();
+        row.setAggregateId(event.stockId().value());
+        row.setEventType(event.getClass().getSimpleName());
+        row.setPayload(toJson(event));
+        row.setOccurredOn(event.occurredOn());
+        outboxRepository.save(row);
+    }
+
+    private String toJson(StockEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
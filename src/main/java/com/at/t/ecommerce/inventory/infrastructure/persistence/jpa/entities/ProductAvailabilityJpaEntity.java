@@ -0,0 +1,48 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Read model: total ATP across every Warehouse, spread over a few shard rows per Product (their sum)
+@Entity
+@Table(name = "product_availability")
+@IdClass(ProductAvailabilityJpaEntity.Key.class)
+@Getter
+@Setter
+public class ProductAvailabilityJpaEntity {
+
+    @Id
+    @Column(name = "product_id")
+    private String productId;
+
+    @Id
+    @Column(name = "shard")
+    private short shard; // 0 holds the seeded total, the others only deltas added since
+
+    @Column(name = "unit_of_measure", nullable = false)
+    private String unitOfMeasure; // A Product is stocked in the same unit everywhere
+
+    @Column(name = "qty_available", nullable = false)
+    private long available;
+
+    @Column(name = "last_updated")
+    private Instant lastUpdated;
+
+    // No @Version: only changed by relative UPDATEs (available = available + delta)
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String productId;
+        private short shard;
+    }
+}
@@ -0,0 +1,64 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "stock_reservation", uniqueConstraints = @UniqueConstraint(
+        name = "uq_stock_reservation_order_line", columnNames = {"order_id", "product_id", "warehouse_id"}))
+@Getter
+@Setter
+public class ReservationJpaEntity implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "id")
+    private UUID id; // Assigned by the Domain (ReservationId)
+
+    @Column(name = "stock_id", nullable = false)
+    private String stockId;
+
+    @Column(name = "product_id", nullable = false)
+    private String productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private String warehouseId;
+
+    @Column(name = "qty", nullable = false)
+    private long quantity;
+
+    @Column(name = "unit_of_measure", nullable = false)
+    private String unitOfMeasure;
+
+    @Column(name = "order_id")
+    private String orderId;
+
+    @Column(name = "status", nullable = false)
+    private String status; // "HELD", "CONFIRMED", "RELEASED", "EXPIRED"
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // The ID is assigned, not generated: without this, save() would SELECT before every INSERT
+    @Transient
+    private boolean fresh;
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.fresh = false;
+    }
+}
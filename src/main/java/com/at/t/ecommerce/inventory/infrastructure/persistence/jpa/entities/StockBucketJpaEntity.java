@@ -0,0 +1,40 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "stock_bucket")
+@IdClass(StockBucketJpaEntity.Key.class)
+@Getter
+@Setter
+public class StockBucketJpaEntity {
+
+    @Id
+    @Column(name = "stock_id")
+    private String stockId;
+
+    @Id
+    @Column(name = "bucket_no")
+    private int bucketNo;
+
+    @Column(name = "qty_remaining", nullable = false)
+    private long remaining; // Leased ATP not reserved yet
+
+    // No @Version: written either by a conditional UPDATE or under the Stock row's lock
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String stockId;
+        private int bucketNo;
+    }
+}
@@ -0,0 +1,51 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One Stock Domain Event of the JOURNAL persistence mode (append-only, see StockJournal)
+@Entity
+@Table(name = "stock_journal")
+@IdClass(StockJournalJpaEntity.Key.class)
+@Getter
+@Setter
+public class StockJournalJpaEntity {
+
+    @Id
+    @Column(name = "stock_id")
+    private String stockId;
+
+    @Id
+    @Column(name = "seq")
+    private long seq; // 1, 2, 3... per Stock
+
+    @Column(name = "event_type", nullable = false, length = 40)
+    private String eventType; // "StockReserved", "StockReceived"...
+
+    @Column(name = "quantity", nullable = false)
+    private long quantity; // In the Stock's unit (StockLevelLow: the level it fell to)
+
+    @Column(name = "atp_delta", nullable = false)
+    private long atpDelta;
+
+    @Column(name = "occurred_on", nullable = false)
+    private Instant occurredOn;
+
+    // No @Version: rows are inserted once, never updated
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String stockId;
+        private long seq;
+    }
+}
@@ -7,7 +7,9 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
-@Table(name = "stock_inventory") // Custom DB table name
+@Table(name = "stock_inventory", // Custom DB table name
+        // One Stock per Product and Warehouse (see V9 for tables created before this constraint)
+        uniqueConstraints = @UniqueConstraint(name = "uq_stock_inventory_product_warehouse", columnNames = {"product_id", "warehouse_id"}))
 @Getter
 @Setter // Lombok is fine here in Infrastructure (Data structure only)
 public class StockJpaEntity {
@@ -49,6 +51,11 @@ public class StockJpaEntity {
     @Column(name = "qty_discrepancy")
     private long discrepancyGap;
 
+    // HOT-SKU SPLIT: number of stock_bucket rows holding leased ATP (0 = not split).
+    // Only written by StockRepositoryImpl.saveBuckets, never by a regular save.
+    @Column(name = "split_buckets", insertable = false, updatable = false, columnDefinition = "integer default 0 not null")
+    private int splitBuckets;
+
     // --- POLICIES ---
     @Column(name = "threshold_low")
     private long lowStockThreshold;
@@ -62,6 +69,10 @@ public class StockJpaEntity {
     @Column(name = "rotation_policy")
     private String rotationPolicy; // "FIFO", "LIFO"
 
+    // StockLevelLow already raised for the current low-stock crossing (re-armed once ATP recovers)
+    @Column(name = "low_stock_signalled", columnDefinition = "boolean default false not null")
+    private boolean lowStockSignalled;
+
     // --- AUDIT & CONCURRENCY ---
     @Column(name = "status")
     private String lifecycleStatus; // "ACTIVE", "DISCONTINUED"
@@ -75,6 +86,10 @@ public class StockJpaEntity {
     @Column(name = "last_audit_date")
     private LocalDate lastAuditDate;
 
+    // JOURNAL persistence mode: this row is a snapshot including the stock_journal events up to here
+    @Column(name = "journal_seq", columnDefinition = "bigint default 0 not null")
+    private long journalSeq;
+
     // OPTIMISTIC LOCKING: Crucial for high-concurrency inventory
     @Version
     private Long version; 
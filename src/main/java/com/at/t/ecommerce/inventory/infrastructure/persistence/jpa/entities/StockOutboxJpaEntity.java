@@ -0,0 +1,35 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "stock_outbox")
+@Getter
+@Setter
+public class StockOutboxJpaEntity {
+
+    // SEQUENCE (not IDENTITY) so Hibernate can batch the inserts. One value per row (no pooling):
+    // a Stock's events are written under its row lock, so their ids follow their commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_outbox_seq")
+    @SequenceGenerator(name = "stock_outbox_seq", sequenceName = "stock_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId; // StockId: also the Kafka key (keeps per-Stock ordering)
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType; // "StockReserved", "StockReleased"...
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload; // The event as JSON
+
+    @Column(name = "occurred_on", nullable = false)
+    private Instant occurredOn;
+
+    @Column(name = "sent_at")
+    private Instant sentAt; // NULL until the relay got the broker's ack
+}
@@ -0,0 +1,160 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.at.t.ecommerce.inventory.domain.stock.vo.ProductId;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps product_availability (total ATP per Product) in step with the Stock writes.
+ * 1. Each write reports its ATP delta; the deltas of one transaction are summed per Product
+ * 2. They are applied just before the commit, in Product ID order and as ONE JDBC batch: the
+ *    aggregate rows are locked for the commit only, two transactions never lock the same rows in
+ *    opposite orders, and a bulk write (e.g. a receiving chunk) does not pay one round trip per Product
+ * 3. A Product's total is spread over 'product-availability-shards' rows and each transaction adds to
+ *    one of them, picked at random: writers of a hot Product (several Warehouses, sub-buckets, group
+ *    commits) rarely wait on each other's row lock. Reads add the shards up.
+ * 4. A Product without a row yet is seeded from its Stock rows into shard 0 (the only GROUP BY, once). Two
+ *    transactions may both find no row: the loser's INSERT fails on the primary key, is rolled back
+ *    to a savepoint (not the whole transaction), and its delta goes into its own shard instead
+ */
+@Component
+@EnableConfigurationProperties(StockPersistenceProperties.class)
+@RequiredArgsConstructor
+public class ProductAvailabilityWriter {
+
+    // Relative update: concurrent writers of the same Product just queue on the row, nobody reads it first
+    private static final String ADD = "UPDATE product_availability SET qty_available = qty_available + ?, last_updated = CURRENT_TIMESTAMP WHERE product_id = ? AND shard = ?";
+
+    // A shard's first delta, in the unit of the seeded total
+    private static final String ADD_SHARD = """
+            INSERT INTO product_availability (product_id, shard, unit_of_measure, qty_available, last_updated)
+            SELECT product_id, ?, MIN(unit_of_measure), ?, CURRENT_TIMESTAMP
+              FROM product_availability
+             WHERE product_id = ?
+             GROUP BY product_id
+            """;
+
+    // The full sum of a Product, as of the committed Stock rows plus this transaction's own (flushed) changes.
+    // JOURNAL mode: a Stock row is a snapshot, the events after it add their ATP deltas.
+    private static final String SEED = """
+            INSERT INTO product_availability (product_id, shard, unit_of_measure, qty_available, last_updated)
+            SELECT s.product_id, 0, MIN(s.unit_of_measure),
+                   SUM(s.qty_on_hand + s.qty_in_transit - s.qty_reserved - s.qty_safety_stock)
+                   + COALESCE((SELECT SUM(b.qty_remaining) FROM stock_bucket b
+                                 JOIN stock_inventory i ON i.stock_id = b.stock_id
+                                WHERE i.product_id = ?), 0)
+                   + COALESCE((SELECT SUM(j.atp_delta) FROM stock_journal j
+                                 JOIN stock_inventory i ON i.stock_id = j.stock_id
+                                WHERE i.product_id = ? AND j.seq > i.journal_seq), 0),
+                   CURRENT_TIMESTAMP
+              FROM stock_inventory s
+             WHERE s.product_id = ?
+             GROUP BY s.product_id
+            """;
+    private static final String UNIQUE_VIOLATION = "23505"; // SQLSTATE, PostgreSQL and H2 alike
+
+    private final SpringDataProductAvailabilityRepository repository;
+    private final JdbcTemplate jdbcTemplate; // Same connection as the JPA transaction
+    private final StockPersistenceProperties properties;
+
+    public void add(ProductId productId, long delta) {
+        if (delta == 0) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(new TreeMap<>(Map.of(productId.value(), delta)));
+            return;
+        }
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.deltas.merge(productId.value(), delta, Long::sum);
+    }
+
+    private void apply(SortedMap<String, Long> deltas) {
+        // One shard for the whole transaction: its rows stay in Product ID order
+        int shard = ThreadLocalRandom.current().nextInt(properties.productAvailabilityShards());
+        List<String> productIds = new ArrayList<>(deltas.size());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            if (delta == 0) return;
+            productIds.add(productId);
+            rows.add(new Object[] {delta, productId, shard});
+        });
+        if (rows.isEmpty()) return;
+
+        repository.flush(); // Stock rows first, then the aggregate: the same lock order as every other writer
+        int[] updated = jdbcTemplate.batchUpdate(ADD, rows);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) continue;
+            // No row yet: the seed includes this transaction's own changes, unless another one seeded first
+            String productId = productIds.get(i);
+            if (!seeded(productId) && seed(productId)) continue;
+            if (!insert(ADD_SHARD, shard, rows.get(i)[0], productId)) {
+                jdbcTemplate.update(ADD, rows.get(i)); // Another transaction opened that shard first
+            }
+        }
+    }
+
+    private boolean seeded(String productId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) > 0 FROM product_availability WHERE product_id = ?", Boolean.class, productId));
+    }
+
+    // False when another transaction inserted the row first (its sum did not see our uncommitted changes)
+    private boolean seed(String productId) {
+        return insert(SEED, productId, productId, productId);
+    }
+
+    private boolean insert(String sql, Object... parameters) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    insert.setObject(i + 1, parameters[i]);
+                }
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) throw e;
+                connection.rollback(savepoint);
+                return false;
+            }
+        });
+    }
+
+    // One per transaction, bound to it as a resource
+    private final class PendingDeltas implements TransactionSynchronization {
+
+        private final SortedMap<String, Long> deltas = new TreeMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apply(deltas);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductAvailabilityWriter.this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Reservation;
+import com.at.t.ecommerce.inventory.domain.stock.enums.ReservationStatus;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.ReservationRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ProductId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ReservationId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.WarehouseId;
+import com.at.t.ecommerce.inventory.infrastructure.events.ReservationStateChanged;
+import com.at.t.ecommerce.inventory.infrastructure.mappers.ReservationMapper;
+
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class ReservationRepositoryImpl implements ReservationRepository {
+
+    private static final UUID FIRST = new UUID(0L, 0L);
+
+    private final SpringDataReservationRepository jpaRepository;
+    private final ReservationMapper mapper;
+    private final ApplicationEventPublisher events; // Tells the expiry schedule what changed
+
+    @Override
+    @Transactional
+    public void addAll(Collection<Reservation> holds) {
+        // Flushed here so a duplicate order line fails HERE (DataIntegrityViolationException), not at commit
+        jpaRepository.saveAllAndFlush(holds.stream().map(hold -> mapper.toEntity(hold, true)).toList());
+        holds.forEach(this::publish);
+    }
+
+    @Override
+    @Transactional
+    public Reservation save(Reservation reservation) {
+        Reservation saved = mapper.toDomain(jpaRepository.save(mapper.toEntity(reservation, false)));
+        publish(saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Reservation> findByIdForUpdate(ReservationId id) {
+        return parse(id).flatMap(jpaRepository::findByIdLocked)
+                .map(mapper::toDomain);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Reservation> findByOrderLine(String orderId, ProductId productId, WarehouseId warehouseId) {
+        return jpaRepository.findByOrderIdAndProductIdAndWarehouseId(orderId, productId.value(), warehouseId.value())
+                .map(mapper::toDomain);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Reservation> findByOrderIds(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) return List.of();
+        return jpaRepository.findByOrderIdIn(orderIds).stream()
+                .map(mapper::toDomain)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Reservation> findHeld(ReservationId after, int limit) {
+        UUID from = after == null ? FIRST : UUID.fromString(after.value());
+        return jpaRepository.findByStatusAndIdGreaterThanOrderByIdAsc(ReservationStatus.HELD.name(), from, Limit.of(limit))
+                .stream()
+                .map(mapper::toDomain)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Reservation> findHeldExpiredBy(Instant cutoff, int limit) {
+        return jpaRepository.findByStatusAndExpiresAtLessThanEqualOrderByExpiresAtAsc(ReservationStatus.HELD.name(), cutoff, Limit.of(limit))
+                .stream()
+                .map(mapper::toDomain)
+                .toList();
+    }
+
+    // A malformed ID simply matches no row (the caller reports "not found")
+    private static Optional<UUID> parse(ReservationId id) {
+        try {
+            return Optional.of(UUID.fromString(id.value()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void publish(Reservation reservation) {
+        events.publishEvent(new ReservationStateChanged(reservation.getId(), reservation.getStatus(), reservation.getExpiresAt()));
+    }
+}
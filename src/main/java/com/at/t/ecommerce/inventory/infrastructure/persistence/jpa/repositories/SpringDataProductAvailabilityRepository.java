@@ -0,0 +1,36 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.ProductAvailabilityJpaEntity;
+
+public interface SpringDataProductAvailabilityRepository extends JpaRepository<ProductAvailabilityJpaEntity, ProductAvailabilityJpaEntity.Key> {
+
+    // The Product's total: [unit, sum of its shards] or nothing (no write since the upgrade)
+    @Query(value = """
+            SELECT MIN(unit_of_measure), SUM(qty_available) FROM product_availability
+             WHERE product_id = :productId
+             GROUP BY product_id
+            """, nativeQuery = true)
+    List<Object[]> sumShards(String productId);
+
+    // Fallback for a Product not written since the upgrade: [unit, total] or nothing
+    // (same sum as ProductAvailabilityWriter's seed)
+    @Query(value = """
+            SELECT MIN(s.unit_of_measure),
+                   SUM(s.qty_on_hand + s.qty_in_transit - s.qty_reserved - s.qty_safety_stock)
+                   + COALESCE((SELECT SUM(b.qty_remaining) FROM stock_bucket b
+                                 JOIN stock_inventory i ON i.stock_id = b.stock_id
+                                WHERE i.product_id = :productId), 0)
+                   + COALESCE((SELECT SUM(j.atp_delta) FROM stock_journal j
+                                 JOIN stock_inventory i ON i.stock_id = j.stock_id
+                                WHERE i.product_id = :productId AND j.seq > i.journal_seq), 0)
+              FROM stock_inventory s
+             WHERE s.product_id = :productId
+             GROUP BY s.product_id
+            """, nativeQuery = true)
+    List<Object[]> sumAcrossWarehouses(String productId);
+}
@@ -0,0 +1,34 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import jakarta.persistence.LockModeType;
+
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.ReservationJpaEntity;
+
+public interface SpringDataReservationRepository extends JpaRepository<ReservationJpaEntity, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ReservationJpaEntity r WHERE r.id = :id")
+    Optional<ReservationJpaEntity> findByIdLocked(UUID id);
+
+    // Keyset pagination (uses idx_stock_reservation_status): no OFFSET, constant cost per page
+    List<ReservationJpaEntity> findByStatusAndIdGreaterThanOrderByIdAsc(String status, UUID after, Limit limit);
+
+    // Expiry catch-up (uses idx_stock_reservation_expiry): only the overdue HELD rows are read
+    List<ReservationJpaEntity> findByStatusAndExpiresAtLessThanEqualOrderByExpiresAtAsc(String status, Instant cutoff, Limit limit);
+
+    // Backed by uq_stock_reservation_order_line
+    Optional<ReservationJpaEntity> findByOrderIdAndProductIdAndWarehouseId(String orderId, String productId, String warehouseId);
+
+    // Leading column of uq_stock_reservation_order_line
+    List<ReservationJpaEntity> findByOrderIdIn(Collection<String> orderIds);
+}
@@ -0,0 +1,31 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import jakarta.persistence.LockModeType;
+
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockBucketJpaEntity;
+
+public interface SpringDataStockBucketRepository extends JpaRepository<StockBucketJpaEntity, StockBucketJpaEntity.Key> {
+
+    // The hot path: check + decrement in one statement, only this sub-bucket row gets locked.
+    // Bulk UPDATE bypasses the persistence context: see StockRepositoryImpl#reserveFromBucket.
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE StockBucketJpaEntity b SET b.remaining = b.remaining - :amount
+             WHERE b.stockId = :stockId AND b.bucketNo = :bucketNo AND b.remaining >= :amount
+            """)
+    int take(String stockId, int bucketNo, long amount);
+
+    @Query("SELECT COALESCE(SUM(b.remaining), 0) FROM StockBucketJpaEntity b WHERE b.stockId = :stockId")
+    long sumRemaining(String stockId);
+
+    // Always taken AFTER the Stock row lock (same order everywhere => no deadlocks)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StockBucketJpaEntity b WHERE b.stockId = :stockId ORDER BY b.bucketNo")
+    List<StockBucketJpaEntity> findAllLocked(String stockId);
+}
@@ -0,0 +1,20 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJournalJpaEntity;
+
+public interface SpringDataStockJournalRepository extends JpaRepository<StockJournalJpaEntity, StockJournalJpaEntity.Key> {
+
+    // The events each Stock's snapshot does not include yet, for all of them in ONE query (a cart, a chunk)
+    @Query("""
+            SELECT j FROM StockJournalJpaEntity j, StockJpaEntity s
+             WHERE s.id = j.stockId AND j.stockId IN :stockIds AND j.seq > s.journalSeq
+             ORDER BY j.stockId, j.seq
+            """)
+    List<StockJournalJpaEntity> findTails(Collection<String> stockIds);
+}
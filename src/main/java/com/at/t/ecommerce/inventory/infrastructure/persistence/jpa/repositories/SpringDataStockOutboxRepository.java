@@ -0,0 +1,46 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockOutboxJpaEntity;
+
+public interface SpringDataStockOutboxRepository extends JpaRepository<StockOutboxJpaEntity, Long> {
+
+    // SKIP LOCKED: several relay instances can drain the outbox in parallel
+    // without ever waiting on (or double-sending) each other's rows.
+    @Query(value = """
+            SELECT * FROM stock_outbox
+             WHERE sent_at IS NULL
+             ORDER BY id
+             LIMIT :limit
+               FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StockOutboxJpaEntity> lockNextUnsent(int limit);
+
+    // Unsent events of these Stocks up to 'maxId', locked or not (a plain read never waits on a lock)
+    @Query("""
+            SELECT o.id, o.aggregateId FROM StockOutboxJpaEntity o
+             WHERE o.sentAt IS NULL AND o.aggregateId IN :aggregateIds AND o.id <= :maxId
+             ORDER BY o.id
+            """)
+    List<Object[]> findUnsent(Collection<String> aggregateIds, long maxId);
+
+    // One statement for the whole batch
+    @Modifying
+    @Query("UPDATE StockOutboxJpaEntity o SET o.sentAt = :sentAt WHERE o.id IN :ids")
+    int markSent(Collection<Long> ids, Instant sentAt);
+
+    // Sent events older than 'before', at most 'limit' of them (short transactions on a big table)
+    @Modifying
+    @Query(value = """
+            DELETE FROM stock_outbox
+             WHERE id IN (SELECT id FROM stock_outbox WHERE sent_at < :before LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteSentBefore(Instant before, int limit);
+}
@@ -1,8 +1,10 @@
 package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
 
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import jakarta.persistence.LockModeType;
 
@@ -19,4 +21,49 @@ public interface SpringDataStockRepository extends JpaRepository<StockJpaEntity,
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT s FROM StockJpaEntity s WHERE s.id = :id")
     Optional<StockJpaEntity> findByIdLocked(String id);
-}
\ No newline at end of file
+
+    // Single round-trip reservation (PostgreSQL): the WHERE clause IS the business rule
+    // "amount <= onHand + inTransit - reserved - safety". Returns the updated row, or nothing.
+    @Query(value = """
+            UPDATE stock_inventory
+               SET qty_reserved = qty_reserved + :amount,
+                   version = version + 1,
+                   last_updated = CURRENT_TIMESTAMP
+             WHERE product_id = :productId
+               AND warehouse_id = :warehouseId
+               AND unit_of_measure = :unit
+               AND qty_on_hand + qty_in_transit - qty_reserved - qty_safety_stock >= :amount
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<StockJpaEntity> reserveReturning(String productId, String warehouseId, String unit, long amount);
+
+    // Low-stock signal of a write that bypassed the Aggregate (ATOMIC / sub-bucket reservations).
+    // Returns 1 only for the transaction that raised it: the row lock makes it once per crossing.
+    // Bumps the version, so a concurrent load-and-merge cannot write the old flag back.
+    @Modifying
+    @Query(value = """
+            UPDATE stock_inventory SET low_stock_signalled = TRUE, version = version + 1
+             WHERE stock_id = :id AND low_stock_signalled = FALSE
+            """, nativeQuery = true)
+    int markLowStockSignalled(String id);
+
+    // Native on purpose: split_buckets is read-only for the entity mapping (see StockRepositoryImpl#saveBuckets)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE stock_inventory SET split_buckets = :buckets WHERE stock_id = :id", nativeQuery = true)
+    int markSplit(String id, int buckets);
+
+    // Every Stock's ATP, a page at a time in stock_id order (keyset: each page is one index range scan).
+    // Same sum as product_availability's seed, per Stock: [stock_id, product_id, warehouse_id, unit, atp]
+    @Query(value = """
+            SELECT s.stock_id, s.product_id, s.warehouse_id, s.unit_of_measure,
+                   s.qty_on_hand + s.qty_in_transit - s.qty_reserved - s.qty_safety_stock
+                   + COALESCE((SELECT SUM(b.qty_remaining) FROM stock_bucket b WHERE b.stock_id = s.stock_id), 0)
+                   + COALESCE((SELECT SUM(j.atp_delta) FROM stock_journal j
+                                WHERE j.stock_id = s.stock_id AND j.seq > s.journal_seq), 0)
+              FROM stock_inventory s
+             WHERE s.stock_id > :after
+             ORDER BY s.stock_id
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findAvailabilityPage(String after, int limit);
+}
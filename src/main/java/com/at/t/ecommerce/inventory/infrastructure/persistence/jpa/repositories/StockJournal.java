@@ -0,0 +1,151 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.application.stock.ReservationProperties;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.events.*;
+import com.at.t.ecommerce.inventory.domain.stock.vo.Quantity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJournalJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockPersistenceProperties.Mode;
+
+/**
+ * The stock_journal side of the JOURNAL persistence mode (see {@link StockPersistenceProperties}).
+ * 1. Writes append the Stock's Domain Events (a few narrow INSERTs, one JDBC batch) instead of
+ *    rewriting its 15+ column row: no dead row version per write, and the history is kept
+ * 2. Reads replay the events after the snapshot's journal_seq (one query for any number of Stocks)
+ * 3. Conflicts: an append continues the journal from the version the Stock was loaded at, so a
+ *    concurrent writer shows up as a journal that moved on, or as a duplicate (stock_id, seq)
+ *
+ * Not supported in this mode: hot-SKU split (sub-buckets lease ATP without any event) and the
+ * single-statement ATOMIC reservation (its WHERE clause only sees the snapshot); StockRepositoryImpl
+ * runs ATOMIC reservations under the row lock instead.
+ */
+@Component
+@EnableConfigurationProperties(StockPersistenceProperties.class)
+public class StockJournal {
+
+    private static final String APPEND = "INSERT INTO stock_journal (stock_id, seq, event_type, quantity, atp_delta, occurred_on) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final SpringDataStockJournalRepository repository;
+    private final JdbcTemplate jdbcTemplate; // Same connection as the JPA transaction
+    private final StockPersistenceProperties properties;
+
+    public StockJournal(SpringDataStockJournalRepository repository, JdbcTemplate jdbcTemplate,
+                        StockPersistenceProperties properties, ObjectProvider<ReservationProperties> reservation) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        ReservationProperties reservationProperties = reservation.getIfAvailable();
+        if (enabled() && reservationProperties != null && reservationProperties.split().enabled()) {
+            throw new IllegalStateException("inventory.reservation.split cannot be used with inventory.stock-persistence.mode=JOURNAL");
+        }
+    }
+
+    public boolean enabled() {
+        return properties.mode() == Mode.JOURNAL;
+    }
+
+    // Enough events since the last snapshot: time to rewrite the row
+    public boolean snapshotDue(Stock head, long snapshotSeq) {
+        return head.getVersion() - snapshotSeq >= properties.snapshotEvery();
+    }
+
+    /**
+     * Brings snapshots (see StockMapper#toSnapshot) up to date, in place.
+     */
+    public List<Stock> replayTails(List<Stock> snapshots) {
+        if (snapshots.isEmpty()) return snapshots;
+        Map<String, List<StockJournalJpaEntity>> tails = repository.findTails(
+                        snapshots.stream().map(stock -> stock.getId().value()).toList()).stream()
+                .collect(Collectors.groupingBy(StockJournalJpaEntity::getStockId));
+        for (Stock stock : snapshots) {
+            tails.getOrDefault(stock.getId().value(), List.of())
+                    .forEach(row -> stock.replay(decode(row, stock), row.getSeq()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * The state a brand-new Stock had before its first events: nothing in it yet, version 0.
+     */
+    public Stock initial(Stock stock) {
+        Quantity zero = Quantity.zero(stock.getUnitOfMeasure());
+        return Stock.reconstitute(stock.getId(), stock.getProductId(), stock.getWarehouseId(), stock.getOwnerId(),
+                stock.getUnitOfMeasure(), zero, zero, zero, zero, stock.getSafetyStock(), stock.getDiscrepancyGap(), zero,
+                stock.getLowStockThreshold(), stock.getMaxStockThreshold(), stock.getVelocityCode(),
+                stock.getRotationPolicy(), stock.getLifecycleStatus(), stock.getExpiryDate(), stock.getLastUpdated(), 0L, false);
+    }
+
+    /**
+     * Appends 'events' after 'head' (the current journal state of the Stock), replaying them onto
+     * it. Returns what they did to its ATP in total.
+     */
+    public long append(Stock head, List<StockEvent> events) {
+        if (events.isEmpty()) return 0;
+        List<Object[]> rows = new ArrayList<>(events.size());
+        long total = 0;
+        for (StockEvent event : events) {
+            long atpBefore = atp(head);
+            head.replay(event, head.getVersion() + 1);
+            long delta = atp(head) - atpBefore;
+            total += delta;
+            rows.add(new Object[] {head.getId().value(), head.getVersion(), event.getClass().getSimpleName(),
+                    quantityOf(event), delta, Timestamp.from(event.occurredOn())});
+        }
+        try {
+            jdbcTemplate.batchUpdate(APPEND, rows);
+        } catch (DuplicateKeyException e) {
+            // Another transaction appended the same positions first (and has committed by now)
+            throw new OptimisticLockingFailureException("Stock " + head.getId().value() + " was written concurrently", e);
+        }
+        return total;
+    }
+
+    // ATP as product_availability counts it (may go below zero, unlike the Domain's view)
+    static long atp(Stock stock) {
+        return stock.getQuantityOnHand().value() + stock.getQuantityInTransit().value()
+                - stock.getQuantityReserved().value() - stock.getSafetyStock().value();
+    }
+
+    private static long quantityOf(StockEvent event) {
+        if (event instanceof StockReserved e) return e.amount().value();
+        if (event instanceof StockReleased e) return e.amount().value();
+        if (event instanceof StockAllocated e) return e.amount().value();
+        if (event instanceof StockShipped e) return e.amount().value();
+        if (event instanceof StockReceived e) return e.amount().value();
+        if (event instanceof StockRestored e) return e.amount().value();
+        if (event instanceof StockLevelLow e) return e.currentLevel().value();
+        throw new IllegalArgumentException("No journal mapping for " + event.getClass().getSimpleName());
+    }
+
+    // Identity, unit and re-order point come from the Stock: a journal row only stores what varies
+    private static StockEvent decode(StockJournalJpaEntity row, Stock stock) {
+        Quantity quantity = Quantity.of(row.getQuantity(), stock.getUnitOfMeasure());
+        Instant on = row.getOccurredOn();
+        return switch (row.getEventType()) {
+            case "StockReserved" -> new StockReserved(stock.getId(), stock.getProductId(), quantity, on);
+            case "StockReleased" -> new StockReleased(stock.getId(), stock.getProductId(), quantity, on);
+            case "StockAllocated" -> new StockAllocated(stock.getId(), stock.getProductId(), quantity, on);
+            case "StockShipped" -> new StockShipped(stock.getId(), stock.getProductId(), quantity, on);
+            case "StockReceived" -> new StockReceived(stock.getId(), stock.getProductId(), quantity, on);
+            case "StockRestored" -> new StockRestored(stock.getId(), stock.getProductId(), quantity, on);
+            case "StockLevelLow" -> new StockLevelLow(stock.getId(), stock.getProductId(), stock.getWarehouseId(),
+                    quantity, stock.getLowStockThreshold(), on);
+            default -> throw new IllegalStateException("Unknown journal event " + row.getEventType()
+                    + " for Stock " + row.getStockId() + " at " + row.getSeq());
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How Stock writes reach the database.
+ *
+ * @param mode          see {@link Mode}
+ * @param snapshotEvery JOURNAL mode: events appended before the stock_inventory row is rewritten as
+ *                      a snapshot (fewer = faster loads, more = fewer row rewrites)
+ * @param productAvailabilityShards rows per Product in product_availability: concurrent writers of one
+ *                      Product queue on the same row (until their commit) only when they pick the same one
+ */
+@ConfigurationProperties(prefix = "inventory.stock-persistence")
+public record StockPersistenceProperties(@DefaultValue("UPDATE_IN_PLACE") Mode mode,
+                                         @DefaultValue("50") int snapshotEvery,
+                                         @DefaultValue("8") int productAvailabilityShards) {
+
+    public enum Mode {
+        UPDATE_IN_PLACE, // Every save rewrites the whole stock_inventory row
+        JOURNAL          // Every save appends its events to stock_journal; the row is a periodic snapshot
+    }
+
+    public StockPersistenceProperties {
+        if (snapshotEvery < 1) {
+            throw new IllegalArgumentException("inventory.stock-persistence.snapshot-every must be at least 1");
+        }
+        if (productAvailabilityShards < 1 || productAvailabilityShards > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("inventory.stock-persistence.product-availability-shards must be between 1 and " + Short.MAX_VALUE);
+        }
+    }
+}
@@ -1,14 +1,40 @@
 package com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockLevelLow;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockReserved;
 import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.events.StockStateChanged;
 import com.at.t.ecommerce.inventory.infrastructure.mappers.StockMapper;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockBucketJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJpaEntity;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 
 @Repository
@@ -16,40 +42,297 @@ import lombok.RequiredArgsConstructor;
 public class StockRepositoryImpl implements StockRepository {
 
     private final SpringDataStockRepository jpaRepository; // The Spring Magic
+    private final SpringDataStockBucketRepository bucketRepository; // Hot-SKU sub-buckets
+    private final SpringDataProductAvailabilityRepository availabilityRepository; // Total ATP per Product
+    private final ProductAvailabilityWriter productAvailability; // Keeps it in step with every write below
     private final StockMapper mapper;                      // The Translator
+    private final StockJournal journal;                    // JOURNAL persistence mode (append events, periodic snapshot)
+    private final ApplicationEventPublisher events;        // Tells caches & read models what changed
+    private final MeterRegistry meterRegistry;             // Lock waits (where contended rows cost time)
+    private final EntityManager entityManager;             // Persistence context of the current transaction
 
     @Override
     @Transactional
     public Stock save(Stock stock) {
+        if (journal.enabled()) {
+            return appendToJournal(stock);
+        }
+
         // 1. Convert Domain -> DB Entity
         var entity = mapper.toEntity(stock);
-        
-        // 2. Save using Spring Data
+
+        // 2. ATP of the row as it is now (usually already in the persistence context: no query)
+        long atpBefore = jpaRepository.findById(entity.getId()).map(StockRepositoryImpl::rowAtp).orElse(0L);
+
+        // 3. Save using Spring Data, the Product's total moves by the difference
         var savedEntity = jpaRepository.save(entity);
+        productAvailability.add(stock.getProductId(), rowAtp(savedEntity) - atpBefore);
         
-        // 3. Convert back DB -> Domain (to return fresh state/IDs)
-        return mapper.toDomain(savedEntity);
+        // 4. Convert back DB -> Domain (to return fresh state/IDs); the leases did not move
+        Stock saved = mapper.toDomain(savedEntity, stock.getQuantityLeased().value());
+
+        // 5. Dispatch the pending Domain Events + notify in-process listeners
+        publish(saved, stock.pullDomainEvents(), Objects.requireNonNullElse(savedEntity.getVersion(), 0L)); // Incremented at flush
+        return saved;
+    }
+
+    /**
+     * JOURNAL mode save: the events go to stock_journal, the row is only rewritten as a snapshot
+     * every 'snapshot-every' events (see {@link StockJournal}).
+     */
+    private Stock appendToJournal(Stock stock) {
+        List<StockEvent> domainEvents = stock.pullDomainEvents();
+
+        // 1. The Stock as the journal has it now (snapshot usually in the persistence context: one tail query)
+        StockJpaEntity row = jpaRepository.findById(stock.getId().value()).orElse(null);
+        Stock head = row != null ? journal.replayTails(List.of(mapper.toSnapshot(row))).get(0) : journal.initial(stock);
+        if (!head.getVersion().equals(stock.getVersion())) {
+            throw new OptimisticLockingFailureException(String.format("Stock %s was written concurrently (journal at %d, loaded at %d)",
+                    stock.getId().value(), head.getVersion(), stock.getVersion()));
+        }
+
+        // 2. Append, the Product's total moves by what the events did to ATP
+        productAvailability.add(stock.getProductId(), journal.append(head, domainEvents));
+
+        // 3. A new Stock gets its row right away (it holds identity & policies), the others when a snapshot is due
+        long snapshotSeq = row != null ? row.getJournalSeq() : 0L;
+        if (row == null || journal.snapshotDue(head, snapshotSeq)) {
+            boolean snapshot = journal.snapshotDue(head, snapshotSeq);
+            StockJpaEntity entity = mapper.toEntity(snapshot ? head : journal.initial(stock));
+            entity.setJournalSeq(snapshot ? head.getVersion() : 0L);
+            entity.setVersion(row != null ? row.getVersion() : null); // The row's own version guards the rewrite
+            jpaRepository.save(entity);
+        }
+
+        publish(head, domainEvents, head.getVersion());
+        return head;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Stock> reserveAtomically(ProductId productId, WarehouseId warehouseId, Quantity amount) {
+        if (journal.enabled()) {
+            // The UPDATE's WHERE clause would only see the snapshot: same rule, under the row lock
+            return findAllForUpdate(List.of(StockKey.of(productId, warehouseId))).stream().findFirst()
+                    .filter(stock -> amount.unit() == stock.getUnitOfMeasure()
+                            && amount.value() <= stock.getAvailableToPromise().value() - stock.getQuantityLeased().value())
+                    .map(stock -> {
+                        stock.reserveStock(amount);
+                        return save(stock);
+                    });
+        }
+
+        // 1. One statement: check + increment + read back (no SELECT, no merge, no version conflict)
+        detachManagedStocks();
+        return jpaRepository.reserveReturning(productId.value(), warehouseId.value(), amount.unit().name(), amount.value())
+                .map(this::toDomain)
+                .map(reserved -> {
+                    productAvailability.add(productId, -amount.value());
+                    // 2. Same Events as Stock.reserveStock() would have registered (the row is locked by
+                    //    the UPDATE, so its low-stock flag is current; only a new crossing writes it)
+                    boolean wasSignalled = reserved.isLowStockSignalled();
+                    reserved.recordReservation(amount);
+                    if (reserved.isLowStockSignalled() && !wasSignalled) {
+                        jpaRepository.markLowStockSignalled(reserved.getId().value());
+                    }
+                    publish(reserved, reserved.pullDomainEvents(), reserved.getVersion() - 1); // The UPDATE incremented it
+                    return reserved;
+                });
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Stock> findById(StockId id) {
         return jpaRepository.findById(id.value())
-                .map(mapper::toDomain);
+                .map(this::toDomain);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Stock> findByProductAndWarehouse(ProductId productId, WarehouseId warehouseId) {
         return jpaRepository.findByProductIdAndWarehouseId(productId.value(), warehouseId.value())
-                .map(mapper::toDomain);
+                .map(this::toDomain);
     }
 
     @Override
     @Transactional
     public Optional<Stock> findByIdForUpdate(StockId id) {
-        // Calls the pessimistic lock query we defined above
-        return jpaRepository.findByIdLocked(id.value())
-                .map(mapper::toDomain);
+        // Calls the pessimistic lock query we defined above.
+        // A split Stock also locks its sub-buckets, so the leased quantity is exact.
+        detachManagedStocks(); // The locked row, not the copy read before the lock
+        return awaitingLock("stock", () -> jpaRepository.findByIdLocked(id.value()))
+                .map(entity -> journal.enabled() || entity.getSplitBuckets() == 0 ? toDomain(entity)
+                        : mapper.toDomain(entity, sum(lockBuckets(id))));
+    }
+
+    @Override
+    @Transactional
+    public List<Stock> findAllForUpdate(Collection<StockKey> keys) {
+        if (keys.isEmpty()) return List.of();
+
+        detachManagedStocks(); // The locked rows, not copies read before the lock (e.g. the velocity lookup)
+        List<StockJpaEntity> rows = awaitingLock("stock_batch", () -> findAllLocked(Set.copyOf(keys)));
+        if (journal.enabled()) {
+            return journal.replayTails(rows.stream().map(mapper::toSnapshot).toList()); // One tail query for the batch
+        }
+        // Like findByIdForUpdate: a split Stock's sub-buckets are locked too (after all the Stock rows)
+        return rows.stream()
+                .map(entity -> entity.getSplitBuckets() == 0 ? toDomain(entity)
+                        : mapper.toDomain(entity, sum(lockBuckets(new StockId(entity.getId())))))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public boolean reserveFromBucket(Stock stock, int bucket, Quantity amount) {
+        if (amount.unit() != stock.getUnitOfMeasure()
+                || bucketRepository.take(stock.getId().value(), bucket, amount.value()) == 0) {
+            return false;
+        }
+        refreshIfManaged(StockBucketJpaEntity.class, new StockBucketJpaEntity.Key(stock.getId().value(), bucket));
+        productAvailability.add(stock.getProductId(), -amount.value());
+        // The Stock row is not read again: the ATP we announce is the caller's view minus this reservation
+        long atp = Math.max(0, stock.getAvailableToPromise().value() - amount.value());
+        events.publishEvent(StockReserved.now(stock.getId(), stock.getProductId(), amount));
+        // The Stock row is not locked here: the conditional UPDATE decides who raises the crossing
+        if (atp <= stock.getLowStockThreshold().value() && jpaRepository.markLowStockSignalled(stock.getId().value()) == 1) {
+            events.publishEvent(StockLevelLow.now(stock.getId(), stock.getProductId(), stock.getWarehouseId(),
+                    Quantity.of(atp, amount.unit()), stock.getLowStockThreshold()));
+        }
+        events.publishEvent(new StockStateChanged(stock.getId(),
+                StockKey.of(stock.getProductId(), stock.getWarehouseId()), Quantity.of(atp, amount.unit()), -1, false));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public long[] lockBuckets(StockId id) {
+        List<StockBucketJpaEntity> rows = awaitingLock("bucket", () -> bucketRepository.findAllLocked(id.value()));
+        long[] remaining = new long[rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getBucketNo() + 1];
+        rows.forEach(row -> remaining[row.getBucketNo()] = row.getRemaining());
+        return remaining;
+    }
+
+    @Override
+    @Transactional
+    public void saveBuckets(StockId id, long[] remaining) {
+        // Leased stock still counts as ATP: the Product's total only moves by what the buckets gained or lost
+        long before = bucketRepository.sumRemaining(id.value());
+        List<StockBucketJpaEntity> rows = new ArrayList<>(remaining.length);
+        for (int bucket = 0; bucket < remaining.length; bucket++) {
+            StockBucketJpaEntity row = new StockBucketJpaEntity();
+            row.setStockId(id.value());
+            row.setBucketNo(bucket);
+            row.setRemaining(remaining[bucket]);
+            rows.add(row);
+        }
+        bucketRepository.saveAll(rows);
+        jpaRepository.markSplit(id.value(), remaining.length);
+        refreshIfManaged(StockJpaEntity.class, id.value());
+        jpaRepository.findById(id.value()).ifPresent(stock ->
+                productAvailability.add(new ProductId(stock.getProductId()), sum(remaining) - before));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Quantity> findProductAvailability(ProductId productId) {
+        // One primary-key read, however many Warehouses stock the Product
+        Optional<Quantity> total = availabilityRepository.sumShards(productId.value()).stream()
+                .findFirst()
+                .map(row -> Quantity.of(((Number) row[1]).longValue(), UnitOfMeasure.valueOf((String) row[0])));
+        if (total.isPresent()) return total;
+
+        // Not written since product_availability was introduced (or not stocked at all)
+        return availabilityRepository.sumAcrossWarehouses(productId.value()).stream()
+                .findFirst()
+                .map(row -> Quantity.of(((Number) row[1]).longValue(), UnitOfMeasure.valueOf((String) row[0])));
+    }
+
+    // Plain loads: a split Stock adds up its sub-buckets (unlocked, so possibly a bit stale;
+    // the Domain's reserve rule does not depend on it, only the reported ATP does).
+    private Stock toDomain(StockJpaEntity entity) {
+        if (journal.enabled()) {
+            return journal.replayTails(List.of(mapper.toSnapshot(entity))).get(0);
+        }
+        if (entity.getSplitBuckets() == 0) {
+            return mapper.toDomain(entity);
+        }
+        long leased = bucketRepository.sumRemaining(entity.getId());
+        // Read after a concurrent re-lease committed: never show more leased than the row accounts for
+        return mapper.toDomain(entity, Math.min(leased, entity.getQuantityReserved()));
+    }
+
+    // SELECT * FROM stock_inventory WHERE (product_id = ? AND warehouse_id = ?) OR (...) ORDER BY stock_id FOR UPDATE
+    // Exactly the requested pairs: IN (products) x IN (warehouses) would also lock every other combination.
+    // The ORDER BY gives every transaction the same lock acquisition order (no deadlocks).
+    private List<StockJpaEntity> findAllLocked(Collection<StockKey> keys) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StockJpaEntity> query = cb.createQuery(StockJpaEntity.class);
+        Root<StockJpaEntity> stock = query.from(StockJpaEntity.class);
+        Predicate[] pairs = keys.stream()
+                .map(key -> cb.and(cb.equal(stock.get("productId"), key.productId().value()),
+                        cb.equal(stock.get("warehouseId"), key.warehouseId().value())))
+                .toArray(Predicate[]::new);
+        return entityManager.createQuery(query.select(stock).where(cb.or(pairs)).orderBy(cb.asc(stock.get("id"))))
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // A query hands back the instance already in the persistence context, not the row it read: a Stock
+    // loaded earlier in the transaction (velocity lookup, failed attempt) would come back as it was.
+    // Flushed first, so nothing pending is lost; the next read maps the current row.
+    private void detachManagedStocks() {
+        Session session = entityManager.unwrap(Session.class);
+        List<Object> managed = new ArrayList<>();
+        for (Object key : session.getStatistics().getEntityKeys()) {
+            if (key instanceof EntityKey entityKey && StockJpaEntity.class.getName().equals(entityKey.getEntityName())) {
+                managed.add(session.getReference(StockJpaEntity.class, entityKey.getIdentifier()));
+            }
+        }
+        if (managed.isEmpty()) return;
+        session.flush();
+        managed.forEach(session::detach);
+    }
+
+    // After a bulk UPDATE (take, markSplit): the copy of that one row already in the persistence
+    // context, if any, is read again; the rest of the context is left alone.
+    private void refreshIfManaged(Class<?> type, Object id) {
+        Session session = entityManager.unwrap(Session.class);
+        for (Object key : session.getStatistics().getEntityKeys()) {
+            if (key instanceof EntityKey entityKey && type.getName().equals(entityKey.getEntityName())
+                    && id.equals(entityKey.getIdentifier())) {
+                session.refresh(session.getReference(type, id));
+                return;
+            }
+        }
+    }
+
+    // SELECT ... FOR UPDATE: the time is mostly spent queueing behind the current lock holder
+    private <T> T awaitingLock(String target, Supplier<T> lockingQuery) {
+        return Timer.builder("inventory.stock.lock.wait")
+                .description("Time to acquire row locks (SELECT ... FOR UPDATE)")
+                .tag("target", target)
+                .register(meterRegistry)
+                .record(lockingQuery);
+    }
+
+    // ATP as the row stores it (qty_reserved includes leased stock; the buckets count that part)
+    private static long rowAtp(StockJpaEntity entity) {
+        return entity.getQuantityOnHand() + entity.getQuantityInTransit()
+                - entity.getQuantityReserved() - entity.getSafetyStock();
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) total += value;
+        return total;
+    }
+
+    // Domain Events go out as Spring events inside the current transaction,
+    // followed by the state-change notification for caches & read models.
+    private void publish(Stock stock, List<StockEvent> domainEvents, long version) {
+        domainEvents.forEach(events::publishEvent);
+        events.publishEvent(new StockStateChanged(stock.getId(),
+                StockKey.of(stock.getProductId(), stock.getWarehouseId()), stock.getAvailableToPromise(), version));
     }
-}
\ No newline at end of file
+}
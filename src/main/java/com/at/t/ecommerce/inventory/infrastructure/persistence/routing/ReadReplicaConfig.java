@@ -0,0 +1,103 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.routing;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured DataSource when read replicas are enabled:
+ * dataSource (used by JPA, JdbcTemplate, Flyway) = lazy proxy -> router -> primary pool | replica pools.
+ * The primary pool keeps the spring.datasource / spring.datasource.hikari settings. The pools are
+ * not beans of their own, so 'dataSource' stays the only DataSource (and is instrumented once).
+ */
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(prefix = "inventory.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariConfig primaryPoolConfig(DataSourceProperties dataSource) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("primary");
+        config.setJdbcUrl(dataSource.determineUrl());
+        config.setUsername(dataSource.determineUsername());
+        config.setPassword(dataSource.determinePassword());
+        config.setDriverClassName(dataSource.determineDriverClassName());
+        return config;
+    }
+
+    @Bean
+    DatabasePools databasePools(HikariConfig primaryPoolConfig, DataSourceProperties dataSource,
+                                ReadReplicaProperties properties, MeterRegistry registry) {
+        if (properties.nodes().isEmpty()) {
+            throw new IllegalStateException("inventory.datasource.replicas.enabled needs at least one entry in 'nodes'");
+        }
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry); // hikaricp.* per pool
+        primaryPoolConfig.setMetricsTrackerFactory(metrics);
+        HikariDataSource primary = new HikariDataSource(primaryPoolConfig);
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        List<ReadReplicaProperties.Node> nodes = properties.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            ReadReplicaProperties.Node node = nodes.get(i);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(Objects.requireNonNull(node.url(), "inventory.datasource.replicas.nodes[" + i + "].url"));
+            config.setUsername(node.username() != null ? node.username() : dataSource.determineUsername());
+            config.setPassword(node.password() != null ? node.password() : dataSource.determinePassword());
+            config.setDriverClassName(dataSource.determineDriverClassName());
+            config.setMaximumPoolSize(properties.poolSize());
+            config.setReadOnly(true); // A write routed here by mistake fails instead of diverging
+            config.setInitializationFailTimeout(-1); // A replica that is down must not stop the service
+            config.setMetricsTrackerFactory(metrics);
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new DatabasePools(primary, replicas);
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(DatabasePools databasePools, ReadReplicaProperties properties, MeterRegistry registry) {
+        return new ReplicaLagMonitor(databasePools.primary(), List.copyOf(databasePools.replicas().keySet()),
+                List.copyOf(databasePools.replicas().values()), properties, registry);
+    }
+
+    /**
+     * Connections are only fetched from the router at the first statement, once the transaction
+     * (and its read-only flag) has begun.
+     */
+    @Bean
+    DataSource dataSource(DatabasePools databasePools, ReplicaLagMonitor replicaLagMonitor, MeterRegistry registry) {
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(databasePools.primary(), databasePools.replicas(),
+                replicaLagMonitor, registry);
+        router.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(router);
+    }
+
+    // Closed with the context
+    record DatabasePools(HikariDataSource primary, Map<String, HikariDataSource> replicas) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            replicas.values().forEach(HikariDataSource::close);
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.routing;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled          route read-only transactions to the replicas (off: everything on spring.datasource)
+ * @param nodes            the replicas, see {@link Node}
+ * @param maxLag           a replica further behind than this is skipped until it catches up
+ * @param lagCheckInterval how often each replica's lag is measured (an unreachable one counts as lagging)
+ * @param poolSize         connections per replica pool
+ * @param positionQuery    run on the primary before each check: its current write position
+ * @param lagQuery         run on each replica with that position as its parameter: the replica's lag
+ *                         in seconds, 0 once it replayed up to it, NULL if it is no replica (any more).
+ *                         The defaults compare WAL positions (PostgreSQL streaming replication): a
+ *                         replica whose receiver is cut off stops replaying and falls behind, a
+ *                         promoted one (not in recovery) is unusable
+ */
+@ConfigurationProperties(prefix = "inventory.datasource.replicas")
+public record ReadReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Node> nodes,
+        @DefaultValue("1s") Duration maxLag,
+        @DefaultValue("1s") Duration lagCheckInterval,
+        @DefaultValue("10") int poolSize,
+        @DefaultValue(POSTGRES_POSITION_QUERY) String positionQuery,
+        @DefaultValue(POSTGRES_LAG_QUERY) String lagQuery) {
+
+    static final String POSTGRES_POSITION_QUERY = "SELECT CAST(pg_current_wal_lsn() AS TEXT)";
+
+    // Behind: time since the last transaction it replayed (at least as old as what it is missing)
+    static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() THEN NULL
+                        WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 1e9) END""";
+
+    /**
+     * @param url      JDBC URL of the replica
+     * @param username defaults to spring.datasource.username
+     * @param password defaults to spring.datasource.password
+     */
+    public record Node(String url, String username, String password) {
+    }
+}
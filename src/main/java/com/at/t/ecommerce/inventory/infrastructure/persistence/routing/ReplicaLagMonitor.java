@@ -0,0 +1,106 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Staleness guard of the read replicas: measures each one's lag every 'lagCheckInterval' and
+ * only offers the ones within 'maxLag' to the router. The lag is measured against the primary's
+ * current position (read first), not against what the replica itself received: a replica that
+ * stopped receiving cannot look up to date. A replica starts out unusable until its first check
+ * passes; one that cannot be queried, or that is no replica any more (NULL lag), counts as lagging,
+ * and so do all of them while the primary's position cannot be read.
+ * Metrics: inventory.datasource.replica.lag{replica} (seconds), inventory.datasource.replica.usable{replica}
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final String positionQuery;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger(); // Round-robin over the usable replicas
+
+    public ReplicaLagMonitor(DataSource primary, List<String> names, List<DataSource> dataSources,
+                             ReadReplicaProperties properties, MeterRegistry registry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            Replica replica = new Replica(names.get(i), new JdbcTemplate(dataSources.get(i)));
+            Gauge.builder("inventory.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag at the last check (seconds)")
+                    .tag("replica", replica.name)
+                    .register(registry);
+            Gauge.builder("inventory.datasource.replica.usable", replica, r -> r.usable ? 1 : 0)
+                    .description("1 while the replica is within max-lag and serves reads")
+                    .tag("replica", replica.name)
+                    .register(registry);
+            replicas.add(replica);
+        }
+        this.maxLagSeconds = properties.maxLag().toNanos() / 1e9;
+        this.positionQuery = properties.positionQuery();
+        this.lagQuery = properties.lagQuery();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.datasource.replicas.lag-check-interval:PT1S}")
+    public void check() {
+        String position;
+        try {
+            position = primary.queryForObject(positionQuery, String.class);
+        } catch (RuntimeException e) {
+            position = null;
+            log.warn("Primary write position unknown, no read replica can be trusted: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.usable;
+            try {
+                Number lag = position == null ? null : replica.jdbc.queryForObject(lagQuery, Number.class, position);
+                replica.lagSeconds = lag == null ? Double.MAX_VALUE : lag.doubleValue();
+                replica.usable = replica.lagSeconds <= maxLagSeconds;
+            } catch (RuntimeException e) {
+                replica.lagSeconds = Double.MAX_VALUE;
+                replica.usable = false;
+                if (wasUsable) log.warn("Read replica {} unreachable, reads go to the primary: {}", replica.name, e.getMessage());
+            }
+            if (wasUsable != replica.usable) {
+                log.info("Read replica {} {} (lag {}s)", replica.name, replica.usable ? "in use" : "skipped", replica.lagSeconds);
+            }
+        }
+    }
+
+    /**
+     * A replica within max-lag (round-robin), or null when there is none.
+     */
+    public String pick() {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.usable) return replica.name;
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final JdbcTemplate jdbc;
+        private volatile double lagSeconds = Double.MAX_VALUE;
+        private volatile boolean usable;
+
+        Replica(String name, JdbcTemplate jdbc) {
+            this.name = name;
+            this.jdbc = jdbc;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.at.t.ecommerce.inventory.infrastructure.persistence.routing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.at.t.ecommerce.inventory.application.stock.ReadConsistency;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Picks the database of each connection: read-only transactions (@Transactional(readOnly = true)
+ * started on their own, not joined to a write) go to a replica within max-lag, everything else to
+ * the primary. Falls back to the primary when no replica is usable, or when the request asked for
+ * {@link ReadConsistency#primary}.
+ * The decision needs the transaction's read-only flag, which is only known once the transaction
+ * has begun: wrap this in a LazyConnectionDataSourceProxy (see ReadReplicaConfig).
+ * Metrics: inventory.datasource.route{target=primary|replica, reason}
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor monitor;
+    private final Counter toReplica;
+    private final Counter writes;
+    private final Counter lagging;
+    private final Counter consistency;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, ? extends DataSource> replicas,
+                                    ReplicaLagMonitor monitor, MeterRegistry registry) {
+        this.monitor = monitor;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        this.toReplica = route(registry, "replica", "read_only");
+        this.writes = route(registry, PRIMARY, "read_write");
+        this.lagging = route(registry, PRIMARY, "replicas_lagging");
+        this.consistency = route(registry, PRIMARY, "read_your_writes");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return PRIMARY;
+        }
+        if (ReadConsistency.primaryRequired()) {
+            consistency.increment();
+            return PRIMARY;
+        }
+        String replica = monitor.pick();
+        if (replica == null) {
+            lagging.increment();
+            return PRIMARY;
+        }
+        toReplica.increment();
+        return replica;
+    }
+
+    private static Counter route(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("inventory.datasource.route")
+                .description("Connections handed out, by database and why")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
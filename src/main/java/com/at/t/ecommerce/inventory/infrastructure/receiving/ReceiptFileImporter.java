@@ -0,0 +1,122 @@
+package com.at.t.ecommerce.inventory.infrastructure.receiving;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.at.t.ecommerce.inventory.application.stock.ReceiptLine;
+import com.at.t.ecommerce.inventory.application.stock.ReceivedChunk;
+import com.at.t.ecommerce.inventory.application.stock.StockReceivingService;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports a receipt / ASN file, streamed line by line into {@link StockReceivingService} one chunk
+ * at a time (only one chunk is ever in memory, whatever the file size).
+ * Format: CSV, one receipt line per row: product_id,warehouse_id,quantity,unit_of_measure[,owner_id]
+ * An optional header row (starting with "product_id"), blank rows and '#' comments are skipped.
+ * Rejected rows are written to 'rejects' as: line_number,reason
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReceiptFileImporter {
+
+    private static final String HEADER = "product_id";
+
+    private final StockReceivingService receivingService;
+
+    public record ImportSummary(long lines, long received, long rejected, long chunks) {
+    }
+
+    public ImportSummary importFile(Path file, Writer rejects) throws IOException {
+        Import job = new Import(file, rejects, receivingService.chunkSize());
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String row;
+            long lineNumber = 0;
+            while ((row = reader.readLine()) != null) {
+                lineNumber++;
+                if (row.isBlank() || row.startsWith("#") || (lineNumber == 1 && row.startsWith(HEADER))) continue;
+                job.add(lineNumber, row);
+            }
+        }
+        job.writeChunk();
+        return new ImportSummary(job.lines, job.received, job.rejected, job.chunks);
+    }
+
+    // State of one file import
+    private final class Import {
+
+        private final Path file;
+        private final Writer rejects;
+        private final int chunkSize;
+        private List<ReceiptLine> chunk;
+        private List<Long> lineNumbers;
+        private long lines;
+        private long received;
+        private long rejected;
+        private long chunks;
+
+        Import(Path file, Writer rejects, int chunkSize) {
+            this.file = file;
+            this.rejects = rejects;
+            this.chunkSize = chunkSize;
+            this.chunk = new ArrayList<>(chunkSize);
+            this.lineNumbers = new ArrayList<>(chunkSize);
+        }
+
+        void add(long lineNumber, String row) throws IOException {
+            lines++;
+            try {
+                chunk.add(parse(row));
+                lineNumbers.add(lineNumber);
+            } catch (IllegalArgumentException e) {
+                reject(lineNumber, e);
+            }
+            if (chunk.size() >= chunkSize) writeChunk();
+        }
+
+        // One transaction per chunk: a failure here leaves the earlier chunks committed
+        void writeChunk() throws IOException {
+            if (chunk.isEmpty()) return;
+            ReceivedChunk result = receivingService.receiveChunk(chunk);
+            for (ReceivedChunk.Rejected line : result.rejected()) {
+                reject(lineNumbers.get(line.index()), line.failure());
+            }
+            received += result.received();
+            chunks++;
+            log.info("Receipt file {}: chunk {} committed, {} lines so far ({} rejected)", file.getFileName(), chunks, lines, rejected);
+            chunk = new ArrayList<>(chunkSize);
+            lineNumbers = new ArrayList<>(chunkSize);
+        }
+
+        private void reject(long lineNumber, RuntimeException e) throws IOException {
+            rejected++;
+            rejects.write(lineNumber + "," + String.valueOf(e.getMessage()).replace('\n', ' ') + System.lineSeparator());
+        }
+    }
+
+    private static ReceiptLine parse(String row) {
+        String[] fields = row.split(",", -1);
+        if (fields.length < 4 || fields.length > 5) {
+            throw new IllegalArgumentException("Expected product_id,warehouse_id,quantity,unit_of_measure[,owner_id] but got " + fields.length + " fields");
+        }
+        UnitOfMeasure unit = UnitOfMeasure.valueOf(fields[3].trim());
+        String owner = fields.length == 5 ? fields[4].trim() : "";
+        return new ReceiptLine(
+                new ProductId(fields[0].trim()),
+                new WarehouseId(fields[1].trim()),
+                Quantity.of(Long.parseLong(fields[2].trim()), unit), // NumberFormatException is an IllegalArgumentException
+                owner.isEmpty() ? null : new Owner(owner));
+    }
+}
@@ -0,0 +1,99 @@
+package com.at.t.ecommerce.inventory.infrastructure.receiving;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drop-folder import of receipt / ASN files (*.csv in 'dir', oldest name first).
+ * Producers must write elsewhere (or under another extension) and MOVE the finished file in,
+ * so a half-written file is never picked up.
+ * 1. Imported files go to dir/processed, with their rejected rows in a '.rejected' file next to them
+ * 2. A file that fails half-way goes to dir/failed and is NOT retried: its first chunks are already
+ *    received (the log says how many lines), so re-importing it as a whole would receive them twice
+ */
+@Component
+@EnableConfigurationProperties(ReceiptInboxProperties.class)
+@ConditionalOnProperty(prefix = "inventory.receiving.inbox", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReceiptInbox {
+
+    private final ReceiptFileImporter importer;
+    private final ReceiptInboxProperties properties;
+
+    // Files that could not be moved out after an import: never imported twice
+    private final Set<Path> stuck = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${inventory.receiving.inbox.poll-interval:PT10S}")
+    public void poll() {
+        if (!Files.isDirectory(properties.dir())) return;
+        for (Path file : pendingFiles()) {
+            importFile(file);
+        }
+    }
+
+    private List<Path> pendingFiles() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(properties.dir(), "*.csv")) {
+            stream.forEach(file -> {
+                if (!stuck.contains(file)) files.add(file);
+            });
+        } catch (IOException e) {
+            log.warn("Cannot list receipt inbox {}: {}", properties.dir(), e.getMessage());
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private void importFile(Path file) {
+        Path processed = properties.dir().resolve("processed");
+        Path rejects = processed.resolve(file.getFileName() + ".rejected");
+        try {
+            Files.createDirectories(processed);
+            ReceiptFileImporter.ImportSummary summary;
+            try (Writer writer = Files.newBufferedWriter(rejects)) {
+                summary = importer.importFile(file, writer);
+            }
+            if (summary.rejected() == 0) Files.deleteIfExists(rejects);
+            move(file, processed);
+            log.info("Receipt file {} imported: {} lines, {} received, {} rejected, {} chunks",
+                    file.getFileName(), summary.lines(), summary.received(), summary.rejected(), summary.chunks());
+        } catch (IOException | RuntimeException e) {
+            log.error("Receipt file {} failed, moved to 'failed' (chunks committed before the failure are kept)", file.getFileName(), e);
+            moveToFailed(file);
+        }
+    }
+
+    private void moveToFailed(Path file) {
+        try {
+            move(file, Files.createDirectories(properties.dir().resolve("failed")));
+        } catch (IOException e) {
+            log.error("Cannot move {} out of the receipt inbox: skipped until restart, remove it by hand", file, e);
+        }
+    }
+
+    private void move(Path file, Path dir) throws IOException {
+        try {
+            Files.move(file, dir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            stuck.add(file); // Imported (at least partly): never pick it up again
+            throw e;
+        }
+    }
+}
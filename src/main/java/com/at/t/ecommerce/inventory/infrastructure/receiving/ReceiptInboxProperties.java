@@ -0,0 +1,19 @@
+package com.at.t.ecommerce.inventory.infrastructure.receiving;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled      poll 'dir' for receipt files
+ * @param dir          where receipt / ASN CSV files are dropped (imported files move to dir/processed or dir/failed)
+ * @param pollInterval pause between two scans of 'dir'
+ */
+@ConfigurationProperties(prefix = "inventory.receiving.inbox")
+public record ReceiptInboxProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("inbox/receipts") Path dir,
+        @DefaultValue("10s") Duration pollInterval) {
+}
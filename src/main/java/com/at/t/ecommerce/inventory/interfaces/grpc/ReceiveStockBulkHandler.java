@@ -0,0 +1,151 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import com.at.t.ecommerce.inventory.application.stock.ReceiptLine;
+import com.at.t.ecommerce.inventory.application.stock.ReceivedChunk;
+import com.at.t.ecommerce.inventory.application.stock.StockReceivingService;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.grpc.generated.ReceiveStockLine;
+import com.at.t.ecommerce.inventory.grpc.generated.ReceiveStockProgress;
+import com.at.t.ecommerce.inventory.grpc.generated.RejectedReceiptLine;
+
+/**
+ * One open ReceiveStockBulk stream (a delivery being received).
+ *
+ * Flow control is manual: the client gets one chunk of credits, and the next chunk of credits
+ * only once the current chunk is committed. At most one chunk of lines is ever held in memory,
+ * however long the delivery is.
+ *
+ * Threading: gRPC delivers the callbacks of one call one at a time, so the chunk is written right
+ * in the callback that fills it; nothing else can arrive for this call until it returns.
+ * Each chunk commits on its own: after a failure the client resumes after 'lines_processed'.
+ */
+@Slf4j
+class ReceiveStockBulkHandler implements StreamObserver<ReceiveStockLine> {
+
+    private final ServerCallStreamObserver<ReceiveStockProgress> responses;
+    private final StockReceivingService receivingService;
+    private final int chunkSize;
+
+    // The current chunk: lines to receive, and malformed lines rejected up front
+    private List<ReceiptLine> lines;
+    private List<Long> lineNumbers;
+    private List<RejectedReceiptLine> malformed;
+
+    private long lineCount;
+    private long processed;
+    private long received;
+    private long rejected;
+    private long chunks;
+    private boolean failed;
+
+    ReceiveStockBulkHandler(ServerCallStreamObserver<ReceiveStockProgress> responses, StockReceivingService receivingService) {
+        this.responses = responses;
+        this.receivingService = receivingService;
+        this.chunkSize = receivingService.chunkSize();
+        startChunk();
+
+        // Must happen before the service method returns
+        responses.disableAutoRequest();
+        responses.request(chunkSize);
+    }
+
+    @Override
+    public void onNext(ReceiveStockLine request) {
+        if (failed) return;
+        long lineNumber = ++lineCount;
+        try {
+            lines.add(toReceiptLine(request));
+            lineNumbers.add(lineNumber);
+        } catch (IllegalArgumentException e) {
+            malformed.add(rejection(lineNumber, e));
+        }
+
+        if (lines.size() + malformed.size() >= chunkSize) {
+            writeChunk(false);
+            if (!failed) responses.request(chunkSize); // Credits for the next chunk
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("ReceiveStockBulk closed by client after {} lines: {}", processed, t.getMessage());
+        failed = true;
+    }
+
+    @Override
+    public void onCompleted() {
+        if (failed) return;
+        writeChunk(true);
+        if (!failed) {
+            log.info("ReceiveStockBulk done: {} lines in {} chunks, {} received, {} rejected", processed, chunks, received, rejected);
+            responses.onCompleted();
+        }
+    }
+
+    private void writeChunk(boolean last) {
+        ReceiveStockProgress.Builder progress = ReceiveStockProgress.newBuilder();
+        try {
+            // 1. One transaction for the chunk (a rejected line does not affect the others)
+            ReceivedChunk chunk = receivingService.receiveChunk(lines);
+            progress.addAllRejected(malformed);
+            for (ReceivedChunk.Rejected line : chunk.rejected()) {
+                progress.addRejected(rejection(lineNumbers.get(line.index()), line.failure()));
+            }
+            received += chunk.received();
+            rejected += malformed.size() + chunk.rejected().size();
+            processed += lines.size() + malformed.size();
+        } catch (RuntimeException e) {
+            // The chunk rolled back, the earlier ones stay committed
+            log.error("ReceiveStockBulk failed after {} lines", processed, e);
+            failed = true;
+            responses.onError(Status.INTERNAL
+                    .withDescription("Chunk rolled back, " + processed + " lines committed before it: " + e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+
+        // 2. Progress for this chunk (the last message marks the end, even when the last chunk is empty)
+        if (!lines.isEmpty() || !malformed.isEmpty()) chunks++;
+        responses.onNext(progress
+                .setChunk(chunks)
+                .setLinesProcessed(processed)
+                .setLinesReceived(received)
+                .setLinesRejected(rejected)
+                .setDone(last)
+                .setTimestamp(java.time.Instant.now().toString())
+                .build());
+        startChunk();
+    }
+
+    private void startChunk() {
+        lines = new ArrayList<>(chunkSize);
+        lineNumbers = new ArrayList<>(chunkSize);
+        malformed = new ArrayList<>();
+    }
+
+    private static RejectedReceiptLine rejection(long lineNumber, RuntimeException e) {
+        return RejectedReceiptLine.newBuilder()
+                .setLineNumber(lineNumber)
+                .setErrorCode(ReserveStockStreamHandler.statusOf(e).getCode().name())
+                .setMessage(String.valueOf(e.getMessage()))
+                .build();
+    }
+
+    private static ReceiptLine toReceiptLine(ReceiveStockLine request) {
+        UnitOfMeasure unit = UnitOfMeasure.valueOf(request.getUnitOfMeasure());
+        return new ReceiptLine(
+                new ProductId(request.getProductId()),
+                new WarehouseId(request.getWarehouseId()),
+                Quantity.of(request.getQuantity(), unit),
+                request.getOwnerId().isBlank() ? null : new Owner(request.getOwnerId()));
+    }
+}
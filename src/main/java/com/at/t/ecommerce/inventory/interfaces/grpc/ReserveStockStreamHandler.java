@@ -0,0 +1,189 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import com.at.t.ecommerce.inventory.application.stock.ReservationLine;
+import com.at.t.ecommerce.inventory.application.stock.ReservationOutcome;
+import com.at.t.ecommerce.inventory.application.stock.StockApplicationService;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockStreamRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockStreamResponse;
+
+/**
+ * One open ReserveStockStream.
+ *
+ * Flow control is manual: the client gets {@code window} credits up front and one credit back
+ * per answered request, and credits are only returned while our outbound side is writable.
+ * A slow database therefore stops the client from sending instead of piling requests on the heap.
+ *
+ * Threading: gRPC callbacks only enqueue; a single drain task at a time (on the shared executor)
+ * pulls up to {@code maxBatchSize} requests, runs them as ONE application transaction and writes
+ * the answers. Only the drain task touches the response observer.
+ */
+@Slf4j
+class ReserveStockStreamHandler implements StreamObserver<ReserveStockStreamRequest> {
+
+    private final ServerCallStreamObserver<ReserveStockStreamResponse> responses;
+    private final StockApplicationService applicationService;
+    private final Executor executor;
+    private final int maxBatchSize;
+
+    private final Queue<ReserveStockStreamRequest> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean halfClosed;
+    private volatile boolean cancelled;
+    private boolean completed; // Only read/written by the drain task
+
+    ReserveStockStreamHandler(ServerCallStreamObserver<ReserveStockStreamResponse> responses,
+                              StockApplicationService applicationService, Executor executor,
+                              int window, int maxBatchSize) {
+        this.responses = responses;
+        this.applicationService = applicationService;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+
+        // Must happen before the service method returns
+        responses.disableAutoRequest();
+        responses.setOnReadyHandler(this::scheduleDrain);
+        responses.setOnCancelHandler(() -> cancelled = true);
+        responses.request(window);
+    }
+
+    @Override
+    public void onNext(ReserveStockStreamRequest request) {
+        pending.add(request);
+        scheduleDrain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.debug("ReserveStockStream closed by client: {}", t.getMessage());
+        cancelled = true;
+        pending.clear();
+    }
+
+    @Override
+    public void onCompleted() {
+        halfClosed = true;
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!cancelled && !completed) {
+                if (pending.isEmpty()) {
+                    if (halfClosed) {
+                        completed = true;
+                        responses.onCompleted();
+                    }
+                    return;
+                }
+                if (!responses.isReady()) {
+                    return; // The onReady handler reschedules us once the client catches up
+                }
+
+                List<ReserveStockStreamRequest> batch = new ArrayList<>(maxBatchSize);
+                ReserveStockStreamRequest next;
+                while (batch.size() < maxBatchSize && (next = pending.poll()) != null) {
+                    batch.add(next);
+                }
+
+                process(batch).forEach(responses::onNext);
+                responses.request(batch.size()); // Hand the credits back
+            }
+        } catch (RuntimeException e) {
+            log.error("ReserveStockStream failed", e);
+            cancelled = true;
+            responses.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        } finally {
+            draining.set(false);
+            // Work may have arrived between our last check and releasing the flag. Requests that cannot
+            // be answered yet wait for the onReady handler (rescheduling now would just spin).
+            boolean idle = pending.isEmpty();
+            if (!cancelled && !completed && (idle ? halfClosed : responses.isReady())) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    private List<ReserveStockStreamResponse> process(List<ReserveStockStreamRequest> batch) {
+        List<ReserveStockStreamResponse> answers = new ArrayList<>(batch.size());
+
+        // 1. Convert DTOs -> Domain (a malformed request is rejected on its own)
+        List<ReservationLine> lines = new ArrayList<>(batch.size());
+        List<String> lineRequestIds = new ArrayList<>(batch.size());
+        for (ReserveStockStreamRequest request : batch) {
+            try {
+                lines.add(StockGrpcService.toReservationLine(request.getReservation()));
+                lineRequestIds.add(request.getClientRequestId());
+            } catch (IllegalArgumentException e) {
+                answers.add(failure(request.getClientRequestId(), e));
+            }
+        }
+        if (lines.isEmpty()) return answers;
+
+        // 2. One transaction for the whole micro-batch, one outcome per line (stream requests carry no order id)
+        List<ReservationOutcome> outcomes;
+        try {
+            outcomes = applicationService.reserveInOrder(lines, Collections.nCopies(lines.size(), null));
+        } catch (RuntimeException e) {
+            log.warn("Micro-batch of {} stream reservations failed: {}", lines.size(), e.getMessage());
+            lineRequestIds.forEach(id -> answers.add(failure(id, e)));
+            return answers;
+        }
+
+        // 3. Answer each request, correlated by the client's request id
+        for (int i = 0; i < outcomes.size(); i++) {
+            ReservationOutcome outcome = outcomes.get(i);
+            String requestId = lineRequestIds.get(i);
+            if (outcome.isSuccess()) {
+                answers.add(ReserveStockStreamResponse.newBuilder()
+                        .setClientRequestId(requestId)
+                        .setSuccess(true)
+                        .setMessage("Reservation Successful")
+                        .setCurrentAvailableQuantity(outcome.reserved().availableToPromise().value())
+                        .setStockId(outcome.reserved().stockId().value())
+                        .setReservationId(outcome.reserved().reservationId().value())
+                        .build());
+            } else {
+                answers.add(failure(requestId, outcome.failure()));
+            }
+        }
+        return answers;
+    }
+
+    private static ReserveStockStreamResponse failure(String requestId, RuntimeException e) {
+        return ReserveStockStreamResponse.newBuilder()
+                .setClientRequestId(requestId)
+                .setSuccess(false)
+                .setMessage(String.valueOf(e.getMessage()))
+                .setErrorCode(statusOf(e).getCode().name())
+                .build();
+    }
+
+    // Same mapping as GlobalGrpcExceptionHandler, but per message instead of per call
+    static Status statusOf(RuntimeException e) {
+        if (e instanceof StockNotFoundException) return Status.NOT_FOUND;
+        if (e instanceof InsufficientStockException) return Status.FAILED_PRECONDITION;
+        if (e instanceof IllegalArgumentException) return Status.INVALID_ARGUMENT;
+        return Status.INTERNAL;
+    }
+}
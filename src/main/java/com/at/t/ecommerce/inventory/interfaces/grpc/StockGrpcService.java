@@ -1,34 +1,68 @@
 package com.at.t.ecommerce.inventory.interfaces.grpc; 
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 import lombok.RequiredArgsConstructor;
 
 import com.at.t.ecommerce.inventory.grpc.generated.StockServiceGrpc;
+import com.at.t.ecommerce.inventory.grpc.generated.AvailabilityUpdate;
+import com.at.t.ecommerce.inventory.grpc.generated.GetProductAvailabilityRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.GetStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ProductAvailabilityResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.ReceiveStockLine;
+import com.at.t.ecommerce.inventory.grpc.generated.ReceiveStockProgress;
+import com.at.t.ecommerce.inventory.grpc.generated.ReservationRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReservationResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockBatchRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockBatchResponse;
 import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockStreamRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockStreamResponse;
 import com.at.t.ecommerce.inventory.grpc.generated.StockResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.WatchAvailabilityRequest;
 
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityWatchHub;
+import com.at.t.ecommerce.inventory.application.stock.IdempotentReservationService;
+import com.at.t.ecommerce.inventory.application.stock.ProductAvailability;
+import com.at.t.ecommerce.inventory.application.stock.ReservationLine;
+import com.at.t.ecommerce.inventory.application.stock.ReservedLine;
 import com.at.t.ecommerce.inventory.application.stock.StockApplicationService;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailabilityService;
+import com.at.t.ecommerce.inventory.application.stock.StockReceivingService;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Reservation;
 import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.interfaces.grpc.config.ReserveStreamProperties;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @GrpcService
 @RequiredArgsConstructor
 public class StockGrpcService extends StockServiceGrpc.StockServiceImplBase {
 
     private final StockApplicationService applicationService;
+    private final IdempotentReservationService idempotentReservations;
+    private final StockAvailabilityService availabilityService;
+    private final StockReceivingService receivingService;
+    private final AvailabilityWatchHub watchHub;
+    private final ReserveStreamProperties streamProperties;
+    private final ThreadPoolTaskExecutor reserveStreamExecutor;
 
     @Override
     public void reserveStock(ReserveStockRequest request, StreamObserver<StockResponse> responseObserver) {
         
         // 1. Convert DTO -> Domain
-        ProductId productId = new ProductId(request.getProductId());
-        WarehouseId warehouseId = new WarehouseId(request.getWarehouseId());
-        UnitOfMeasure unit = UnitOfMeasure.valueOf(request.getUnitOfMeasure());
-        Quantity amount = Quantity.of(request.getQuantity(), unit);
+        ReservationLine line = toReservationLine(request);
 
-        // 2. Call Service (Exceptions handled by @GrpcAdvice)
-        applicationService.reserveStock(productId, warehouseId, amount);
+        // 2. Call Service, retries of the same order line are deduplicated (Exceptions handled by @GrpcAdvice)
+        ReservationId reservationId = idempotentReservations.reserveStock(
+                request.getOrderId(), line.productId(), line.warehouseId(), line.amount());
 
         // 3. Success Response
         StockResponse response = StockResponse.newBuilder()
@@ -36,9 +70,143 @@ public class StockGrpcService extends StockServiceGrpc.StockServiceImplBase {
                 .setMessage("Reservation Successful")
                 .setStockId("HIDDEN")
                 .setTimestamp(java.time.Instant.now().toString())
+                .setReservationId(reservationId.value())
+                .build();
+
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getStockAvailability(GetStockRequest request, StreamObserver<StockResponse> responseObserver) {
+
+        // 1. Read-through cache (Exceptions handled by @GrpcAdvice)
+        StockAvailability availability = availabilityService.getAvailability(
+                new ProductId(request.getProductId()),
+                new WarehouseId(request.getWarehouseId()));
+
+        // 2. Response
+        StockResponse response = StockResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Availability Retrieved")
+                .setCurrentAvailableQuantity(availability.availableToPromise().value())
+                .setStockId(availability.stockId().value())
+                .setTimestamp(java.time.Instant.now().toString())
                 .build();
 
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
+
+    @Override
+    public void getProductAvailability(GetProductAvailabilityRequest request, StreamObserver<ProductAvailabilityResponse> responseObserver) {
+
+        // 1. One aggregate row, however many Warehouses (Exceptions handled by @GrpcAdvice)
+        ProductAvailability availability = availabilityService.getProductAvailability(new ProductId(request.getProductId()));
+
+        // 2. Response
+        ProductAvailabilityResponse response = ProductAvailabilityResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Product Availability Retrieved")
+                .setProductId(availability.productId().value())
+                .setTotalAvailableQuantity(availability.availableToPromise().value())
+                .setUnitOfMeasure(availability.availableToPromise().unit().name())
+                .setTimestamp(java.time.Instant.now().toString())
+                .build();
+
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void reserveStockBatch(ReserveStockBatchRequest request, StreamObserver<ReserveStockBatchResponse> responseObserver) {
+
+        // 1. Convert DTOs -> Domain
+        List<ReservationLine> lines = request.getLinesList().stream()
+                .map(StockGrpcService::toReservationLine)
+                .toList();
+
+        // 2. Call Service: one transaction for the whole cart (Exceptions handled by @GrpcAdvice)
+        List<ReservedLine> reserved = applicationService.reserveStockBatch(lines);
+
+        // 3. Success Response with per-line ATP
+        ReserveStockBatchResponse.Builder response = ReserveStockBatchResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Batch Reservation Successful")
+                .setTimestamp(java.time.Instant.now().toString());
+        for (ReservedLine line : reserved) {
+            response.addLines(com.at.t.ecommerce.inventory.grpc.generated.ReservedLine.newBuilder()
+                    .setProductId(line.line().productId().value())
+                    .setWarehouseId(line.line().warehouseId().value())
+                    .setCurrentAvailableQuantity(line.availableToPromise().value())
+                    .setStockId(line.stockId().value())
+                    .setReservationId(line.reservationId().value()));
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<ReserveStockStreamRequest> reserveStockStream(StreamObserver<ReserveStockStreamResponse> responseObserver) {
+        // Requests are drained in micro-batches; flow control is handled by the handler (see its Javadoc)
+        return new ReserveStockStreamHandler(
+                (ServerCallStreamObserver<ReserveStockStreamResponse>) responseObserver,
+                applicationService,
+                reserveStreamExecutor,
+                streamProperties.window(),
+                streamProperties.maxBatchSize());
+    }
+
+    @Override
+    public StreamObserver<ReceiveStockLine> receiveStockBulk(StreamObserver<ReceiveStockProgress> responseObserver) {
+        // Lines are received in chunks, one transaction + one progress message each (see the handler's Javadoc)
+        return new ReceiveStockBulkHandler(
+                (ServerCallStreamObserver<ReceiveStockProgress>) responseObserver,
+                receivingService);
+    }
+
+    @Override
+    public void watchAvailability(WatchAvailabilityRequest request, StreamObserver<AvailabilityUpdate> responseObserver) {
+        // Invalid keys / too many keys: IllegalArgumentException, handled by @GrpcAdvice
+        Set<StockKey> keys = new LinkedHashSet<>();
+        request.getKeysList().forEach(key -> keys.add(StockKey.of(new ProductId(key.getProductId()), new WarehouseId(key.getWarehouseId()))));
+
+        // Snapshot first, then coalesced changes until the client cancels (see the handler's Javadoc)
+        new WatchAvailabilityHandler((ServerCallStreamObserver<AvailabilityUpdate>) responseObserver)
+                .start(watchHub, keys);
+    }
+
+    @Override
+    public void confirmReservation(ReservationRequest request, StreamObserver<ReservationResponse> responseObserver) {
+        // Exceptions (unknown ID, no longer HELD) handled by @GrpcAdvice
+        Reservation confirmed = applicationService.confirmReservation(ReservationId.of(request.getReservationId()));
+        responseObserver.onNext(toResponse(confirmed, "Reservation Confirmed"));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void releaseReservation(ReservationRequest request, StreamObserver<ReservationResponse> responseObserver) {
+        Reservation released = applicationService.releaseReservation(ReservationId.of(request.getReservationId()));
+        responseObserver.onNext(toResponse(released, "Reservation Released"));
+        responseObserver.onCompleted();
+    }
+
+    private static ReservationResponse toResponse(Reservation reservation, String message) {
+        return ReservationResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage(message)
+                .setReservationId(reservation.getId().value())
+                .setStatus(reservation.getStatus().name())
+                .setTimestamp(java.time.Instant.now().toString())
+                .build();
+    }
+
+    static ReservationLine toReservationLine(ReserveStockRequest request) {
+        UnitOfMeasure unit = UnitOfMeasure.valueOf(request.getUnitOfMeasure());
+        return new ReservationLine(
+                new ProductId(request.getProductId()),
+                new WarehouseId(request.getWarehouseId()),
+                Quantity.of(request.getQuantity(), unit));
+    }
 }
\ No newline at end of file
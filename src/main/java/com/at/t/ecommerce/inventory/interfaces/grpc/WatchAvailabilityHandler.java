@@ -0,0 +1,109 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityWatchHub;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+import com.at.t.ecommerce.inventory.grpc.generated.AvailabilityUpdate;
+
+/**
+ * One open WatchAvailability stream.
+ *
+ * Slow clients: updates are only written while the transport is ready; the others wait in a
+ * buffer holding the LATEST update per Stock. It can never hold more than the watched keys,
+ * and a client that cannot keep up skips intermediate values instead of receiving them late.
+ *
+ * Threading: updates arrive on the hub's push thread, readiness on a gRPC thread; both go
+ * through the same lock.
+ */
+@Slf4j
+class WatchAvailabilityHandler implements AvailabilityWatchHub.Subscriber {
+
+    private final ServerCallStreamObserver<AvailabilityUpdate> responses;
+    private final Map<StockKey, AvailabilityUpdate> pending = new LinkedHashMap<>();
+    private AvailabilityWatchHub.Watch watch;
+    private boolean closed;
+
+    WatchAvailabilityHandler(ServerCallStreamObserver<AvailabilityUpdate> responses) {
+        this.responses = responses;
+    }
+
+    /**
+     * Must be called before the service method returns (the handlers are registered here).
+     */
+    void start(AvailabilityWatchHub hub, Set<StockKey> keys) {
+        responses.setOnReadyHandler(this::drain);
+        responses.setOnCancelHandler(this::close);
+        AvailabilityWatchHub.Watch opened = hub.watch(keys, this);
+        synchronized (this) {
+            watch = opened;
+            if (closed) opened.close(); // Cancelled while the snapshot was being read
+        }
+    }
+
+    @Override
+    public synchronized void onAvailability(List<StockAvailability> updates, boolean snapshot) {
+        if (closed) return;
+        for (StockAvailability availability : updates) {
+            // A snapshot superseded before it was sent still counts as the key's first message
+            pending.merge(availability.key(), toUpdate(availability, snapshot),
+                    (older, latest) -> older.getSnapshot() ? latest.toBuilder().setSnapshot(true).build() : latest);
+        }
+        drain();
+    }
+
+    @Override
+    public synchronized void onShutdown() {
+        if (closed) return;
+        close();
+        try {
+            responses.onError(Status.UNAVAILABLE.withDescription("Server shutting down, watch again").asRuntimeException());
+        } catch (RuntimeException e) {
+            log.debug("WatchAvailability stream already gone: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void drain() {
+        Iterator<AvailabilityUpdate> updates = pending.values().iterator();
+        try {
+            while (!closed && updates.hasNext() && responses.isReady()) {
+                responses.onNext(updates.next());
+                updates.remove();
+            }
+        } catch (StatusRuntimeException e) {
+            // Cancelled between isReady() and onNext()
+            log.debug("WatchAvailability stream gone: {}", e.getMessage());
+            close();
+        }
+    }
+
+    private synchronized void close() {
+        if (closed) return;
+        closed = true;
+        pending.clear();
+        if (watch != null) watch.close();
+    }
+
+    private static AvailabilityUpdate toUpdate(StockAvailability availability, boolean snapshot) {
+        return AvailabilityUpdate.newBuilder()
+                .setProductId(availability.key().productId().value())
+                .setWarehouseId(availability.key().warehouseId().value())
+                .setCurrentAvailableQuantity(availability.availableToPromise().value())
+                .setUnitOfMeasure(availability.availableToPromise().unit().name())
+                .setStockId(availability.stockId().value())
+                .setSnapshot(snapshot)
+                .setTimestamp(Instant.now().toString())
+                .build();
+    }
+}
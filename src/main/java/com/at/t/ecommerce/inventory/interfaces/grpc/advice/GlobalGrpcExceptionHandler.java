@@ -5,7 +5,12 @@ import io.grpc.StatusRuntimeException;
 import net.devh.boot.grpc.server.advice.GrpcAdvice;
 import net.devh.boot.grpc.server.advice.GrpcExceptionHandler;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.at.t.ecommerce.inventory.application.stock.ReservationInFlightException;
 import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InvalidStockStateException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.ReservationNotFoundException;
 import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
 
 @GrpcAdvice // The gRPC equivalent of @ControllerAdvice
@@ -19,6 +24,21 @@ public class GlobalGrpcExceptionHandler {
                 .asRuntimeException();
     }
 
+    @GrpcExceptionHandler(ReservationNotFoundException.class)
+    public StatusRuntimeException handleReservationNotFound(ReservationNotFoundException e) {
+        return Status.NOT_FOUND
+                .withDescription(e.getMessage())
+                .asRuntimeException();
+    }
+
+    @GrpcExceptionHandler(InvalidStockStateException.class)
+    public StatusRuntimeException handleInvalidState(InvalidStockStateException e) {
+        // e.g. confirming a reservation that already expired
+        return Status.FAILED_PRECONDITION
+                .withDescription(e.getMessage())
+                .asRuntimeException();
+    }
+
     @GrpcExceptionHandler(InsufficientStockException.class)
     public StatusRuntimeException handleInsufficientStock(InsufficientStockException e) {
         // Maps to FAILED_PRECONDITION (Code 9) - Standard for business rule violations
@@ -27,6 +47,30 @@ public class GlobalGrpcExceptionHandler {
                 .asRuntimeException();
     }
 
+    @GrpcExceptionHandler(ReservationInFlightException.class)
+    public StatusRuntimeException handleInFlight(ReservationInFlightException e) {
+        // Maps to DEADLINE_EXCEEDED (Code 4) - The retried order line's first call did not finish in time
+        return Status.DEADLINE_EXCEEDED
+                .withDescription(e.getMessage())
+                .asRuntimeException();
+    }
+
+    @GrpcExceptionHandler(IllegalArgumentException.class)
+    public StatusRuntimeException handleInvalidArgument(IllegalArgumentException e) {
+        // Maps to INVALID_ARGUMENT (Code 3) - Bad unit, negative quantity, empty batch...
+        return Status.INVALID_ARGUMENT
+                .withDescription(e.getMessage())
+                .asRuntimeException();
+    }
+
+    @GrpcExceptionHandler(OptimisticLockingFailureException.class)
+    public StatusRuntimeException handleConflict(OptimisticLockingFailureException e) {
+        // Maps to ABORTED (Code 10) - Concurrent update, still conflicting after the server-side retries
+        return Status.ABORTED
+                .withDescription("Concurrent update, please retry: " + e.getMessage())
+                .asRuntimeException();
+    }
+
     @GrpcExceptionHandler(Exception.class)
     public StatusRuntimeException handleGeneric(Exception e) {
         // Maps to INTERNAL (Code 13) - The "500 Server Error" of gRPC
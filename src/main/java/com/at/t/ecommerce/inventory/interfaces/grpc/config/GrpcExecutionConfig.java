@@ -0,0 +1,43 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.at.t.ecommerce.inventory.interfaces.grpc.interceptors.AdmissionControlInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(GrpcExecutionProperties.class)
+public class GrpcExecutionConfig {
+
+    /**
+     * Swaps the executor the gRPC server runs its handlers on (nothing to do for DEFAULT).
+     */
+    @Bean
+    GrpcServerConfigurer grpcHandlerExecutor(GrpcExecutionProperties properties) {
+        ExecutorService executor = GrpcExecutors.create(properties.executor(), properties.platformThreads());
+        return serverBuilder -> {
+            if (executor != null) {
+                serverBuilder.executor(executor);
+            }
+        };
+    }
+
+    @GrpcGlobalServerInterceptor
+    @ConditionalOnProperty(prefix = "inventory.grpc.execution.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+    AdmissionControlInterceptor admissionControlInterceptor(GrpcExecutionProperties properties,
+                                                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                                            MeterRegistry registry) {
+        GrpcExecutionProperties.Admission admission = properties.admission();
+        int maxConcurrent = admission.maxConcurrent() > 0 ? admission.maxConcurrent() : poolSize;
+        return new AdmissionControlInterceptor(maxConcurrent, admission.maxQueueWait(), admission.methods(), registry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.config;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Which threads run the gRPC handlers, and how many of them may hold database work at once.
+ *
+ * @param executor        DEFAULT (grpc-java's own pool), PLATFORM (fixed pool) or VIRTUAL (one virtual thread per call)
+ * @param platformThreads size of the PLATFORM pool (also the fallback when VIRTUAL is not available)
+ * @param admission       in-flight limit for unary calls, see {@link Admission}
+ */
+@ConfigurationProperties(prefix = "inventory.grpc.execution")
+public record GrpcExecutionProperties(
+        @DefaultValue("DEFAULT") Executor executor,
+        @DefaultValue("64") int platformThreads,
+        @DefaultValue Admission admission) {
+
+    public enum Executor {
+        DEFAULT,  // Whatever the gRPC server builder uses (a cached platform-thread pool)
+        PLATFORM, // Fixed platform-thread pool of 'platformThreads'
+        VIRTUAL   // Virtual thread per call (Java 21+, falls back to PLATFORM on older runtimes)
+    }
+
+    /**
+     * Calls of the 'methods' wait for one of 'maxConcurrent' permits before their handler runs.
+     * A call is turned away (RESOURCE_EXHAUSTED) when the expected wait exceeds its deadline,
+     * and dropped (DEADLINE_EXCEEDED) when its deadline passed while it was queued.
+     *
+     * @param enabled       admission control on/off
+     * @param maxConcurrent permits; 0 = the Hikari pool size (more would only queue inside the pool)
+     * @param maxQueueWait  longest a call waits for a permit when the client set no deadline
+     * @param methods       unary methods (bare names) that need a database connection; the others,
+     *                      e.g. reads answered from the availability cache, are never queued
+     */
+    public record Admission(@DefaultValue("true") boolean enabled,
+                            @DefaultValue("0") int maxConcurrent,
+                            @DefaultValue("500ms") Duration maxQueueWait,
+                            @DefaultValue({"ReserveStock", "ReserveStockBatch", "ConfirmReservation", "ReleaseReservation"})
+                            Set<String> methods) {
+    }
+}
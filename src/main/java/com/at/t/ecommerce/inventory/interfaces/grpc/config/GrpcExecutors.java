@@ -0,0 +1,51 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the gRPC handler executors. Virtual threads are looked up reflectively: the service is
+ * compiled for Java 17 and only gets them when it runs on Java 21 or later.
+ */
+@Slf4j
+public final class GrpcExecutors {
+
+    private GrpcExecutors() {
+    }
+
+    /**
+     * Returns null for DEFAULT (keep the server builder's own executor).
+     */
+    public static ExecutorService create(GrpcExecutionProperties.Executor executor, int platformThreads) {
+        return switch (executor) {
+            case DEFAULT -> null;
+            case PLATFORM -> platform(platformThreads);
+            case VIRTUAL -> virtual(platformThreads);
+        };
+    }
+
+    private static ExecutorService virtual(int fallbackThreads) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("gRPC handlers run on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need Java 21+ (running on {}): gRPC handlers use {} platform threads instead",
+                    Runtime.version(), fallbackThreads);
+            return platform(fallbackThreads);
+        }
+    }
+
+    // Daemon threads: the gRPC server owns the lifecycle, a lingering idle pool must not keep the JVM up
+    private static ExecutorService platform(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-handler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
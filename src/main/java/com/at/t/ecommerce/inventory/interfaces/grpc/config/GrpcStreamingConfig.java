@@ -0,0 +1,24 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(ReserveStreamProperties.class)
+public class GrpcStreamingConfig {
+
+    /**
+     * Runs the micro-batches of every open ReserveStockStream. Each stream has at most ONE
+     * drain task queued at a time, so the queue is bounded by the number of open streams.
+     */
+    @Bean
+    ThreadPoolTaskExecutor reserveStreamExecutor(ReserveStreamProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.drainThreads());
+        executor.setMaxPoolSize(properties.drainThreads());
+        executor.setThreadNamePrefix("reserve-stream-");
+        return executor;
+    }
+}
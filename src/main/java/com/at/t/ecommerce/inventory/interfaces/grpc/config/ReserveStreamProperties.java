@@ -0,0 +1,18 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for the bidirectional ReserveStockStream RPC.
+ *
+ * @param window        max requests a single stream may have buffered or in flight (gRPC flow-control credits)
+ * @param maxBatchSize  max requests drained into ONE application transaction
+ * @param drainThreads  threads shared by all open streams to run the micro-batches
+ */
+@ConfigurationProperties(prefix = "inventory.grpc.reserve-stream")
+public record ReserveStreamProperties(
+        @DefaultValue("256") int window,
+        @DefaultValue("64") int maxBatchSize,
+        @DefaultValue("8") int drainThreads) {
+}
@@ -0,0 +1,164 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.interceptors;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.MethodType;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Database-aware admission control for the unary RPCs that need a connection (the 'methods').
+ * 1. At most 'maxConcurrent' of their handlers run at once (sized to the connection pool: past that,
+ *    extra calls would only queue inside Hikari, holding a thread and burning their deadline).
+ * 2. A call whose expected wait (queue length x average service time) exceeds its remaining
+ *    deadline is rejected at once with RESOURCE_EXHAUSTED, so the client can retry elsewhere.
+ * 3. A call whose deadline passed while it was queued is dropped without running (DEADLINE_EXCEEDED).
+ * Other methods (e.g. availability reads served from the cache) are never queued behind them.
+ * Streaming RPCs are not limited here: they have their own flow control.
+ */
+@Slf4j
+public class AdmissionControlInterceptor implements ServerInterceptor {
+
+    private static final double SMOOTHING = 0.05; // Weight of the latest call in the average service time
+
+    private final int maxConcurrent;
+    private final long maxQueueWaitNanos;
+    private final Set<String> methods; // Bare method names, e.g. "ReserveStock"
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong avgServiceNanos = new AtomicLong();
+    private final Counter rejectedBusy;
+    private final Counter rejectedExpired;
+
+    public AdmissionControlInterceptor(int maxConcurrent, Duration maxQueueWait, Set<String> methods, MeterRegistry registry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.methods = Set.copyOf(methods);
+        this.permits = new Semaphore(maxConcurrent, true); // FIFO: the oldest call has the least deadline left
+        this.rejectedBusy = rejected(registry, "resource_exhausted");
+        this.rejectedExpired = rejected(registry, "deadline_exceeded");
+        Gauge.builder("inventory.grpc.admission.in_flight", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Unary calls holding an admission permit")
+                .register(registry);
+        Gauge.builder("inventory.grpc.admission.waiting", waiting, AtomicInteger::get)
+                .description("Unary calls queued for an admission permit")
+                .register(registry);
+        log.info("gRPC admission control: {} concurrent calls of {}, max queue wait {}", maxConcurrent, this.methods, maxQueueWait);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        if (method.getType() != MethodType.UNARY || !methods.contains(method.getBareMethodName())) {
+            return next.startCall(call, headers);
+        }
+
+        // 1. Nothing to do for a caller that already gave up
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline != null && deadline.isExpired()) {
+            return reject(call, rejectedExpired, Status.DEADLINE_EXCEEDED, "Deadline passed before the call was admitted");
+        }
+
+        // 2. Fail fast when the queue ahead is longer than the time the caller has left
+        long budget = deadline == null ? maxQueueWaitNanos : Math.min(maxQueueWaitNanos, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+        if (!permits.tryAcquire() && !awaitPermit(budget)) {
+            return reject(call, rejectedBusy, Status.RESOURCE_EXHAUSTED, "Server busy: too many calls waiting for the database");
+        }
+
+        // 3. Queued past the deadline: drop it rather than do work nobody waits for
+        if (deadline != null && deadline.isExpired()) {
+            permits.release();
+            return reject(call, rejectedExpired, Status.DEADLINE_EXCEEDED, "Deadline passed while queued for admission");
+        }
+
+        Permit permit = new Permit(System.nanoTime());
+        try {
+            ServerCall.Listener<ReqT> listener = next.startCall(new SimpleForwardingServerCall<>(call) {
+                @Override
+                public void close(Status status, Metadata trailers) {
+                    permit.release();
+                    super.close(status, trailers);
+                }
+            }, headers);
+            return new SimpleForwardingServerCallListener<>(listener) {
+                @Override
+                public void onCancel() {
+                    permit.release();
+                    super.onCancel();
+                }
+            };
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    private boolean awaitPermit(long budgetNanos) {
+        long expectedWait = (waiting.get() + 1) * avgServiceNanos.get() / maxConcurrent;
+        if (budgetNanos <= 0 || expectedWait > budgetNanos) {
+            return false;
+        }
+        waiting.incrementAndGet();
+        try {
+            return permits.tryAcquire(budgetNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, Counter counter,
+                                                                 Status status, String description) {
+        counter.increment();
+        call.close(status.withDescription(description), new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+
+    private static Counter rejected(MeterRegistry registry, String status) {
+        return Counter.builder("inventory.grpc.admission.rejected")
+                .description("Unary calls turned away before their handler ran")
+                .tag("status", status)
+                .register(registry);
+    }
+
+    // Released exactly once: close() and onCancel() may both fire for the same call
+    private final class Permit {
+
+        private final long admittedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                long serviceNanos = System.nanoTime() - admittedAt;
+                avgServiceNanos.updateAndGet(avg -> avg == 0 ? serviceNanos : (long) (avg + SMOOTHING * (serviceNanos - avg)));
+                permits.release();
+            }
+        }
+    }
+}
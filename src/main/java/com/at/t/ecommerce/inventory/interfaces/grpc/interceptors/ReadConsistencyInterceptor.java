@@ -0,0 +1,47 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc.interceptors;
+
+import com.at.t.ecommerce.inventory.application.stock.ReadConsistency;
+
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+
+/**
+ * Read-your-writes per call: a client that must see what it just wrote (e.g. GetStockAvailability
+ * right after ReserveStock) sends the 'x-read-consistency: primary' header. Its handler then reads
+ * from the primary, never from a read replica or the caches (see {@link ReadConsistency}).
+ * Applies to what runs on the call's own callbacks: unary handlers, and the request side of streams.
+ */
+@GrpcGlobalServerInterceptor
+public class ReadConsistencyInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> READ_CONSISTENCY = Metadata.Key.of("x-read-consistency", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!"primary".equalsIgnoreCase(headers.get(READ_CONSISTENCY))) {
+            return next.startCall(call, headers);
+        }
+        ServerCall.Listener<ReqT> listener = ReadConsistency.primary(() -> next.startCall(call, headers));
+        return new SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                ReadConsistency.primary(() -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                ReadConsistency.primary(() -> super.onHalfClose()); // Unary handlers run here
+            }
+
+            @Override
+            public void onReady() {
+                ReadConsistency.primary(() -> super.onReady());
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.at.t.ecommerce.inventory.interfaces.web.config;
+
+import static org.springframework.security.config.Customizer.withDefaults;
+
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * The HTTP side only serves actuator endpoints (business traffic is gRPC).
+ * Health probes and the Prometheus scrape are open; everything else still needs a login.
+ */
+@Configuration
+public class ActuatorSecurityConfig {
+
+    @Bean
+    public SecurityFilterChain actuatorSecurity(HttpSecurity http) throws Exception {
+        return http
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
+                        .anyRequest().authenticated())
+                .httpBasic(withDefaults())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * One Stock per Product and Warehouse: unique (product_id, warehouse_id) on stock_inventory.
+ * In Java because stock_inventory is created by Hibernate (StockJpaEntity declares the same
+ * constraint): on a fresh database it does not exist yet when Flyway runs, and this does nothing.
+ * Duplicates already in the table stop the migration; they have to be merged by hand first.
+ */
+public class V9__stock_inventory_unique_key extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        if (!tableExists(connection, "stock_inventory")) return;
+
+        try (Statement statement = connection.createStatement()) {
+            List<String> duplicates = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery("""
+                    SELECT product_id, warehouse_id FROM stock_inventory
+                     GROUP BY product_id, warehouse_id HAVING COUNT(*) > 1""")) {
+                while (rows.next()) duplicates.add(rows.getString(1) + "@" + rows.getString(2));
+            }
+            if (!duplicates.isEmpty()) {
+                throw new IllegalStateException("stock_inventory holds several Stocks for " + duplicates
+                        + ": merge them before adding the unique key");
+            }
+            statement.execute("""
+                    ALTER TABLE stock_inventory
+                      ADD CONSTRAINT uq_stock_inventory_product_warehouse UNIQUE (product_id, warehouse_id)""");
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        String name = connection.getMetaData().storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+        try (ResultSet tables = connection.getMetaData().getTables(null, connection.getSchema(), name, new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- product_availability as N rows per Product (shard 0..N-1, see inventory.stock-persistence.
+-- product-availability-shards): each write transaction adds its delta to ONE shard picked at random,
+-- so writers of a hot Product (every Warehouse, every sub-bucket) rarely queue on the same row lock
+-- until their commit. A read sums the Product's shards (one primary-key range). The existing totals
+-- become shard 0, which is also where a Product's first write seeds its total.
+CREATE TABLE product_availability_sharded (
+  product_id VARCHAR(64) NOT NULL,
+  shard SMALLINT NOT NULL,
+  unit_of_measure VARCHAR(20) NOT NULL,
+  qty_available BIGINT NOT NULL,
+  last_updated TIMESTAMP WITH TIME ZONE,
+  PRIMARY KEY (product_id, shard)
+);
+
+INSERT INTO product_availability_sharded (product_id, shard, unit_of_measure, qty_available, last_updated)
+SELECT product_id, 0, unit_of_measure, qty_available, last_updated FROM product_availability;
+
+DROP TABLE product_availability;
+ALTER TABLE product_availability_sharded RENAME TO product_availability;
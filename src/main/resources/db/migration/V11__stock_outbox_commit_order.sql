@@ -0,0 +1,5 @@
+-- One sequence value per outbox row (was pooled by 50): with pooling, each instance hands out ids
+-- from its own block, so a Stock's later event could get a LOWER id than its earlier one (written
+-- by another instance) and be relayed first. Unpooled, the events of a Stock - written under its
+-- row lock - get increasing ids in commit order (see StockOutboxRelay).
+ALTER SEQUENCE stock_outbox_seq INCREMENT BY 1;
@@ -0,0 +1,15 @@
+-- Transactional Outbox: Domain Events are written in the SAME transaction as the Stock row,
+-- then relayed to Kafka in the background (see StockOutboxRelay).
+CREATE SEQUENCE IF NOT EXISTS stock_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS stock_outbox (
+  id BIGINT PRIMARY KEY,
+  aggregate_id VARCHAR(64) NOT NULL,
+  event_type VARCHAR(64) NOT NULL,
+  payload TEXT NOT NULL,
+  occurred_on TIMESTAMP WITH TIME ZONE NOT NULL,
+  sent_at TIMESTAMP WITH TIME ZONE
+);
+
+-- The relay only ever scans unsent rows (sent_at IS NULL), in id order
+CREATE INDEX IF NOT EXISTS idx_stock_outbox_unsent ON stock_outbox (sent_at, id);
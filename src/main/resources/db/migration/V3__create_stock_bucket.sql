@@ -0,0 +1,9 @@
+-- Hot-SKU split mode: part of a Stock's ATP is leased out to N sub-bucket rows, so concurrent
+-- reservations for ONE product lock different small rows instead of queueing on stock_inventory.
+-- stock_inventory.qty_reserved includes what is still leased here (see StockRepositoryImpl).
+CREATE TABLE IF NOT EXISTS stock_bucket (
+  stock_id VARCHAR(64) NOT NULL,
+  bucket_no INT NOT NULL,
+  qty_remaining BIGINT NOT NULL,
+  PRIMARY KEY (stock_id, bucket_no)
+);
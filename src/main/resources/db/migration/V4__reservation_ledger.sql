@@ -0,0 +1,10 @@
+-- Reservation ledger: every hold is a row, so an abandoned one can be given back once expires_at
+-- has passed (see ReservationExpiryScheduler). V1 only had product_id / qty / order_id / status.
+ALTER TABLE stock_reservation ADD COLUMN stock_id VARCHAR(64);
+ALTER TABLE stock_reservation ADD COLUMN warehouse_id VARCHAR(50);
+ALTER TABLE stock_reservation ADD COLUMN unit_of_measure VARCHAR(20);
+ALTER TABLE stock_reservation ADD COLUMN expires_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE stock_reservation ALTER COLUMN qty SET DATA TYPE BIGINT;
+
+-- The expiry schedule is rebuilt on startup by paging over the HELD rows in id order
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_status ON stock_reservation (status, id);
@@ -0,0 +1,4 @@
+-- Idempotent ReserveStock: one hold per order line, ever. A retry that got past the in-memory
+-- dedup cache (other instance, evicted entry) fails on this constraint and gets the first hold back.
+-- Holds without an order_id (NULL) are not constrained.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_stock_reservation_order_line ON stock_reservation (order_id, product_id, warehouse_id);
@@ -0,0 +1,12 @@
+-- Cross-warehouse availability: total ATP per Product, kept up to date by the Stock writes
+-- themselves (each one adds its delta), so a read is one primary-key lookup instead of a
+-- GROUP BY over every Warehouse. ATP = qty_on_hand + qty_in_transit - qty_reserved - qty_safety_stock
+-- of each stock_inventory row, plus what its stock_bucket rows still hold (see StockRepositoryImpl).
+-- No backfill here (stock_inventory may not exist yet): a missing row is seeded from the Stock rows
+-- by the first write of that Product, and reads fall back to the sum until then.
+CREATE TABLE IF NOT EXISTS product_availability (
+  product_id VARCHAR(64) PRIMARY KEY,
+  unit_of_measure VARCHAR(20) NOT NULL,
+  qty_available BIGINT NOT NULL,
+  last_updated TIMESTAMP WITH TIME ZONE
+);
@@ -0,0 +1,17 @@
+-- JOURNAL persistence mode (inventory.stock-persistence.mode): a Stock write appends its Domain
+-- Events here instead of rewriting the whole stock_inventory row. stock_inventory becomes the
+-- snapshot: rewritten every 'snapshot-every' events, stock_inventory.journal_seq is the last event
+-- it includes. A Stock = its snapshot + the events after journal_seq, replayed in seq order.
+-- Append-only: rows are never updated (no dead tuples) and stay as the Stock's audit trail.
+-- The PRIMARY KEY is also the write conflict check: two writers of the same Stock cannot append the same seq.
+-- atp_delta: what the event did to the Stock's ATP, so the product_availability seed can add up
+-- the events not in a snapshot yet.
+CREATE TABLE IF NOT EXISTS stock_journal (
+  stock_id VARCHAR(64) NOT NULL,
+  seq BIGINT NOT NULL,
+  event_type VARCHAR(40) NOT NULL,
+  quantity BIGINT NOT NULL,
+  atp_delta BIGINT NOT NULL,
+  occurred_on TIMESTAMP WITH TIME ZONE NOT NULL,
+  PRIMARY KEY (stock_id, seq)
+);
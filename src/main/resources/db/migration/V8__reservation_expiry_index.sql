@@ -0,0 +1,3 @@
+-- Expiry catch-up: the HELD rows past their expires_at, read without scanning the ledger.
+-- Holds taken by an instance that died are on no other instance's schedule (see ReservationExpiryScheduler).
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_expiry ON stock_reservation (status, expires_at);
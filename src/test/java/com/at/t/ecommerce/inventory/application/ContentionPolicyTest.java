@@ -0,0 +1,67 @@
+package com.at.t.ecommerce.inventory.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.at.t.ecommerce.inventory.application.stock.ContentionPolicy;
+import com.at.t.ecommerce.inventory.application.stock.ReservationMetrics;
+import com.at.t.ecommerce.inventory.application.stock.ReservationProperties;
+import com.at.t.ecommerce.inventory.application.stock.ReservationProperties.Mode;
+import com.at.t.ecommerce.inventory.domain.stock.vo.ProductId;
+import com.at.t.ecommerce.inventory.domain.stock.vo.StockKey;
+import com.at.t.ecommerce.inventory.domain.stock.vo.WarehouseId;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ContentionPolicyTest {
+
+    private final StockKey key = StockKey.of(new ProductId("prod-hot"), new WarehouseId("wh-1"));
+
+    @Test
+    @DisplayName("Should retry optimistic conflicts, then escalate a contended Stock and calm it down again")
+    void testAdaptiveEscalation() {
+        // 1. GIVEN: ADAPTIVE, 3 attempts, no backoff, no cool-down
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContentionPolicy policy = new ContentionPolicy(new ReservationProperties(Mode.ADAPTIVE, Map.of(),
+                new ReservationProperties.Contention(3, Duration.ZERO, Duration.ZERO, 0.2, Mode.PESSIMISTIC, Duration.ZERO, 100),
+                Duration.ofMinutes(15), new ReservationProperties.Split(Set.of(), 8, 50),
+                new ReservationProperties.Idempotency(100, Duration.ofMinutes(10), Duration.ofSeconds(5)),
+                new ReservationProperties.Coalescing(false, Duration.ofMillis(1), 256)),
+                new ReservationMetrics(registry));
+        assertThat(policy.modeFor(key, null)).isEqualTo(Mode.LOAD_AND_MERGE);
+
+        // 2. WHEN: Two conflicts before a success
+        AtomicInteger calls = new AtomicInteger();
+        String result = policy.retryOnConflict(key, () -> {
+            if (calls.incrementAndGet() < 3) throw new OptimisticLockingFailureException("stale version");
+            return "reserved";
+        });
+
+        // 3. THEN: Retried transparently
+        assertThat(result).isEqualTo("reserved");
+        assertThat(calls).hasValue(3);
+
+        // 4. AND: A conflict that outlasts every attempt reaches the caller, and the Stock now counts as contended
+        assertThatThrownBy(() -> policy.retryOnConflict(key, () -> {
+            throw new OptimisticLockingFailureException("stale version");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(policy.modeFor(key, null)).isEqualTo(Mode.PESSIMISTIC);
+        assertThat(registry.counter("inventory.reservation.conflicts").count()).isEqualTo(5);
+        assertThat(registry.counter("inventory.reservation.retries").count()).isEqualTo(4);
+
+        // 5. AND: Enough calm reservations bring it back to optimistic
+        for (int i = 0; i < 30; i++) {
+            policy.retryOnConflict(key, () -> "reserved");
+        }
+        assertThat(policy.modeFor(key, null)).isEqualTo(Mode.LOAD_AND_MERGE);
+    }
+}
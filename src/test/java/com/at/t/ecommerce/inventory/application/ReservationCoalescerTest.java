@@ -0,0 +1,186 @@
+package com.at.t.ecommerce.inventory.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.at.t.ecommerce.inventory.application.stock.ReservationCoalescer;
+import com.at.t.ecommerce.inventory.application.stock.ReservationCoalescer.Request;
+import com.at.t.ecommerce.inventory.application.stock.ReservationLine;
+import com.at.t.ecommerce.inventory.application.stock.ReservationOutcome;
+import com.at.t.ecommerce.inventory.application.stock.ReservationProperties;
+import com.at.t.ecommerce.inventory.application.stock.ReservationProperties.Mode;
+import com.at.t.ecommerce.inventory.application.stock.ReservedLine;
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockException;
+import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+class ReservationCoalescerTest {
+
+    private final ProductId pid = new ProductId("prod-hot");
+    private final WarehouseId wid = new WarehouseId("wh-1");
+
+    @Test
+    @DisplayName("Should commit concurrent reservations of one Stock in groups, each caller getting its own answer")
+    void testGroupCommit() throws Exception {
+        // 1. GIVEN: A Stock with 10 items, groups of at most 8 collected for up to 200ms
+        ReservationCoalescer coalescer = coalescer(Duration.ofMillis(200), 8);
+        Stock stock = new StockFactory().createNewStock(pid, wid, new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        List<Integer> groups = new CopyOnWriteArrayList<>();
+
+        // 2. WHEN: 20 callers reserve 1 each at the same time (each group: in order, on the in-memory Stock)
+        int callers = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<ReservationOutcome>> answers = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            answers.add(pool.submit(() -> {
+                start.await();
+                return coalescer.submit(new Request(new ReservationLine(pid, wid, Quantity.of(1, UnitOfMeasure.EACH)), null), group -> {
+                    groups.add(group.size());
+                    synchronized (stock) {
+                        return group.stream().map(request -> reserve(stock, request.line())).toList();
+                    }
+                });
+            }));
+        }
+        start.countDown();
+        List<ReservationOutcome> outcomes = new ArrayList<>();
+        for (Future<ReservationOutcome> answer : answers) outcomes.add(answer.get());
+        pool.shutdown();
+
+        // 3. THEN: Everybody answered, the first 10 reserved, the rest told why not
+        assertThat(outcomes).filteredOn(ReservationOutcome::isSuccess).hasSize(10);
+        assertThat(outcomes).filteredOn(outcome -> !outcome.isSuccess())
+            .hasSize(10)
+            .allSatisfy(outcome -> assertThat(outcome.failure()).isInstanceOf(InsufficientStockException.class));
+        assertThat(stock.getAvailableToPromise().value()).isZero();
+
+        // 4. AND: In far fewer commits than callers, none bigger than the limit
+        assertThat(groups.stream().mapToInt(Integer::intValue).sum()).isEqualTo(callers);
+        assertThat(groups).hasSizeBetween(3, callers / 2).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(8));
+    }
+
+    @Test
+    @DisplayName("Should fail every member of a group whose commit fails")
+    void testGroupFailure() {
+        ReservationCoalescer coalescer = coalescer(Duration.ZERO, 8);
+        Request request = new Request(new ReservationLine(pid, wid, Quantity.of(1, UnitOfMeasure.EACH)), "order-1");
+
+        assertThatThrownBy(() -> coalescer.submit(request, group -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("database down");
+    }
+
+    @Test
+    @DisplayName("Should commit the members one by one when their group commit fails, failing only the culprit")
+    void testGroupFailureFallsBackPerMember() throws Exception {
+        // 1. GIVEN: A group of 3 (closed when full); order-2's line is already in the ledger (another instance took it)
+        ReservationCoalescer coalescer = coalescer(Duration.ofSeconds(5), 3);
+        Stock stock = new StockFactory().createNewStock(pid, wid, new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        List<Integer> commits = new CopyOnWriteArrayList<>();
+
+        // 2. WHEN: They reserve at the same time; any commit that includes order-2 fails on the unique order line
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<Future<ReservationOutcome>> answers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Request request = new Request(new ReservationLine(pid, wid, Quantity.of(1, UnitOfMeasure.EACH)), "order-" + i);
+            answers.add(pool.submit(() -> {
+                start.await();
+                return coalescer.submit(request, group -> {
+                    commits.add(group.size());
+                    if (group.stream().anyMatch(r -> r.orderId().equals("order-2"))) {
+                        throw new DataIntegrityViolationException("duplicate order line");
+                    }
+                    synchronized (stock) {
+                        return group.stream().map(r -> reserve(stock, r.line())).toList();
+                    }
+                });
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+
+        // 3. THEN: The group was tried once, then each member alone
+        assertThat(answers.get(0).get().isSuccess()).isTrue();
+        assertThat(answers.get(2).get().isSuccess()).isTrue();
+        assertThatThrownBy(() -> answers.get(1).get()).hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThat(commits).containsExactly(3, 1, 1, 1);
+        assertThat(stock.getAvailableToPromise().value()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should fail every member, and commit nothing, when the leader is interrupted while collecting")
+    void testLeaderInterrupted() throws Exception {
+        // 1. GIVEN: A leader collecting for 5s, and a second caller that joined its group
+        ReservationCoalescer coalescer = coalescer(Duration.ofSeconds(5), 8);
+        List<Integer> commits = new CopyOnWriteArrayList<>();
+        Function<List<Request>, List<ReservationOutcome>> commit = group -> {
+            commits.add(group.size());
+            return group.stream().map(r -> ReservationOutcome.rejected(r.line(), new IllegalStateException("unexpected"))).toList();
+        };
+        Request request = new Request(new ReservationLine(pid, wid, Quantity.of(1, UnitOfMeasure.EACH)), null);
+        CompletableFuture<ReservationOutcome> leader = new CompletableFuture<>();
+        Thread leaderThread = new Thread(() -> {
+            try {
+                leader.complete(coalescer.submit(request, commit));
+            } catch (RuntimeException e) {
+                leader.completeExceptionally(new CompletionException(e)); // As supplyAsync would
+            }
+        });
+        leaderThread.start();
+        Thread.sleep(100);
+        CompletableFuture<ReservationOutcome> member = CompletableFuture.supplyAsync(() -> coalescer.submit(request, commit));
+        Thread.sleep(100);
+
+        // 2. WHEN: The leader's thread is interrupted (e.g. its executor shuts down)
+        leaderThread.interrupt();
+
+        // 3. THEN: Both callers fail at once, and nothing was committed
+        assertThatThrownBy(() -> leader.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(CancellationException.class);
+        assertThatThrownBy(() -> member.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(CancellationException.class);
+        assertThat(commits).isEmpty();
+    }
+
+    private static ReservationOutcome reserve(Stock stock, ReservationLine line) {
+        try {
+            stock.reserveStock(line.amount());
+            return ReservationOutcome.reserved(new ReservedLine(line, stock.getId(), stock.getAvailableToPromise(), ReservationId.newId()));
+        } catch (StockException e) {
+            return ReservationOutcome.rejected(line, e);
+        }
+    }
+
+    private static ReservationCoalescer coalescer(Duration window, int maxBatch) {
+        return new ReservationCoalescer(new ReservationProperties(Mode.LOAD_AND_MERGE, Map.of(),
+                new ReservationProperties.Contention(3, Duration.ZERO, Duration.ZERO, 0.2, Mode.PESSIMISTIC, Duration.ZERO, 100),
+                Duration.ofMinutes(15), new ReservationProperties.Split(Set.of(), 8, 50),
+                new ReservationProperties.Idempotency(100, Duration.ofMinutes(10), Duration.ofSeconds(5)),
+                new ReservationProperties.Coalescing(true, window, maxBatch)));
+    }
+}
@@ -3,6 +3,8 @@ package com.at.t.ecommerce.inventory.domain;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.List;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -11,6 +13,8 @@ import com.at.t.ecommerce.inventory.domain.stock.enums.LifeCycleStatus;
 import com.at.t.ecommerce.inventory.domain.stock.enums.RotationPolicy;
 import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
 import com.at.t.ecommerce.inventory.domain.stock.enums.VelocityCode;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockEvent;
+import com.at.t.ecommerce.inventory.domain.stock.events.StockLevelLow;
 import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
 import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
@@ -89,4 +93,107 @@ class StockTest {
             .isInstanceOf(InsufficientStockException.class)
             .hasMessageContaining("Insufficient stock");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should move stock through reserve -> allocate -> ship and reject foreign units")
+    void testLifecycleAndUnitGuard() {
+        // 1. GIVEN: 100 On Hand
+        Stock stock = factory.createNewStock(productId, warehouseId, ownerId, unit);
+        stock.receiveStock(Quantity.of(100, unit));
+
+        // 2. WHEN: A full order lifecycle of 30 items
+        stock.reserveStock(Quantity.of(30, unit));
+        stock.allocateStock(Quantity.of(30, unit));
+        stock.confirmShipment(Quantity.of(30, unit));
+
+        // 3. THEN: The buckets add up and the Quantities come back in the Stock's unit
+        assertThat(stock.getQuantityOnHand()).isEqualTo(Quantity.of(70, unit));
+        assertThat(stock.getQuantityReserved()).isEqualTo(Quantity.zero(unit));
+        assertThat(stock.getQuantityAllocated()).isEqualTo(Quantity.zero(unit));
+        assertThat(stock.getAvailableToPromise()).isEqualTo(Quantity.of(70, unit));
+
+        // 4. AND: An amount in another unit is still refused
+        assertThatThrownBy(() -> stock.reserveStock(Quantity.of(1, UnitOfMeasure.KILOGRAM)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unit mismatch");
+    }
+
+    @Test
+    @DisplayName("Should count leased stock in ATP but only reserve the unleased part")
+    void testLeaseToBuckets() {
+        // 1. GIVEN: 100 On Hand, 80 of them leased to sub-buckets
+        Stock stock = factory.createNewStock(productId, warehouseId, ownerId, unit);
+        stock.receiveStock(Quantity.of(100, unit));
+        stock.leaseToBuckets(Quantity.of(80, unit));
+
+        // 2. THEN: The leases still show in ATP, but the row itself can only promise 20
+        assertThat(stock.getAvailableToPromise()).isEqualTo(Quantity.of(100, unit));
+        assertThatThrownBy(() -> stock.reserveStock(Quantity.of(30, unit)))
+            .isInstanceOf(InsufficientStockException.class);
+
+        // 3. WHEN: The sub-buckets hand back what they still hold
+        stock.returnLease(Quantity.of(80, unit));
+        stock.reserveStock(Quantity.of(30, unit));
+
+        // 4. THEN
+        assertThat(stock.getQuantityLeased()).isEqualTo(Quantity.zero(unit));
+        assertThat(stock.getAvailableToPromise()).isEqualTo(Quantity.of(70, unit));
+    }
+
+    @Test
+    @DisplayName("Should raise StockLevelLow once per crossing of the re-order point, with hysteresis")
+    void testLowStockSignal() {
+        // 1. GIVEN: Re-order point 10, max 1000 (re-armed above 10 + 99), 30 On Hand
+        Stock stock = factory.createNewStock(productId, warehouseId, ownerId, unit);
+        stock.receiveStock(Quantity.of(30, unit));
+        stock.pullDomainEvents();
+
+        // 2. WHEN: ATP falls to 10, then hovers around the line (8, 13, 8) and recovers to 108 only
+        stock.reserveStock(Quantity.of(20, unit));
+        List<StockEvent> crossing = stock.pullDomainEvents();
+        stock.reserveStock(Quantity.of(2, unit));
+        stock.releaseStock(Quantity.of(5, unit));
+        stock.reserveStock(Quantity.of(5, unit));
+        stock.receiveStock(Quantity.of(100, unit));
+        stock.reserveStock(Quantity.of(100, unit));
+        List<StockEvent> hovering = stock.pullDomainEvents();
+
+        // 3. THEN: One signal, with the level and the re-order point, and none while hovering
+        assertThat(crossing).filteredOn(StockLevelLow.class::isInstance).singleElement()
+            .isEqualTo(crossing.get(1))
+            .satisfies(event -> {
+                StockLevelLow low = (StockLevelLow) event;
+                assertThat(low.currentLevel()).isEqualTo(Quantity.of(10, unit));
+                assertThat(low.reorderPoint()).isEqualTo(Quantity.of(10, unit));
+                assertThat(low.warehouseId()).isEqualTo(warehouseId);
+            });
+        assertThat(hovering).noneMatch(StockLevelLow.class::isInstance);
+
+        // 4. AND: Once ATP recovered past the margin (110), the next crossing raises it again
+        stock.receiveStock(Quantity.of(102, unit));
+        stock.reserveStock(Quantity.of(100, unit));
+        assertThat(stock.pullDomainEvents()).filteredOn(StockLevelLow.class::isInstance).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should not raise StockLevelLow for moves that stay under the re-order point")
+    void testNoLowStockSignalOnUpwardMove() {
+        // 1. GIVEN: Re-order point 10, an empty Stock
+        Stock stock = factory.createNewStock(productId, warehouseId, ownerId, unit);
+
+        // 2. WHEN: ATP goes 6, 4, 5, 9: receipts and a release move it up, and it never starts above the line
+        stock.receiveStock(Quantity.of(6, unit));
+        stock.reserveStock(Quantity.of(2, unit));
+        stock.releaseStock(Quantity.of(1, unit));
+        stock.receiveStock(Quantity.of(4, unit));
+
+        // 3. THEN: Nothing fell through the re-order point: no signal
+        assertThat(stock.pullDomainEvents()).noneMatch(StockLevelLow.class::isInstance);
+        assertThat(stock.isLowStockSignalled()).isFalse();
+
+        // 4. AND: Once above it, falling back raises it
+        stock.receiveStock(Quantity.of(5, unit));
+        stock.reserveStock(Quantity.of(6, unit));
+        assertThat(stock.pullDomainEvents()).filteredOn(StockLevelLow.class::isInstance).hasSize(1);
+    }
+}
@@ -0,0 +1,33 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.at.t.ecommerce.inventory.infrastructure.expiry.HierarchicalTimingWheel;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    @DisplayName("Should fire every entry on its tick, never early, across wheel levels")
+    void testAdvance() {
+        // 1. GIVEN: 10 ms ticks, 8 slots (level 0 = 80 ms, level 1 = 640 ms, level 2 = 5120 ms)
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        assertThat(wheel.schedule("soon", 25)).isTrue();      // level 0, rounded up to 30
+        assertThat(wheel.schedule("later", 300)).isTrue();    // level 1
+        assertThat(wheel.schedule("much-later", 4000)).isTrue(); // level 2
+        assertThat(wheel.schedule("cancelled", 50)).isTrue();
+        assertThat(wheel.schedule("past", -5)).isFalse();     // Already due: the caller handles it
+
+        // 2. WHEN / THEN: Each entry comes out once, not before its deadline
+        assertThat(wheel.cancel("cancelled")).isTrue();
+        assertThat(wheel.advanceTo(24)).isEmpty();
+        assertThat(wheel.advanceTo(30)).containsExactly("soon");
+        assertThat(wheel.advanceTo(299)).isEmpty();
+        assertThat(wheel.advanceTo(305)).containsExactly("later");
+        assertThat(wheel.advanceTo(3999)).isEmpty();
+        assertThat(wheel.advanceTo(10_000)).containsExactly("much-later");
+        assertThat(wheel.size()).isZero();
+    }
+}
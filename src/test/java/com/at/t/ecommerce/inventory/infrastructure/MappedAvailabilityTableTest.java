@@ -0,0 +1,149 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.cache.MappedAvailabilityTable;
+import com.at.t.ecommerce.inventory.infrastructure.cache.MappedAvailabilityTable.Entry;
+
+class MappedAvailabilityTableTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should keep the newest ATP per Stock, hide stale entries, and find everything again after a reopen")
+    void testPutGetReopen() throws IOException {
+        Path file = dir.resolve("atp.snapshot");
+        StockKey iphone = key("prod-iphone", "wh-texas");
+        StockId iphoneId = StockId.newId();
+
+        // 1. GIVEN: A table with 2 Stocks
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(file, 100)) {
+            assertThat(table.restored()).isFalse();
+            assertThat(table.put(availability(iphoneId, iphone, 40, UnitOfMeasure.EACH), 1_000)).isTrue();
+            assertThat(table.put(availability(StockId.newId(), key("prod-cable", "wh-texas"), 7, UnitOfMeasure.METER), 1_000)).isTrue();
+
+            // 2. WHEN: An older value arrives after a newer one
+            assertThat(table.put(availability(iphoneId, iphone, 35, UnitOfMeasure.EACH), 2_000)).isTrue();
+            assertThat(table.put(availability(iphoneId, iphone, 40, UnitOfMeasure.EACH), 1_500)).isFalse();
+
+            // 3. THEN: The newest one is kept
+            Entry entry = table.get(iphone);
+            assertThat(entry.availability()).isEqualTo(availability(iphoneId, iphone, 35, UnitOfMeasure.EACH));
+            assertThat(entry.asOfMillis()).isEqualTo(2_000);
+            assertThat(entry.stale()).isFalse();
+            assertThat(table.get(key("prod-iphone", "wh-ohio"))).isNull();
+            assertThat(table.put(availability(new StockId("not-a-uuid"), key("prod-x", "wh-texas"), 1, UnitOfMeasure.EACH), 1_000)).isFalse();
+
+            // 4. AND: Marked stale until a newer value is stored
+            table.markStale(iphone, 3_000);
+            assertThat(table.get(iphone).stale()).isTrue();
+            assertThat(table.put(availability(iphoneId, iphone, 30, UnitOfMeasure.EACH), 2_500)).isFalse();
+            assertThat(table.put(availability(iphoneId, iphone, 30, UnitOfMeasure.EACH), 3_000)).isTrue();
+            assertThat(table.size()).isEqualTo(2);
+        }
+
+        // 5. WHEN / THEN: Reopened with the same capacity, the entries are still there
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(file, 100)) {
+            assertThat(table.restored()).isTrue();
+            assertThat(table.size()).isEqualTo(2);
+            assertThat(table.get(iphone).availability().availableToPromise()).isEqualTo(Quantity.of(30, UnitOfMeasure.EACH));
+            assertThat(table.get(key("prod-cable", "wh-texas")).availability().availableToPromise()).isEqualTo(Quantity.of(7, UnitOfMeasure.METER));
+        }
+
+        // 6. AND: Another capacity is another layout: the file starts over
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(file, 1_000)) {
+            assertThat(table.restored()).isFalse();
+            assertThat(table.get(iphone)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop inserting at its load limit while still updating what it holds")
+    void testFull() throws IOException {
+        // 1. GIVEN: 16 slots, so at most 11 Stocks (70%)
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(dir.resolve("full.snapshot"), 10)) {
+            int stored = 0;
+            for (int i = 0; i < 20; i++) {
+                if (table.put(availability(StockId.newId(), key("prod-" + i, "wh-1"), i, UnitOfMeasure.EACH), 1)) stored++;
+            }
+
+            // 2. THEN: The rest is refused, every stored Stock is still found and can change
+            assertThat(stored).isEqualTo(11);
+            assertThat(table.size()).isEqualTo(11);
+            assertThat(table.get(key("prod-3", "wh-1")).availability().availableToPromise().value()).isEqualTo(3);
+            assertThat(table.get(key("prod-15", "wh-1"))).isNull();
+            StockId id = table.get(key("prod-3", "wh-1")).availability().stockId();
+            assertThat(table.put(availability(id, key("prod-3", "wh-1"), 0, UnitOfMeasure.EACH), 2)).isTrue();
+            assertThat(table.get(key("prod-3", "wh-1")).availability().availableToPromise().value()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should neither hang on nor trust a slot a dead writer left half-written")
+    void testTornSlot() throws IOException {
+        Path file = dir.resolve("torn.snapshot");
+        StockKey key = key("prod-torn", "wh-1");
+        StockId id = StockId.newId();
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(file, 10)) {
+            table.put(availability(id, key, 12, UnitOfMeasure.EACH), 1);
+        }
+
+        // 1. GIVEN: The slot's seq left odd, in a file that was closed cleanly
+        tear(file, false);
+
+        // 2. THEN: The read gives up on it (a miss), and the next write repairs it
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(file, 10)) {
+            assertThat(table.restored()).isTrue();
+            assertThat(table.get(key)).isNull();
+            assertThat(table.put(availability(id, key, 11, UnitOfMeasure.EACH), 2)).isTrue();
+            assertThat(table.get(key).availability().availableToPromise().value()).isEqualTo(11);
+        }
+
+        // 3. WHEN: The same, in a file that was never closed (the process died mid-write)
+        tear(file, true);
+
+        // 4. THEN: The whole file is discarded
+        try (MappedAvailabilityTable table = MappedAvailabilityTable.open(file, 10)) {
+            assertThat(table.restored()).isFalse();
+            assertThat(table.get(key)).isNull();
+        }
+    }
+
+    // Layout of MappedAvailabilityTable: 4096-byte header ('open' flag at 40), 64-byte slots (seq at 48)
+    private static void tear(Path file, boolean leftOpen) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer slot = ByteBuffer.allocate(64).order(ByteOrder.nativeOrder());
+            for (long at = 4096; at < channel.size(); at += 64) {
+                slot.clear();
+                channel.read(slot, at);
+                if (slot.getLong(0) != 0 || slot.getLong(8) != 0) {
+                    channel.write(ByteBuffer.allocate(4).order(ByteOrder.nativeOrder()).putInt(0, slot.getInt(48) + 1), at + 48);
+                }
+            }
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.nativeOrder()).putInt(0, leftOpen ? 1 : 0), 40);
+        }
+    }
+
+    private static StockKey key(String productId, String warehouseId) {
+        return StockKey.of(new ProductId(productId), new WarehouseId(warehouseId));
+    }
+
+    private static StockAvailability availability(StockId id, StockKey key, long atp, UnitOfMeasure unit) {
+        return new StockAvailability(id, key, Quantity.of(atp, unit));
+    }
+}
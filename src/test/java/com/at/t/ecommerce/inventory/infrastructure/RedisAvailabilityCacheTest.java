@@ -0,0 +1,81 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityCache.Generation;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.cache.AvailabilityCacheProperties;
+import com.at.t.ecommerce.inventory.infrastructure.cache.RedisAvailabilityCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The eviction guard of the shared cache, on a real Redis (Lua scripts). Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisAvailabilityCacheTest {
+
+    @Container
+    static final GenericContainer<?> redisServer = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private LettuceConnectionFactory connections;
+    private RedisAvailabilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        connections = new LettuceConnectionFactory(redisServer.getHost(), redisServer.getMappedPort(6379));
+        connections.afterPropertiesSet();
+        StringRedisTemplate redis = new StringRedisTemplate(connections);
+        redis.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        AvailabilityCacheProperties properties = new AvailabilityCacheProperties(Duration.ofSeconds(30), "inventory:atp:",
+                new AvailabilityCacheProperties.Near(true, 100, Duration.ofSeconds(2), "inventory:atp:invalidate"));
+        cache = new RedisAvailabilityCache(redis, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        connections.destroy();
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that a commit evicted while it ran")
+    void testEvictedDuringLoad() {
+        StockKey key = StockKey.of(new ProductId("prod-race"), new WarehouseId("wh-1"));
+        StockId id = StockId.newId();
+
+        // 1. GIVEN: A miss starts loading (ATP 10 in the database)
+        Generation generation = cache.generation(key);
+
+        // 2. WHEN: A reservation commits (ATP 7) and evicts the key, THEN the load puts what it read
+        cache.evict(key);
+        cache.put(availability(id, key, 10), generation);
+
+        // 3. THEN: The old value is not cached
+        assertThat(cache.get(key)).isEmpty();
+
+        // 4. AND: The next load, started after the eviction, is
+        Generation next = cache.generation(key);
+        cache.put(availability(id, key, 7), next);
+        assertThat(cache.get(key)).contains(availability(id, key, 7));
+    }
+
+    private static StockAvailability availability(StockId id, StockKey key, long atp) {
+        return new StockAvailability(id, key, Quantity.of(atp, UnitOfMeasure.EACH));
+    }
+}
@@ -0,0 +1,144 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.at.t.ecommerce.inventory.application.stock.ReadConsistency;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.routing.ReadReplicaProperties;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.routing.ReplicaLagMonitor;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.routing.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("routing-primary");
+    private final DataSource replica = database("routing-replica");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ReplicaLagMonitor monitor;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        // Each database says where it is; write / replay positions and lag come from tables we control
+        new JdbcTemplate(primary).execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20)); DELETE FROM node; INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20)); DELETE FROM node; INSERT INTO node VALUES ('replica')");
+        new JdbcTemplate(primary).execute("CREATE TABLE IF NOT EXISTS wal (pos BIGINT); DELETE FROM wal; INSERT INTO wal VALUES (1)");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS replay (pos BIGINT, seconds DOUBLE, in_recovery BOOLEAN); "
+                + "DELETE FROM replay; INSERT INTO replay VALUES (1, 0, TRUE)");
+
+        ReadReplicaProperties properties = new ReadReplicaProperties(true, List.of(), Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 2, "SELECT CAST(pos AS VARCHAR) FROM wal",
+                "SELECT CASE WHEN NOT in_recovery THEN NULL WHEN pos >= CAST(? AS BIGINT) THEN 0 ELSE seconds END FROM replay");
+        monitor = new ReplicaLagMonitor(primary, List.of("replica-0"), List.of(replica), properties, registry);
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), monitor, registry);
+        router.afterPropertiesSet();
+        DataSource routed = new LazyConnectionDataSourceProxy(router);
+        DataSourceTransactionManager transactions = new DataSourceTransactionManager(routed);
+        writes = new TransactionTemplate(transactions);
+        reads = new TransactionTemplate(transactions);
+        reads.setReadOnly(true);
+        jdbc = new JdbcTemplate(routed);
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a replica within max-lag, everything else to the primary")
+    void testRouting() {
+        // 1. GIVEN: A replica that has not been checked yet: not trusted
+        assertThat(readOnly()).isEqualTo("primary");
+
+        // 2. WHEN: Its lag check passes
+        monitor.check();
+
+        // 3. THEN: Reads go to it, writes (and reads inside them) stay on the primary
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(readWrite()).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+
+        // 4. AND: A request that asked for read-your-writes reads from the primary
+        assertThat(ReadConsistency.primary(() -> readOnly())).isEqualTo("primary");
+        assertThat(registry.counter("inventory.datasource.route", "target", "replica", "reason", "read_only").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags, and come back once it caught up")
+    void testLagGuard() {
+        monitor.check();
+        assertThat(readOnly()).isEqualTo("replica");
+
+        // 1. WHEN: The primary moves on and the replica falls 5s behind (max-lag 1s)
+        new JdbcTemplate(primary).update("UPDATE wal SET pos = 2");
+        new JdbcTemplate(replica).update("UPDATE replay SET seconds = 5");
+        monitor.check();
+
+        // 2. THEN: Reads go to the primary
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(registry.get("inventory.datasource.replica.usable").gauge().value()).isZero();
+
+        // 3. AND: Back once it caught up
+        new JdbcTemplate(replica).update("UPDATE replay SET pos = 2");
+        monitor.check();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should not trust a replica that stopped receiving, was promoted, or cannot be compared with the primary")
+    void testDetachedReplica() {
+        monitor.check();
+        assertThat(readOnly()).isEqualTo("replica");
+
+        // 1. WHEN: The primary moves on, the replica's receiver is cut off (it has replayed all it received)
+        new JdbcTemplate(primary).update("UPDATE wal SET pos = 2");
+        new JdbcTemplate(replica).update("UPDATE replay SET seconds = 30");
+        monitor.check();
+
+        // 2. THEN: It is behind the primary, not up to date
+        assertThat(readOnly()).isEqualTo("primary");
+
+        // 3. WHEN / THEN: Promoted, it is no replica of this primary any more, whatever its position
+        new JdbcTemplate(replica).update("UPDATE replay SET pos = 2, in_recovery = FALSE");
+        monitor.check();
+        assertThat(readOnly()).isEqualTo("primary");
+
+        // 4. WHEN / THEN: Without the primary's position, nothing can be compared
+        new JdbcTemplate(replica).update("UPDATE replay SET in_recovery = TRUE");
+        monitor.check();
+        assertThat(readOnly()).isEqualTo("replica");
+        new JdbcTemplate(primary).execute("DROP TABLE wal");
+        monitor.check();
+        assertThat(readOnly()).isEqualTo("primary");
+    }
+
+    private String readOnly() {
+        return reads.execute(status -> node());
+    }
+
+    private String readWrite() {
+        return writes.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
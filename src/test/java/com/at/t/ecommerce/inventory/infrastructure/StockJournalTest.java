@@ -0,0 +1,102 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJournalJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockJournalRepository;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockRepository;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "inventory.stock-persistence.mode=JOURNAL",
+    "inventory.stock-persistence.snapshot-every=4"
+})
+@Import({
+    com.at.t.ecommerce.inventory.infrastructure.mappers.StockMapper.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockRepositoryImpl.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.ProductAvailabilityWriter.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockJournal.class,
+    io.micrometer.core.instrument.simple.SimpleMeterRegistry.class
+})
+class StockJournalTest {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private SpringDataStockRepository rows;
+
+    @Autowired
+    private SpringDataStockJournalRepository journal;
+
+    private final StockFactory factory = new StockFactory();
+
+    @Test
+    @DisplayName("Should append events and rebuild the Stock from its last snapshot plus the journal tail")
+    void testSnapshotPlusTail() {
+        // 1. GIVEN: 100 received (re-order point 10)
+        Stock stock = factory.createNewStock(new ProductId("prod-journal"), new WarehouseId("wh-1"), new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(100, UnitOfMeasure.EACH));
+        StockId id = stockRepository.save(stock).getId();
+
+        // 2. WHEN: 4 reservations of 25, each one loaded, reserved and saved (the last one empties it)
+        for (int i = 0; i < 4; i++) {
+            Stock locked = stockRepository.findByIdForUpdate(id).orElseThrow();
+            locked.reserveStock(Quantity.of(25, UnitOfMeasure.EACH));
+            stockRepository.save(locked);
+        }
+
+        // 3. THEN: Every event is in the journal, in order
+        assertThat(journal.findAll(Sort.by("seq")))
+            .filteredOn(row -> row.getStockId().equals(id.value()))
+            .extracting(StockJournalJpaEntity::getEventType)
+            .containsExactly("StockReceived", "StockReserved", "StockReserved", "StockReserved", "StockReserved", "StockLevelLow");
+
+        // 4. AND: The row is the snapshot after 4 events (received + 3 reservations), the rest is replayed on load
+        assertThat(rows.findById(id.value())).get()
+            .satisfies(row -> {
+                assertThat(row.getJournalSeq()).isEqualTo(4);
+                assertThat(row.getQuantityReserved()).isEqualTo(75);
+            });
+        Stock reloaded = stockRepository.findById(id).orElseThrow();
+        assertThat(reloaded.getQuantityReserved().value()).isEqualTo(100);
+        assertThat(reloaded.getAvailableToPromise().value()).isZero();
+        assertThat(reloaded.isLowStockSignalled()).isTrue();
+        assertThat(reloaded.getVersion()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should reject the save of a copy loaded before another write")
+    void testStaleCopyConflicts() {
+        // 1. GIVEN: Two copies of the same Stock
+        Stock stock = factory.createNewStock(new ProductId("prod-stale"), new WarehouseId("wh-1"), new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(50, UnitOfMeasure.EACH));
+        StockId id = stockRepository.save(stock).getId();
+        Stock first = stockRepository.findById(id).orElseThrow();
+        Stock second = stockRepository.findById(id).orElseThrow();
+
+        // 2. WHEN: Both reserve, the first one saves
+        first.reserveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        second.reserveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        stockRepository.save(first);
+
+        // 3. THEN: The second one would append after an event it never saw
+        assertThatThrownBy(() -> stockRepository.save(second))
+            .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(stockRepository.findById(id).orElseThrow().getQuantityReserved().value()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,244 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.at.t.ecommerce.inventory.infrastructure.outbox.OutboxProperties;
+import com.at.t.ecommerce.inventory.infrastructure.outbox.StockOutboxRelay;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockOutboxJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockOutboxRepository;
+
+@DataJpaTest(properties = {
+    // The dev profile pins the PostgreSQL dialect; H2 needs its own for "FOR UPDATE SKIP LOCKED"
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // The relay commits its own batches
+class StockOutboxRelayTest {
+
+    @Autowired
+    private SpringDataStockOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void emptyOutbox() {
+        outboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should mark the events as sent only once the broker acknowledged them")
+    void testMarkAfterAck() throws Exception {
+        // 1. GIVEN: 3 unsent events, and a broker that has not answered yet
+        List<Long> ids = insert(3);
+        MockProducer<String, String> broker = broker(false);
+        StockOutboxRelay relay = relay(broker, 10);
+
+        // 2. WHEN: The relay has sent them
+        CompletableFuture<Void> run = CompletableFuture.runAsync(relay::relay);
+        awaitSends(broker, 3);
+
+        // 3. THEN: Nothing is marked before the acks...
+        assertThat(unsent()).containsExactlyElementsOf(ids);
+        assertThat(broker.history()).extracting(ProducerRecord::topic).containsOnly("inventory.stock-events");
+
+        // 4. ...and everything once they came back
+        while (broker.completeNext()) ;
+        run.get(5, TimeUnit.SECONDS);
+        assertThat(unsent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave a failed send and the events after it unsent, and send them again on the next run")
+    void testFailedSendRetried() throws Exception {
+        // 1. GIVEN: 3 unsent events; the broker acknowledges the 1st and 3rd, not the 2nd
+        List<Long> ids = insert(3);
+        MockProducer<String, String> broker = broker(false);
+        StockOutboxRelay relay = relay(broker, 10);
+        CompletableFuture<Void> run = CompletableFuture.runAsync(relay::relay);
+        awaitSends(broker, 3);
+        broker.completeNext();
+        broker.errorNext(new TimeoutException("broker down"));
+        broker.completeNext();
+        run.get(5, TimeUnit.SECONDS);
+
+        // 2. THEN: Only the 1st is marked: the 3rd may be a later event of the same Stock
+        assertThat(unsent()).containsExactly(ids.get(1), ids.get(2));
+
+        // 3. WHEN: The next run gets its acks
+        run = CompletableFuture.runAsync(relay::relay);
+        awaitSends(broker, 5);
+        while (broker.completeNext()) ;
+        run.get(5, TimeUnit.SECONDS);
+
+        // 4. THEN: The 2 events went out again, in order, and are marked now
+        assertThat(broker.history()).extracting(ProducerRecord::key)
+                .containsExactly("stock-1", "stock-2", "stock-3", "stock-2", "stock-3");
+        assertThat(unsent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should never send an event twice when two relays drain the outbox at the same time")
+    void testTwoRelays() throws Exception {
+        // 1. GIVEN: 10 unsent events; relay A locked the first 5 and waits for its broker
+        insert(10);
+        MockProducer<String, String> brokerA = broker(false);
+        MockProducer<String, String> brokerB = broker(true);
+        CompletableFuture<Void> runA = CompletableFuture.runAsync(relay(brokerA, 5)::relay);
+        awaitSends(brokerA, 5);
+
+        // 2. WHEN: Relay B runs meanwhile, against a broker that answers at once, then A gets its acks
+        relay(brokerB, 5).relay();
+        while (!runA.isDone()) {
+            brokerA.completeNext();
+            Thread.sleep(10);
+        }
+        runA.get();
+
+        // 3. THEN: B skipped A's rows (and took the rest, where the database lets it): every event went out exactly once
+        assertThat(brokerA.history()).extracting(ProducerRecord::key)
+                .startsWith("stock-1", "stock-2", "stock-3", "stock-4", "stock-5");
+        assertThat(Stream.concat(brokerA.history().stream(), brokerB.history().stream()).map(ProducerRecord::key))
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, 10).mapToObj(i -> "stock-" + i).toList());
+        assertThat(unsent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not let a relay publish a Stock's event while another relay holds an earlier one")
+    void testPerStockOrderAcrossRelays() {
+        // 1. GIVEN: 3 events of stock-1 and 2 of stock-9; another relay holds stock-1's first event
+        List<Long> ids = insert("stock-1", 3);
+        List<Long> others = insert("stock-9", 2).subList(3, 5);
+        MockProducer<String, String> broker = broker(true);
+
+        // 2. WHEN: This relay runs, skipping the held row
+        relay(skipping(Set.of(ids.get(0))), broker, 10).relay();
+
+        // 3. THEN: It published stock-9 only: stock-1's later events would have overtaken the held one
+        assertThat(broker.history()).extracting(ProducerRecord::key).containsExactly("stock-9", "stock-9");
+        assertThat(unsent()).containsExactlyElementsOf(ids).doesNotContainAnyElementsOf(others);
+
+        // 4. AND: Once nothing is held, stock-1's events go out in order
+        relay(broker, 10).relay();
+        assertThat(broker.history().subList(2, 5)).extracting(ProducerRecord::value)
+                .containsExactly("{\"seq\":1}", "{\"seq\":2}", "{\"seq\":3}");
+        assertThat(unsent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should purge only the events sent longer ago than the retention")
+    void testPurge() {
+        // 1. GIVEN: 4 events: 2 sent 2 days ago, 1 sent just now, 1 unsent (retention: 1 day)
+        List<Long> ids = insert(4);
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        jdbcTemplate.update("UPDATE stock_outbox SET sent_at = ? WHERE id IN (?, ?)", Timestamp.from(old), ids.get(0), ids.get(1));
+        jdbcTemplate.update("UPDATE stock_outbox SET sent_at = ? WHERE id = ?", Timestamp.from(Instant.now()), ids.get(2));
+
+        // 2. WHEN: The purge runs (in batches of 1)
+        relay(broker(true), 1).purge();
+
+        // 3. THEN: Only the old sent events are gone
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM stock_outbox ORDER BY id", Long.class))
+                .containsExactly(ids.get(2), ids.get(3));
+    }
+
+    // Acks are given by the test (completeNext / errorNext) unless autoComplete
+    private static MockProducer<String, String> broker(boolean autoComplete) {
+        return new MockProducer<>(autoComplete, new StringSerializer(), new StringSerializer()) {
+            @Override
+            public void close(Duration timeout) {
+                // KafkaTemplate closes its producer after each send: keep this one for the next run
+            }
+        };
+    }
+
+    private StockOutboxRelay relay(MockProducer<String, String> broker, int batchSize) {
+        return relay(outboxRepository, broker, batchSize);
+    }
+
+    private StockOutboxRelay relay(SpringDataStockOutboxRepository repository, MockProducer<String, String> broker, int batchSize) {
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(new MockProducerFactory<>(() -> broker));
+        OutboxProperties properties = new OutboxProperties("inventory.stock-events", batchSize, Duration.ofSeconds(5), "none", Duration.ZERO,
+                Duration.ofDays(1));
+        return new StockOutboxRelay(repository, template, properties, transactionManager);
+    }
+
+    // The outbox as PostgreSQL's SKIP LOCKED shows it while another relay holds 'held'
+    // (H2 returns no row at all once one of them is locked)
+    @SuppressWarnings("unchecked")
+    private SpringDataStockOutboxRepository skipping(Set<Long> held) {
+        return (SpringDataStockOutboxRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {SpringDataStockOutboxRepository.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(outboxRepository, args);
+                    if (!method.getName().equals("lockNextUnsent")) return result;
+                    return ((List<StockOutboxJpaEntity>) result).stream().filter(row -> !held.contains(row.getId())).toList();
+                });
+    }
+
+    // One event per Stock, keyed stock-1..stock-n
+    private List<Long> insert(int count) {
+        for (int i = 1; i <= count; i++) {
+            StockOutboxJpaEntity row = new StockOutboxJpaEntity();
+            row.setAggregateId("stock-" + i);
+            row.setEventType("StockReceived");
+            row.setPayload("{}");
+            row.setOccurredOn(Instant.now());
+            outboxRepository.save(row);
+        }
+        return unsent();
+    }
+
+    // 'count' events of one Stock, payloads {"seq":1}..{"seq":count}
+    private List<Long> insert(String aggregateId, int count) {
+        for (int i = 1; i <= count; i++) {
+            StockOutboxJpaEntity row = new StockOutboxJpaEntity();
+            row.setAggregateId(aggregateId);
+            row.setEventType("StockReserved");
+            row.setPayload("{\"seq\":" + i + "}");
+            row.setOccurredOn(Instant.now());
+            outboxRepository.save(row);
+        }
+        return unsent();
+    }
+
+    private List<Long> unsent() {
+        return jdbcTemplate.queryForList("SELECT id FROM stock_outbox WHERE sent_at IS NULL ORDER BY id", Long.class);
+    }
+
+    private static void awaitSends(MockProducer<String, String> broker, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (broker.history().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(broker.history()).hasSize(count);
+    }
+}
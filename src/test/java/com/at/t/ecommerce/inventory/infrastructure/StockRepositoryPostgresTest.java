@@ -0,0 +1,69 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
+import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+
+/**
+ * What H2 cannot run: UPDATE ... RETURNING (the ATOMIC reservation). Skipped without Docker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({
+    com.at.t.ecommerce.inventory.infrastructure.mappers.StockMapper.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockRepositoryImpl.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.ProductAvailabilityWriter.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockJournal.class,
+    io.micrometer.core.instrument.simple.SimpleMeterRegistry.class
+})
+class StockRepositoryPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private final StockFactory factory = new StockFactory();
+
+    @Test
+    @DisplayName("Should return the reserved row, not the copy loaded earlier in the same transaction")
+    void testReserveAtomicallyAfterLoad() {
+        // 1. GIVEN: 50 On Hand, already loaded in this transaction (as the velocity lookup and a retry do)
+        ProductId product = new ProductId("prod-atomic");
+        WarehouseId warehouse = new WarehouseId("wh-1");
+        Stock stock = factory.createNewStock(product, warehouse, new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(50, UnitOfMeasure.EACH));
+        stockRepository.save(stock);
+        Stock loaded = stockRepository.findByProductAndWarehouse(product, warehouse).orElseThrow();
+
+        // 2. WHEN: Reserved twice with the single-statement UPDATE
+        Stock first = stockRepository.reserveAtomically(product, warehouse, Quantity.of(10, UnitOfMeasure.EACH)).orElseThrow();
+        Stock second = stockRepository.reserveAtomically(product, warehouse, Quantity.of(5, UnitOfMeasure.EACH)).orElseThrow();
+
+        // 3. THEN: Each one reports the ATP it left, and the version moved on
+        assertThat(first.getAvailableToPromise().value()).isEqualTo(40);
+        assertThat(second.getAvailableToPromise().value()).isEqualTo(35);
+        assertThat(second.getVersion()).isGreaterThan(loaded.getVersion());
+        assertThat(stockRepository.findByProductAndWarehouse(product, warehouse).orElseThrow()
+                .getQuantityReserved().value()).isEqualTo(15);
+    }
+}
@@ -2,13 +2,23 @@ package com.at.t.ecommerce.inventory.infrastructure;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 // Docker imports are GONE. We just use standard JPA classes.
 import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
@@ -16,17 +26,40 @@ import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
 import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
 import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockBucketJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.entities.StockJpaEntity;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockBucketRepository;
 
-@DataJpaTest // This automatically configures H2 for us!
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+    // The dev profile pins the PostgreSQL dialect; H2 needs its own for "FOR UPDATE" queries
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+}) // This automatically configures H2 for us!
 @Import({
     com.at.t.ecommerce.inventory.infrastructure.mappers.StockMapper.class, 
-    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockRepositoryImpl.class
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockRepositoryImpl.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.ProductAvailabilityWriter.class,
+    com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.StockJournal.class,
+    io.micrometer.core.instrument.simple.SimpleMeterRegistry.class // No actuator in a JPA slice
 })
 class StockRepositoryTest {
 
     @Autowired
     private StockRepository stockRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SpringDataStockBucketRepository bucketRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     // We can use the factory safely
     private final StockFactory factory = new StockFactory();
 
@@ -55,4 +88,185 @@ class StockRepositoryTest {
         assertThat(found.get().getId()).isNotNull();
         assertThat(found.get().getWarehouseId().value()).isEqualTo("wh-h2-test");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should load exactly the requested keys, locked in Stock ID order")
+    void testFindAllForUpdate() {
+        // 1. GIVEN: A@w1, B@w2 and a "cross product" row A@w2 that was NOT requested
+        ProductId a = new ProductId("prod-a");
+        ProductId b = new ProductId("prod-b");
+        WarehouseId w1 = new WarehouseId("wh-1");
+        WarehouseId w2 = new WarehouseId("wh-2");
+        stockRepository.save(factory.createNewStock(a, w1, new Owner("owner-1"), UnitOfMeasure.EACH));
+        stockRepository.save(factory.createNewStock(b, w2, new Owner("owner-1"), UnitOfMeasure.EACH));
+        stockRepository.save(factory.createNewStock(a, w2, new Owner("owner-1"), UnitOfMeasure.EACH));
+
+        // 2. WHEN
+        List<Stock> locked = stockRepository.findAllForUpdate(List.of(StockKey.of(a, w1), StockKey.of(b, w2)));
+
+        // 3. THEN
+        assertThat(locked).extracting(s -> StockKey.of(s.getProductId(), s.getWarehouseId()))
+            .containsExactlyInAnyOrder(StockKey.of(a, w1), StockKey.of(b, w2));
+        assertThat(locked).extracting(s -> s.getId().value()).isSorted();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Locks are held by one transaction, probed from another
+    @DisplayName("Should leave the unrequested cross-product rows unlocked")
+    void testFindAllForUpdateLocksOnlyRequestedPairs() throws Exception {
+        // 1. GIVEN: A@w1 and B@w2 requested, A@w2 is not
+        ProductId a = new ProductId("prod-lock-a");
+        ProductId b = new ProductId("prod-lock-b");
+        WarehouseId w1 = new WarehouseId("wh-1");
+        WarehouseId w2 = new WarehouseId("wh-2");
+        stockRepository.save(factory.createNewStock(a, w1, new Owner("owner-1"), UnitOfMeasure.EACH));
+        stockRepository.save(factory.createNewStock(b, w2, new Owner("owner-1"), UnitOfMeasure.EACH));
+        Stock unrequested = stockRepository.save(factory.createNewStock(a, w2, new Owner("owner-1"), UnitOfMeasure.EACH));
+
+        // 2. WHEN: The pairs are locked, and another transaction writes A@w2 meanwhile
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(stockRepository.findAllForUpdate(List.of(StockKey.of(a, w1), StockKey.of(b, w2)))).hasSize(2);
+            CompletableFuture<Integer> write = CompletableFuture.supplyAsync(() -> new TransactionTemplate(transactionManager).execute(other ->
+                    jdbcTemplate.update("UPDATE stock_inventory SET qty_on_hand = 1 WHERE stock_id = ?", unrequested.getId().value())));
+
+            // 3. THEN: It does not wait for our locks
+            assertThat(write).succeedsWithin(Duration.ofSeconds(2)).isEqualTo(1);
+        });
+    }
+
+    @Test
+    @DisplayName("Should lock the current row even when an older copy was loaded earlier in the transaction")
+    void testLockAfterPlainLoad() {
+        // 1. GIVEN: 50 On Hand, loaded (as the velocity lookup does), then changed by another writer
+        ProductId product = new ProductId("prod-preloaded");
+        WarehouseId warehouse = new WarehouseId("wh-1");
+        Stock stock = factory.createNewStock(product, warehouse, new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(50, UnitOfMeasure.EACH));
+        stockRepository.save(stock);
+        Stock preloaded = stockRepository.findByProductAndWarehouse(product, warehouse).orElseThrow();
+        jdbcTemplate.update("UPDATE stock_inventory SET qty_reserved = 45, version = version + 1 WHERE stock_id = ?", preloaded.getId().value());
+
+        // 2. WHEN: Locked, by key and by ID
+        Stock byKey = stockRepository.findAllForUpdate(List.of(StockKey.of(product, warehouse))).get(0);
+        Stock byId = stockRepository.findByIdForUpdate(preloaded.getId()).orElseThrow();
+
+        // 3. THEN: Both are the row as committed, so a save does not conflict and the low-stock check sees 5
+        assertThat(byKey.getAvailableToPromise().value()).isEqualTo(5);
+        assertThat(byKey.getVersion()).isEqualTo(preloaded.getVersion() + 1);
+        assertThat(byId.getAvailableToPromise().value()).isEqualTo(5);
+        byId.reserveStock(Quantity.of(5, UnitOfMeasure.EACH));
+        assertThat(stockRepository.save(byId).getAvailableToPromise().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reserve from a sub-bucket without touching the Stock row")
+    void testReserveFromBucket() {
+        // 1. GIVEN: 100 On Hand, 40 leased to two sub-buckets of 20
+        ProductId hot = new ProductId("prod-hot");
+        WarehouseId wh = new WarehouseId("wh-1");
+        Stock stock = factory.createNewStock(hot, wh, new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(100, UnitOfMeasure.EACH));
+        stock.leaseToBuckets(Quantity.of(40, UnitOfMeasure.EACH));
+        Stock saved = stockRepository.save(stock);
+        stockRepository.saveBuckets(saved.getId(), new long[] {20, 20});
+
+        // 2. WHEN: 15 fit in bucket 0, 25 do not fit in bucket 1
+        boolean first = stockRepository.reserveFromBucket(saved, 0, Quantity.of(15, UnitOfMeasure.EACH));
+        boolean second = stockRepository.reserveFromBucket(saved, 1, Quantity.of(25, UnitOfMeasure.EACH));
+
+        // 3. THEN: The sub-bucket already in the persistence context shows the UPDATE, the Stock there was kept
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(bucketRepository.findById(new StockBucketJpaEntity.Key(saved.getId().value(), 0)))
+                .get().extracting(StockBucketJpaEntity::getRemaining).isEqualTo(5L);
+        assertThat(entityManager.contains(entityManager.getReference(StockJpaEntity.class, saved.getId().value()))).isTrue();
+
+        // 4. AND: The aggregated view adds the sub-buckets back up
+        Stock reloaded = stockRepository.findByProductAndWarehouse(hot, wh).orElseThrow();
+        assertThat(reloaded.getQuantityReserved().value()).isEqualTo(15);
+        assertThat(reloaded.getQuantityLeased().value()).isEqualTo(25);
+        assertThat(reloaded.getAvailableToPromise().value()).isEqualTo(85);
+        assertThat(stockRepository.lockBuckets(saved.getId())).containsExactly(5, 20);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // The total is applied on commit: let each write commit
+    @DisplayName("Should keep the cross-warehouse total in step with every write")
+    void testProductAvailabilityAcrossWarehouses() {
+        // 1. GIVEN: 100 On Hand in Warehouse 1, 50 in Warehouse 2
+        ProductId product = new ProductId("prod-total");
+        Stock first = factory.createNewStock(product, new WarehouseId("wh-1"), new Owner("owner-1"), UnitOfMeasure.EACH);
+        first.receiveStock(Quantity.of(100, UnitOfMeasure.EACH));
+        first = stockRepository.save(first);
+        Stock second = factory.createNewStock(product, new WarehouseId("wh-2"), new Owner("owner-1"), UnitOfMeasure.EACH);
+        second.receiveStock(Quantity.of(50, UnitOfMeasure.EACH));
+        stockRepository.save(second);
+        assertThat(stockRepository.findProductAvailability(product)).contains(Quantity.of(150, UnitOfMeasure.EACH));
+
+        // 2. WHEN: 30 reserved in Warehouse 1, 40 leased to sub-buckets (still ATP), 15 reserved from one of them
+        first.reserveStock(Quantity.of(30, UnitOfMeasure.EACH));
+        first.leaseToBuckets(Quantity.of(40, UnitOfMeasure.EACH));
+        first = stockRepository.save(first);
+        stockRepository.saveBuckets(first.getId(), new long[] {20, 20});
+        stockRepository.reserveFromBucket(first, 0, Quantity.of(15, UnitOfMeasure.EACH));
+
+        // 3. THEN: 150 - 30 - 15, same as adding up every Warehouse
+        assertThat(stockRepository.findProductAvailability(product)).contains(Quantity.of(105, UnitOfMeasure.EACH));
+        assertThat(stockRepository.findProductAvailability(new ProductId("prod-unknown"))).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Each write commits on its own
+    @DisplayName("Should spread a Product's total over its shard rows and add them up on read")
+    void testProductAvailabilityShards() {
+        // 1. GIVEN: A Stock with 200 On Hand
+        ProductId product = new ProductId("prod-sharded");
+        Stock stock = factory.createNewStock(product, new WarehouseId("wh-1"), new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(200, UnitOfMeasure.EACH));
+        stockRepository.save(stock);
+
+        // 2. WHEN: 20 reservations commit one after the other
+        for (int i = 0; i < 20; i++) {
+            Stock current = stockRepository.findByProductAndWarehouse(product, new WarehouseId("wh-1")).orElseThrow();
+            current.reserveStock(Quantity.of(3, UnitOfMeasure.EACH));
+            stockRepository.save(current);
+        }
+
+        // 3. THEN: They went to several rows (8 shards by default), which still add up to the exact total
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_availability WHERE product_id = ?",
+                Integer.class, product.value())).isGreaterThan(1);
+        assertThat(stockRepository.findProductAvailability(product)).contains(Quantity.of(140, UnitOfMeasure.EACH));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should add onto the total another transaction seeded first, instead of failing on its row")
+    void testConcurrentSeed() throws Exception {
+        // 1. GIVEN: Another writer has inserted the Product's total (100, from its own Stock) but not committed yet
+        ProductId product = new ProductId("prod-seed-race");
+        CountDownLatch inserted = new CountDownLatch(1);
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO product_availability (product_id, shard, unit_of_measure, qty_available) VALUES (?, 0, 'EACH', 100)", product.value());
+            inserted.countDown();
+            sleep(300); // Commits while the save below waits on the row
+        }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 2. WHEN: The first Stock of that Product in another Warehouse commits too (it found no total to add to)
+        Stock stock = factory.createNewStock(product, new WarehouseId("wh-2"), new Owner("owner-1"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(30, UnitOfMeasure.EACH));
+        stockRepository.save(stock);
+        other.get(5, TimeUnit.SECONDS);
+
+        // 3. THEN: Its delta went onto the other writer's row
+        assertThat(stockRepository.findProductAvailability(product)).contains(Quantity.of(130, UnitOfMeasure.EACH));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
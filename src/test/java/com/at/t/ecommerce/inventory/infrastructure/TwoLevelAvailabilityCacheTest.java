@@ -0,0 +1,75 @@
+package com.at.t.ecommerce.inventory.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityCache.Generation;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.vo.*;
+import com.at.t.ecommerce.inventory.infrastructure.cache.AvailabilityCacheProperties;
+import com.at.t.ecommerce.inventory.infrastructure.cache.RedisAvailabilityCache;
+import com.at.t.ecommerce.inventory.infrastructure.cache.TwoLevelAvailabilityCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The near cache on its own: Redis is unreachable (every call to it fails open).
+ */
+class TwoLevelAvailabilityCacheTest {
+
+    private final LettuceConnectionFactory connections = unreachableRedis();
+    private final TwoLevelAvailabilityCache cache = twoLevelCache(connections);
+
+    @AfterEach
+    void tearDown() {
+        connections.destroy();
+    }
+
+    @Test
+    @DisplayName("Should not fill the near cache with a load that a commit evicted while it ran")
+    void testEvictedDuringLoad() {
+        StockKey key = StockKey.of(new ProductId("prod-race"), new WarehouseId("wh-1"));
+        StockId id = StockId.newId();
+
+        // 1. GIVEN: A miss starts loading (ATP 10 in the database)
+        Generation generation = cache.generation(key);
+
+        // 2. WHEN: A reservation commits (ATP 7) and evicts the key, THEN the load puts what it read
+        cache.evict(key);
+        cache.put(availability(id, key, 10), generation);
+
+        // 3. THEN: The old value is not cached
+        assertThat(cache.get(key)).isEmpty();
+
+        // 4. AND: The next load, started after the eviction, is
+        cache.put(availability(id, key, 7), cache.generation(key));
+        assertThat(cache.get(key)).contains(availability(id, key, 7));
+    }
+
+    private static LettuceConnectionFactory unreachableRedis() {
+        LettuceConnectionFactory connections = new LettuceConnectionFactory("localhost", 1);
+        connections.afterPropertiesSet();
+        return connections;
+    }
+
+    private static TwoLevelAvailabilityCache twoLevelCache(LettuceConnectionFactory connections) {
+        AvailabilityCacheProperties properties = new AvailabilityCacheProperties(Duration.ofSeconds(30), "inventory:atp:",
+                new AvailabilityCacheProperties.Near(true, 100, Duration.ofSeconds(2), "inventory:atp:invalidate"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StringRedisTemplate redis = new StringRedisTemplate(connections);
+        return new TwoLevelAvailabilityCache(new RedisAvailabilityCache(redis, properties, registry), redis, properties,
+                event -> { }, registry);
+    }
+
+    private static StockAvailability availability(StockId id, StockKey key, long atp) {
+        return new StockAvailability(id, key, Quantity.of(atp, UnitOfMeasure.EACH));
+    }
+}
@@ -0,0 +1,193 @@
+package com.at.t.ecommerce.inventory.interfaces.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.at.t.ecommerce.inventory.interfaces.grpc.interceptors.AdmissionControlInterceptor;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.MethodType;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionControlInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // One permit, no waiting: a second gated call while the first runs is turned away at once
+    private final AdmissionControlInterceptor interceptor =
+            new AdmissionControlInterceptor(1, Duration.ZERO, Set.of("ReserveStock"), registry);
+
+    // The calls that reached their handler (as the handler sees them: wrapped by the interceptor)
+    private final List<ServerCall<String, String>> started = new CopyOnWriteArrayList<>();
+    private final ServerCallHandler<String, String> handler = (call, headers) -> {
+        started.add(call);
+        return new ServerCall.Listener<>() {
+        };
+    };
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should turn a call away with RESOURCE_EXHAUSTED while every permit is taken")
+    void testResourceExhausted() {
+        // 1. GIVEN: The only permit is held by a running call
+        interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+
+        // 2. WHEN: A second call arrives
+        FakeCall second = new FakeCall("ReserveStock");
+        interceptor.interceptCall(second, new Metadata(), handler);
+
+        // 3. THEN: It never reached its handler
+        assertThat(started).hasSize(1);
+        assertThat(second.status.getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        assertThat(rejected("resource_exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop a call whose deadline already passed with DEADLINE_EXCEEDED")
+    void testDeadlineExceeded() throws Exception {
+        // 1. GIVEN: A caller whose deadline is over by the time the call is admitted
+        FakeCall call = new FakeCall("ReserveStock");
+        Context.CancellableContext expired = Context.current().withDeadline(Deadline.after(0, TimeUnit.NANOSECONDS), scheduler);
+
+        // 2. WHEN: It comes in (free permits or not)
+        expired.call(() -> interceptor.interceptCall(call, new Metadata(), handler));
+
+        // 3. THEN: Dropped without running, and its permit is still there for the next call
+        assertThat(call.status.getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED);
+        assertThat(rejected("deadline_exceeded")).isEqualTo(1);
+        interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+        assertThat(started).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should give the permit back when the call completes")
+    void testPermitReleasedOnClose() {
+        // 1. GIVEN: A call holding the only permit
+        interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+
+        // 2. WHEN: Its handler answers
+        started.get(0).close(Status.OK, new Metadata());
+
+        // 3. THEN: The next call is admitted
+        interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+        assertThat(started).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should give the permit back when the client cancels the call")
+    void testPermitReleasedOnCancel() {
+        // 1. GIVEN: A call holding the only permit
+        ServerCall.Listener<String> listener = interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+
+        // 2. WHEN: The client cancels it
+        listener.onCancel();
+
+        // 3. THEN: The next call is admitted
+        interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+        assertThat(started).hasSize(2);
+
+        // 4. AND: The cancelled call closing afterwards does not free a second permit
+        started.get(0).close(Status.CANCELLED, new Metadata());
+        FakeCall third = new FakeCall("ReserveStock");
+        interceptor.interceptCall(third, new Metadata(), handler);
+        assertThat(started).hasSize(2);
+        assertThat(third.status.getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+    }
+
+    @Test
+    @DisplayName("Should never queue a method that does not need the database")
+    void testUngatedMethod() {
+        // 1. GIVEN: The only permit is held by a reservation
+        interceptor.interceptCall(new FakeCall("ReserveStock"), new Metadata(), handler);
+
+        // 2. WHEN: An availability read comes in
+        interceptor.interceptCall(new FakeCall("GetStockAvailability"), new Metadata(), handler);
+
+        // 3. THEN: It runs at once
+        assertThat(started).hasSize(2);
+    }
+
+    private double rejected(String status) {
+        return registry.get("inventory.grpc.admission.rejected").tag("status", status).counter().count();
+    }
+
+    // A unary call of StockService/'method' that remembers how it was closed
+    private static final class FakeCall extends ServerCall<String, String> {
+
+        private final MethodDescriptor<String, String> method;
+        private Status status;
+
+        FakeCall(String method) {
+            this.method = MethodDescriptor.<String, String>newBuilder()
+                    .setType(MethodType.UNARY)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName("inventory.StockService", method))
+                    .setRequestMarshaller(new StringMarshaller())
+                    .setResponseMarshaller(new StringMarshaller())
+                    .build();
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(String message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            this.status = status;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public MethodDescriptor<String, String> getMethodDescriptor() {
+            return method;
+        }
+    }
+
+    private static final class StringMarshaller implements MethodDescriptor.Marshaller<String> {
+
+        @Override
+        public InputStream stream(String value) {
+            return new ByteArrayInputStream(value.getBytes());
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,27 +1,76 @@
 package com.at.t.ecommerce.inventory.interfaces.grpc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringWriter;
+import java.sql.Timestamp;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.at.t.ecommerce.inventory.application.stock.AvailabilityWatchHub;
+import com.at.t.ecommerce.inventory.application.stock.OrderLine;
+import com.at.t.ecommerce.inventory.application.stock.ReceiptLine;
+import com.at.t.ecommerce.inventory.application.stock.ReceivedChunk;
+import com.at.t.ecommerce.inventory.application.stock.ReservationLine;
+import com.at.t.ecommerce.inventory.application.stock.ReservationOutcome;
+import com.at.t.ecommerce.inventory.application.stock.StockApplicationService;
+import com.at.t.ecommerce.inventory.application.stock.StockAvailability;
+import com.at.t.ecommerce.inventory.application.stock.StockReceivingService;
 import com.at.t.ecommerce.inventory.domain.stock.entities.Stock;
 import com.at.t.ecommerce.inventory.domain.stock.enums.UnitOfMeasure;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.InsufficientStockException;
+import com.at.t.ecommerce.inventory.domain.stock.exceptions.StockNotFoundException;
 import com.at.t.ecommerce.inventory.domain.stock.factory.StockFactory;
 import com.at.t.ecommerce.inventory.domain.stock.repositories.StockRepository;
 import com.at.t.ecommerce.inventory.domain.stock.vo.*;
 import com.at.t.ecommerce.inventory.grpc.generated.StockServiceGrpc;
+import com.at.t.ecommerce.inventory.infrastructure.expiry.ReservationExpiryScheduler;
+import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockOutboxRepository;
+import com.at.t.ecommerce.inventory.infrastructure.receiving.ReceiptFileImporter;
 import com.at.t.ecommerce.inventory.infrastructure.persistence.jpa.repositories.SpringDataStockRepository;
+import com.at.t.ecommerce.inventory.grpc.generated.GetProductAvailabilityRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.GetStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ProductAvailabilityResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.ReceiveStockLine;
+import com.at.t.ecommerce.inventory.grpc.generated.ReceiveStockProgress;
+import com.at.t.ecommerce.inventory.grpc.generated.ReservationRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReservationResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockBatchRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockBatchResponse;
 import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockStreamRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.ReserveStockStreamResponse;
 import com.at.t.ecommerce.inventory.grpc.generated.StockResponse;
+import com.at.t.ecommerce.inventory.grpc.generated.WatchAvailabilityRequest;
+import com.at.t.ecommerce.inventory.grpc.generated.AvailabilityUpdate;
 
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootTest(properties = {
 	    "grpc.server.port=9099", 
@@ -30,7 +79,9 @@ import io.grpc.ManagedChannelBuilder;
 	    
 	    // ✅ ADD THESE TWO LINES:
 	    "spring.flyway.enabled=false",                 // Stop Flyway from running its scripts
-	    "spring.jpa.hibernate.ddl-auto=create-drop"    // Let Hibernate create the tables instead
+	    "spring.jpa.hibernate.ddl-auto=create-drop",   // Let Hibernate create the tables instead
+	    "inventory.outbox.relay.enabled=false",        // No Kafka broker in this test
+	    "inventory.receiving.chunk-size=4"             // Several chunks out of a few receipt lines
 	})
 @ActiveProfiles("test")
 @DirtiesContext // Ensures a clean context for every test
@@ -42,11 +93,39 @@ class StockGrpcE2ETest {
     @Autowired
     private SpringDataStockRepository dbCleanupRepository;
     
+    @Autowired
+    private SpringDataStockOutboxRepository outboxRepository;
+
+    @Autowired
+    private StockApplicationService applicationService;
+
     @Autowired // Use the factory from the Spring Context
     private StockFactory factory;
 
+    @Autowired
+    private ReceiptFileImporter receiptImporter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReservationExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private AvailabilityWatchHub watchHub;
+
+    @Autowired
+    private StockReceivingService receivingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private ManagedChannel channel;
     private StockServiceGrpc.StockServiceBlockingStub blockingStub;
+    private StockServiceGrpc.StockServiceStub asyncStub;
 
     @BeforeEach
     void setup() {
@@ -56,6 +135,7 @@ class StockGrpcE2ETest {
                 .build();
 
         blockingStub = StockServiceGrpc.newBlockingStub(channel);
+        asyncStub = StockServiceGrpc.newStub(channel);
         
         // Clean DB before each test
         dbCleanupRepository.deleteAll();
@@ -99,4 +179,537 @@ class StockGrpcE2ETest {
              // We can check that too.
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("E2E: Should answer every pipelined request on the reservation stream")
+    void testReservationStream() throws InterruptedException {
+        // 1. GIVEN: Stock with 20 items On Hand
+        Stock stock = factory.createNewStock(new ProductId("prod-stream"), new WarehouseId("wh-stream"), new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(20, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+
+        List<ReserveStockStreamResponse> answers = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        StreamObserver<ReserveStockStreamRequest> requests = asyncStub.reserveStockStream(new StreamObserver<>() {
+            @Override public void onNext(ReserveStockStreamResponse value) { answers.add(value); }
+            @Override public void onError(Throwable t) { done.countDown(); }
+            @Override public void onCompleted() { done.countDown(); }
+        });
+
+        // 2. WHEN: 5 requests of 5 items are pipelined (only 4 can fit)
+        for (int i = 0; i < 5; i++) {
+            requests.onNext(ReserveStockStreamRequest.newBuilder()
+                    .setClientRequestId("req-" + i)
+                    .setReservation(ReserveStockRequest.newBuilder()
+                            .setProductId("prod-stream")
+                            .setWarehouseId("wh-stream")
+                            .setQuantity(5)
+                            .setUnitOfMeasure("EACH"))
+                    .build());
+        }
+        requests.onCompleted();
+
+        // 3. THEN: One answer per request, the 5th one rejected as a business error
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(answers).extracting(ReserveStockStreamResponse::getClientRequestId)
+                .containsExactly("req-0", "req-1", "req-2", "req-3", "req-4");
+        assertThat(answers).filteredOn(ReserveStockStreamResponse::getSuccess).hasSize(4);
+        assertThat(answers.get(4).getErrorCode()).isEqualTo("FAILED_PRECONDITION");
+
+        // 4. AND: The receipt and every successful reservation left their events in the outbox,
+        //    and falling through the re-order point (10) raised StockLevelLow once
+        assertThat(outboxRepository.findAll())
+                .filteredOn(row -> row.getAggregateId().equals(stock.getId().value()))
+                .extracting(row -> row.getEventType())
+                .containsExactlyInAnyOrder("StockReceived",
+                        "StockReserved", "StockReserved", "StockLevelLow", "StockReserved", "StockReserved");
+    }
+
+    @Test
+    @DisplayName("E2E: Should reserve a cart all-or-nothing, each line answering its own Stock's ATP")
+    void testReserveStockBatch() {
+        // 1. GIVEN: Two Stocks, 10 and 6 available
+        for (String[] row : new String[][] {{"prod-cart-a", "10"}, {"prod-cart-b", "6"}}) {
+            Stock stock = factory.createNewStock(new ProductId(row[0]), new WarehouseId("wh-cart"), new Owner("tester"), UnitOfMeasure.EACH);
+            stock.receiveStock(Quantity.of(Long.parseLong(row[1]), UnitOfMeasure.EACH));
+            domainRepository.save(stock);
+        }
+
+        // 2. WHEN: A cart takes 3 of A, 2 of B, then 4 more of A
+        ReserveStockBatchResponse response = blockingStub.reserveStockBatch(ReserveStockBatchRequest.newBuilder()
+                .addLines(cartLine("prod-cart-a", 3))
+                .addLines(cartLine("prod-cart-b", 2))
+                .addLines(cartLine("prod-cart-a", 4))
+                .build());
+
+        // 3. THEN: Every line got a hold, and the ATP of ITS Stock after the whole cart
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getLinesList()).extracting(line -> line.getCurrentAvailableQuantity()).containsExactly(3L, 4L, 3L);
+        assertThat(response.getLinesList()).extracting(line -> line.getReservationId()).doesNotContain("").doesNotHaveDuplicates();
+        assertThat(cartHolds()).isEqualTo(3);
+
+        // 4. WHEN: The next cart's second line is short (B has 4 left)
+        assertThatThrownBy(() -> blockingStub.reserveStockBatch(ReserveStockBatchRequest.newBuilder()
+                .addLines(cartLine("prod-cart-a", 1))
+                .addLines(cartLine("prod-cart-b", 5))
+                .build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("FAILED_PRECONDITION");
+
+        // 5. THEN: The whole cart rolled back: not even A's line was reserved or held
+        ProductId a = new ProductId("prod-cart-a");
+        WarehouseId wid = new WarehouseId("wh-cart");
+        assertThat(domainRepository.findByProductAndWarehouse(a, wid).orElseThrow().getQuantityReserved().value()).isEqualTo(7);
+        assertThat(domainRepository.findByProductAndWarehouse(new ProductId("prod-cart-b"), wid).orElseThrow()
+                .getQuantityReserved().value()).isEqualTo(2);
+        assertThat(cartHolds()).isEqualTo(3);
+    }
+
+    private static ReserveStockRequest cartLine(String productId, long quantity) {
+        return ReserveStockRequest.newBuilder().setProductId(productId).setWarehouseId("wh-cart")
+                .setQuantity(quantity).setUnitOfMeasure("EACH").setOwnerId("tester").build();
+    }
+
+    private int cartHolds() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_reservation WHERE warehouse_id = 'wh-cart'", Integer.class);
+    }
+
+    @Test
+    @DisplayName("E2E: Should reserve stock leased to sub-buckets through the batch RPC")
+    void testReserveLeasedStockBatch() {
+        // 1. GIVEN: 100 On Hand, all of it leased to two sub-buckets (left over from split mode)
+        ProductId pid = new ProductId("prod-leased");
+        WarehouseId wid = new WarehouseId("wh-leased");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(100, UnitOfMeasure.EACH));
+        stock.leaseToBuckets(Quantity.of(100, UnitOfMeasure.EACH));
+        Stock saved = domainRepository.save(stock);
+        domainRepository.saveBuckets(saved.getId(), new long[] {50, 50});
+
+        // 2. WHEN: A cart asks for 80 of it
+        ReserveStockBatchResponse response = blockingStub.reserveStockBatch(ReserveStockBatchRequest.newBuilder()
+                .addLines(ReserveStockRequest.newBuilder().setProductId("prod-leased").setWarehouseId("wh-leased")
+                        .setQuantity(80).setUnitOfMeasure("EACH").setOwnerId("tester"))
+                .build());
+
+        // 3. THEN: The leases came back under the row lock and the line went through
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getLines(0).getCurrentAvailableQuantity()).isEqualTo(20);
+        Stock reloaded = domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow();
+        assertThat(reloaded.getQuantityReserved().value()).isEqualTo(80);
+        assertThat(reloaded.getQuantityLeased().value()).isZero(); // No longer configured for split: drained
+        assertThat(domainRepository.findProductAvailability(pid)).contains(Quantity.of(20, UnitOfMeasure.EACH));
+    }
+
+    @Test
+    @DisplayName("E2E: Should serve availability even when the cache is unreachable")
+    void testGetStockAvailability() {
+        // 1. GIVEN: Stock with 30 items On Hand (no Redis in this test: the cache must fail open)
+        Stock stock = factory.createNewStock(new ProductId("prod-atp"), new WarehouseId("wh-atp"), new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(30, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+
+        // 2. WHEN
+        StockResponse response = blockingStub.getStockAvailability(GetStockRequest.newBuilder()
+                .setProductId("prod-atp")
+                .setWarehouseId("wh-atp")
+                .build());
+
+        // 3. THEN
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getCurrentAvailableQuantity()).isEqualTo(30);
+        assertThat(response.getStockId()).isEqualTo(stock.getId().value());
+    }
+
+    @Test
+    @DisplayName("E2E: Should answer repeated reads from the near cache and drop it on a committed write")
+    void testNearCacheInvalidation() {
+        // 1. GIVEN: Stock with 30 items On Hand, read once (loaded from the database into the near cache)
+        Stock stock = factory.createNewStock(new ProductId("prod-near"), new WarehouseId("wh-near"), new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(30, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+        GetStockRequest read = GetStockRequest.newBuilder().setProductId("prod-near").setWarehouseId("wh-near").build();
+        blockingStub.getStockAvailability(read);
+        double nearHits = meterRegistry.get("cache.gets").tags("cache", "availability.near", "result", "hit").functionCounter().count();
+
+        // 2. WHEN: Read again, then 4 reserved
+        assertThat(blockingStub.getStockAvailability(read).getCurrentAvailableQuantity()).isEqualTo(30);
+        blockingStub.reserveStock(ReserveStockRequest.newBuilder()
+                .setProductId("prod-near")
+                .setWarehouseId("wh-near")
+                .setQuantity(4)
+                .setUnitOfMeasure("EACH")
+                .build());
+
+        // 3. THEN: The second read never left the process, and the reservation is visible right away
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "availability.near", "result", "hit").functionCounter().count())
+                .isEqualTo(nearHits + 1);
+        assertThat(blockingStub.getStockAvailability(read).getCurrentAvailableQuantity()).isEqualTo(26);
+    }
+
+    @Test
+    @DisplayName("E2E: Should push a snapshot, then one coalesced update for a burst of reservations")
+    void testWatchAvailability() throws InterruptedException {
+        // 1. GIVEN: Stock with 100 items On Hand, watched (plus a key that has no Stock yet)
+        ProductId pid = new ProductId("prod-watch");
+        WarehouseId wid = new WarehouseId("wh-watch");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(100, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+
+        List<AvailabilityUpdate> updates = new CopyOnWriteArrayList<>();
+        CountDownLatch snapshot = new CountDownLatch(1);
+        CountDownLatch settled = new CountDownLatch(1);
+        asyncStub.watchAvailability(WatchAvailabilityRequest.newBuilder()
+                .addKeys(GetStockRequest.newBuilder().setProductId("prod-watch").setWarehouseId("wh-watch"))
+                .addKeys(GetStockRequest.newBuilder().setProductId("prod-unstocked").setWarehouseId("wh-watch"))
+                .build(), new StreamObserver<>() {
+                    @Override
+                    public void onNext(AvailabilityUpdate update) {
+                        updates.add(update);
+                        snapshot.countDown();
+                        if (update.getCurrentAvailableQuantity() == 80) settled.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+
+        // 2. WHEN: The snapshot arrived, then 20 reservations of 1
+        assertThat(snapshot.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 20; i++) {
+            applicationService.reserveStock(pid, wid, Quantity.of(1, UnitOfMeasure.EACH), null);
+        }
+
+        // 3. THEN: The snapshot said 100, and the burst came out as a few pushes ending at 80
+        assertThat(settled.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(updates.get(0).getSnapshot()).isTrue();
+        assertThat(updates.get(0).getCurrentAvailableQuantity()).isEqualTo(100);
+        assertThat(updates).extracting(AvailabilityUpdate::getProductId).containsOnly("prod-watch");
+        assertThat(updates.size() - 1).isBetween(1, 10);
+    }
+
+    @Test
+    @DisplayName("E2E: Should push the newest version of a Stock, whatever order its commits were announced in")
+    void testWatchOutOfOrderCommits() {
+        // 1. GIVEN: A watched Stock (100 On Hand)
+        ProductId pid = new ProductId("prod-watch-order");
+        WarehouseId wid = new WarehouseId("wh-watch");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(100, UnitOfMeasure.EACH));
+        stock = domainRepository.save(stock);
+        StockKey key = StockKey.of(pid, wid);
+        List<Long> pushed = new CopyOnWriteArrayList<>();
+        AvailabilityWatchHub.Watch watch = watchHub.watch(Set.of(key), new AvailabilityWatchHub.Subscriber() {
+            @Override
+            public void onAvailability(List<StockAvailability> updates, boolean snapshot) {
+                if (!snapshot) updates.forEach(update -> pushed.add(update.availableToPromise().value()));
+            }
+
+            @Override
+            public void onShutdown() {
+            }
+        });
+
+        // 2. WHEN: Two commits announce themselves newest first (version 6 left 90, version 5 left 95)
+        watchHub.changed(new StockAvailability(stock.getId(), key, Quantity.of(90, UnitOfMeasure.EACH)), 6);
+        watchHub.changed(new StockAvailability(stock.getId(), key, Quantity.of(95, UnitOfMeasure.EACH)), 5);
+        watchHub.push();
+
+        // 3. THEN: Only the newest is pushed, and the older one stays dropped after the push
+        watchHub.changed(new StockAvailability(stock.getId(), key, Quantity.of(95, UnitOfMeasure.EACH)), 5);
+        watchHub.push();
+        watch.close();
+        assertThat(pushed).containsExactly(90L);
+    }
+
+    @Test
+    @DisplayName("E2E: Should answer the total ATP of a Product across Warehouses in one call")
+    void testGetProductAvailability() {
+        // 1. GIVEN: The same Product in three Warehouses (10 + 20 + 30 On Hand)
+        ProductId pid = new ProductId("prod-multi-wh");
+        for (int i = 1; i <= 3; i++) {
+            Stock stock = factory.createNewStock(pid, new WarehouseId("wh-" + i), new Owner("tester"), UnitOfMeasure.EACH);
+            stock.receiveStock(Quantity.of(10L * i, UnitOfMeasure.EACH));
+            domainRepository.save(stock);
+        }
+
+        // 2. WHEN: 5 reserved in Warehouse 2
+        blockingStub.reserveStock(ReserveStockRequest.newBuilder()
+                .setProductId("prod-multi-wh")
+                .setWarehouseId("wh-2")
+                .setQuantity(5)
+                .setUnitOfMeasure("EACH")
+                .build());
+        ProductAvailabilityResponse response = blockingStub.getProductAvailability(GetProductAvailabilityRequest.newBuilder()
+                .setProductId("prod-multi-wh")
+                .build());
+
+        // 3. THEN
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getTotalAvailableQuantity()).isEqualTo(55);
+        assertThat(response.getUnitOfMeasure()).isEqualTo("EACH");
+
+        // 4. AND: A Product no Warehouse stocks is NOT_FOUND
+        assertThatThrownBy(() -> blockingStub.getProductAvailability(GetProductAvailabilityRequest.newBuilder()
+                .setProductId("prod-nowhere")
+                .build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("NOT_FOUND");
+    }
+
+    @Test
+    @DisplayName("E2E: Should receive a streamed delivery chunk by chunk, reporting progress and bad lines")
+    void testReceiveStockBulk() throws InterruptedException {
+        // 1. GIVEN: prod-dock-a exists with 10 On Hand; prod-dock-b is new to the Warehouse
+        Stock existing = factory.createNewStock(new ProductId("prod-dock-a"), new WarehouseId("wh-dock"), new Owner("tester"), UnitOfMeasure.EACH);
+        existing.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        domainRepository.save(existing);
+
+        List<ReceiveStockProgress> progress = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        StreamObserver<ReceiveStockLine> lines = asyncStub.receiveStockBulk(new StreamObserver<>() {
+            @Override public void onNext(ReceiveStockProgress value) { progress.add(value); }
+            @Override public void onError(Throwable t) { done.countDown(); }
+            @Override public void onCompleted() { done.countDown(); }
+        });
+
+        // 2. WHEN: 6 lines (chunk size 4), line 3 has an unknown unit, line 4 creates a Stock without an owner
+        lines.onNext(receiptLine("prod-dock-a", 5, "EACH", ""));
+        lines.onNext(receiptLine("prod-dock-b", 7, "EACH", "tester"));
+        lines.onNext(receiptLine("prod-dock-a", 1, "BARREL", ""));
+        lines.onNext(receiptLine("prod-dock-c", 1, "EACH", ""));
+        lines.onNext(receiptLine("prod-dock-a", 5, "EACH", ""));
+        lines.onNext(receiptLine("prod-dock-b", 3, "EACH", ""));
+        lines.onCompleted();
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // 3. THEN: One progress message per chunk, the last one closes the stream
+        assertThat(progress).hasSize(2);
+        assertThat(progress.get(0).getLinesProcessed()).isEqualTo(4);
+        assertThat(progress.get(0).getRejectedList()).extracting(r -> r.getLineNumber()).containsExactly(3L, 4L);
+        assertThat(progress.get(0).getRejected(1).getErrorCode()).isEqualTo("INVALID_ARGUMENT");
+        ReceiveStockProgress last = progress.get(1);
+        assertThat(last.getDone()).isTrue();
+        assertThat(last.getLinesProcessed()).isEqualTo(6);
+        assertThat(last.getLinesReceived()).isEqualTo(4);
+        assertThat(last.getLinesRejected()).isEqualTo(2);
+
+        // 4. AND: The good lines were received (and a Stock was created for prod-dock-b)
+        assertThat(domainRepository.findByProductAndWarehouse(new ProductId("prod-dock-a"), new WarehouseId("wh-dock"))
+                .orElseThrow().getQuantityOnHand().value()).isEqualTo(20);
+        assertThat(domainRepository.findByProductAndWarehouse(new ProductId("prod-dock-b"), new WarehouseId("wh-dock"))
+                .orElseThrow().getQuantityOnHand().value()).isEqualTo(10);
+        assertThat(domainRepository.findByProductAndWarehouse(new ProductId("prod-dock-c"), new WarehouseId("wh-dock"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("E2E: Should receive into one Stock when two receipts create it at the same time")
+    void testConcurrentStockCreation() throws Exception {
+        // 1. GIVEN: Another receipt created the Stock (30 On Hand) but has not committed yet
+        ProductId pid = new ProductId("prod-created-twice");
+        WarehouseId wid = new WarehouseId("wh-receiving");
+        CountDownLatch created = new CountDownLatch(1);
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Stock first = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+            first.receiveStock(Quantity.of(30, UnitOfMeasure.EACH));
+            domainRepository.save(first);
+            dbCleanupRepository.flush();
+            created.countDown();
+            sleep(300); // Commits while the chunk below waits on the row
+        }));
+        assertThat(created.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 2. WHEN: A chunk for the same Product, new to that Warehouse as far as it can see, commits too
+        ReceivedChunk chunk = receivingService.receiveChunk(List.of(
+                new ReceiptLine(pid, wid, Quantity.of(20, UnitOfMeasure.EACH), new Owner("tester"))));
+        other.get(5, TimeUnit.SECONDS);
+
+        // 3. THEN: Its line went into the Stock the other receipt created
+        assertThat(chunk.rejected()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_inventory WHERE product_id = ? AND warehouse_id = ?",
+                Long.class, pid.value(), wid.value())).isEqualTo(1);
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getQuantityOnHand().value()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("E2E: Should import a receipt file in chunks and report the rejected rows")
+    void testImportReceiptFile(@TempDir Path dir) throws Exception {
+        // 1. GIVEN: A receipt CSV with a header, 6 rows, one of them malformed
+        Path file = Files.writeString(dir.resolve("asn-0001.csv"), String.join("\n",
+                "product_id,warehouse_id,quantity,unit_of_measure,owner_id",
+                "prod-asn,wh-asn,10,EACH,tester",
+                "prod-asn,wh-asn,10,EACH",
+                "prod-asn,wh-asn,ten,EACH",
+                "prod-asn,wh-asn,10,EACH",
+                "prod-asn,wh-asn,10,EACH",
+                "prod-asn,wh-asn,10,EACH"));
+
+        // 2. WHEN
+        StringWriter rejects = new StringWriter();
+        ReceiptFileImporter.ImportSummary summary = receiptImporter.importFile(file, rejects);
+
+        // 3. THEN: 5 rows received over 2 chunks, the bad one reported by its line number
+        assertThat(summary.lines()).isEqualTo(6);
+        assertThat(summary.received()).isEqualTo(5);
+        assertThat(summary.rejected()).isEqualTo(1);
+        assertThat(summary.chunks()).isEqualTo(2);
+        assertThat(rejects.toString()).startsWith("4,");
+        assertThat(domainRepository.findByProductAndWarehouse(new ProductId("prod-asn"), new WarehouseId("wh-asn"))
+                .orElseThrow().getQuantityOnHand().value()).isEqualTo(50);
+    }
+
+    private static ReceiveStockLine receiptLine(String productId, long quantity, String unit, String owner) {
+        return ReceiveStockLine.newBuilder()
+                .setProductId(productId)
+                .setWarehouseId("wh-dock")
+                .setQuantity(quantity)
+                .setUnitOfMeasure(unit)
+                .setOwnerId(owner)
+                .build();
+    }
+
+    @Test
+    @DisplayName("E2E: Should give a released hold back and keep a confirmed one")
+    void testReleaseAndConfirmReservation() {
+        // 1. GIVEN: Stock with 10 items On Hand
+        ProductId pid = new ProductId("prod-ledger");
+        WarehouseId wid = new WarehouseId("wh-ledger");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+        ReserveStockRequest reserve = ReserveStockRequest.newBuilder()
+                .setProductId("prod-ledger")
+                .setWarehouseId("wh-ledger")
+                .setQuantity(4)
+                .setUnitOfMeasure("EACH")
+                .build();
+
+        // 2. WHEN: A hold is taken, then released
+        String abandoned = blockingStub.reserveStock(reserve).getReservationId();
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(6);
+        ReservationResponse released = blockingStub.releaseReservation(ReservationRequest.newBuilder().setReservationId(abandoned).build());
+
+        // 3. THEN: The stock is back, and the hold cannot be released twice
+        assertThat(released.getStatus()).isEqualTo("RELEASED");
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(10);
+        assertThatThrownBy(() -> blockingStub.releaseReservation(ReservationRequest.newBuilder().setReservationId(abandoned).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("FAILED_PRECONDITION");
+
+        // 4. AND: A confirmed hold keeps its stock
+        String kept = blockingStub.reserveStock(reserve).getReservationId();
+        ReservationResponse confirmed = blockingStub.confirmReservation(ReservationRequest.newBuilder().setReservationId(kept).build());
+        assertThat(confirmed.getStatus()).isEqualTo("CONFIRMED");
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("E2E: Should reserve an order line only once, however often it is retried")
+    void testIdempotentReserveStock() {
+        // 1. GIVEN: Stock with 10 items On Hand
+        ProductId pid = new ProductId("prod-retry");
+        WarehouseId wid = new WarehouseId("wh-retry");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+        ReserveStockRequest request = ReserveStockRequest.newBuilder()
+                .setProductId("prod-retry")
+                .setWarehouseId("wh-retry")
+                .setQuantity(3)
+                .setUnitOfMeasure("EACH")
+                .setOrderId("order-42")
+                .build();
+
+        // 2. WHEN: The client retries twice (answered from the idempotency cache)
+        String first = blockingStub.reserveStock(request).getReservationId();
+        String retried = blockingStub.reserveStock(request).getReservationId();
+        String again = blockingStub.reserveStock(request).getReservationId();
+
+        // 3. THEN: One hold only
+        assertThat(retried).isEqualTo(first);
+        assertThat(again).isEqualTo(first);
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(7);
+
+        // 4. AND: Past the cache, the ledger gives the same answer
+        assertThat(applicationService.reserveStock(pid, wid, Quantity.of(3, UnitOfMeasure.EACH), "order-42").value()).isEqualTo(first);
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(7);
+
+        // 5. AND: The same order line with another amount is a client error
+        assertThatThrownBy(() -> blockingStub.reserveStock(request.toBuilder().setQuantity(5).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .hasMessageContaining("INVALID_ARGUMENT");
+    }
+
+    @Test
+    @DisplayName("E2E: Should reserve a batch of order lines per Stock, rejecting bad lines on their own")
+    void testReserveOrderLines() {
+        // 1. GIVEN: Stock with 10 items On Hand
+        ProductId pid = new ProductId("prod-orders");
+        WarehouseId wid = new WarehouseId("wh-orders");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+        ReservationLine three = new ReservationLine(pid, wid, Quantity.of(3, UnitOfMeasure.EACH));
+        ReservationLine five = new ReservationLine(pid, wid, Quantity.of(5, UnitOfMeasure.EACH));
+        ReservationLine unknown = new ReservationLine(new ProductId("prod-nowhere"), wid, Quantity.of(1, UnitOfMeasure.EACH));
+
+        // 2. WHEN: One batch of 4 orders hits the same Stock (plus a line for a Stock that does not exist)
+        List<ReservationOutcome> outcomes = applicationService.reserveOrderLines(List.of(
+                new OrderLine("order-a", three),
+                new OrderLine("order-b", five),
+                new OrderLine("order-b", unknown),
+                new OrderLine("order-c", three)));
+
+        // 3. THEN: Each line has its outcome, in order; the Stock took 3 + 5 and had nothing left for order-c
+        assertThat(outcomes).extracting(ReservationOutcome::isSuccess).containsExactly(true, true, false, false);
+        assertThat(outcomes.get(2).failure()).isInstanceOf(StockNotFoundException.class);
+        assertThat(outcomes.get(3).failure()).isInstanceOf(InsufficientStockException.class);
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(2);
+
+        // 4. AND: The redelivered batch gets the same holds back, without reserving again
+        List<ReservationOutcome> redelivered = applicationService.reserveOrderLines(List.of(
+                new OrderLine("order-a", three),
+                new OrderLine("order-b", five)));
+        assertThat(redelivered).extracting(outcome -> outcome.reserved().reservationId())
+                .containsExactly(outcomes.get(0).reserved().reservationId(), outcomes.get(1).reserved().reservationId());
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("E2E: Should expire an overdue hold that is on no schedule (its instance died)")
+    void testExpiryCatchUp() {
+        // 1. GIVEN: Stock with 10 items On Hand, 4 of them held
+        ProductId pid = new ProductId("prod-orphan");
+        WarehouseId wid = new WarehouseId("wh-orphan");
+        Stock stock = factory.createNewStock(pid, wid, new Owner("tester"), UnitOfMeasure.EACH);
+        stock.receiveStock(Quantity.of(10, UnitOfMeasure.EACH));
+        domainRepository.save(stock);
+        String hold = applicationService.reserveStock(pid, wid, Quantity.of(4, UnitOfMeasure.EACH), null).value();
+
+        // 2. WHEN: The ledger says it expired an hour ago, but this instance's wheel still has the real time
+        jdbcTemplate.update("UPDATE stock_reservation SET expires_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofHours(1))), UUID.fromString(hold));
+        expiryScheduler.tick();
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(6);
+
+        // 3. THEN: The catch-up finds it in the ledger and gives the stock back
+        expiryScheduler.catchUp();
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM stock_reservation WHERE id = ?", String.class, UUID.fromString(hold)))
+                .isEqualTo("EXPIRED");
+        assertThat(domainRepository.findByProductAndWarehouse(pid, wid).orElseThrow().getAvailableToPromise().value()).isEqualTo(10);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}